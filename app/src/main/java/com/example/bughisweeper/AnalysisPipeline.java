@@ -0,0 +1,333 @@
+package com.example.bughisweeper;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The game's single analysis service. Runs MathAnalyzer on a dedicated worker thread so a tap
+ * never waits for analysis, and shares each result with every consumer (GameActivity,
+ * SuperpowerManager, GameStatsFragment) instead of each computing its own probabilities.
+ *
+ * The UI thread submits immutable BoardSnapshots; the worker owns the analyzer and publishes
+ * an immutable AnalysisResult through LiveData. Every board state gets a version number and
+ * submitting an unchanged board is a no-op, so each version is analyzed at most once. Requests
+ * are coalesced: if the player taps again before the worker has picked up the previous
+ * snapshot, the newer snapshot replaces it (carrying the change-journal entries of both), so
+ * at most one analysis waits behind the one running. Results that finish after a new game
+ * started are dropped.
+ *
+ * After each analysis the analyzed snapshot is handed to a WinProbabilityEstimator, whose
+ * progressively refined estimates are published separately through getWinEstimates(). The
+ * next analyzed version cancels the estimate still running.
+ */
+public class AnalysisPipeline {
+
+    private static final String TAG = "AnalysisPipeline";
+
+    // Budget of one win probability estimate
+    private static final int WIN_ESTIMATE_SAMPLES = 1000;
+    private static final long WIN_ESTIMATE_BUDGET_MILLIS = 5000;
+
+    // Owned by the worker thread once constructed
+    private final MathAnalyzer analyzer;
+    private final ExecutorService executor;
+    private final MutableLiveData<AnalysisResult> results = new MutableLiveData<>();
+    private final WinProbabilityEstimator estimator;
+    private final MutableLiveData<WinEstimate> winEstimates = new MutableLiveData<>();
+    private boolean analysisFailed; // The last analysis threw; resynchronize on the next
+
+    // Request waiting for the worker, guarded by lock
+    private final Object lock = new Object();
+    private Request pending;
+    private int game;
+
+    // Journal position and version of the last submitted snapshot (UI thread only)
+    private int submittedEpoch;
+    private int submittedChangeCount;
+    private int submittedVersion;
+
+    public AnalysisPipeline(MathAnalyzer analyzer) {
+        this.analyzer = analyzer;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bughis-analysis");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.estimator = new WinProbabilityEstimator(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Latest analysis of the current game; observe from the UI thread
+     */
+    public LiveData<AnalysisResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Win probability estimates of the current game, refined while the board is unchanged;
+     * observe from the UI thread
+     */
+    public LiveData<WinEstimate> getWinEstimates() {
+        return winEstimates;
+    }
+
+    /**
+     * Latest win probability estimate of the current game, or null if none is available yet
+     */
+    public WinEstimate getLatestWinEstimate() {
+        WinEstimate estimate = winEstimates.getValue();
+        return estimate != null && estimate.game == getGame() ? estimate : null;
+    }
+
+    /**
+     * Latest analysis of the current game, or null if none has finished yet (UI thread)
+     */
+    public AnalysisResult getLatest() {
+        AnalysisResult result = results.getValue();
+        return result != null && result.game == getGame() ? result : null;
+    }
+
+    /**
+     * Version of the board state most recently submitted, matching AnalysisResult.version
+     */
+    public int getSubmittedVersion() {
+        return submittedVersion;
+    }
+
+    /**
+     * Identifier of the current game, matching AnalysisResult.game
+     */
+    public int getGame() {
+        synchronized (lock) {
+            return game;
+        }
+    }
+
+    /**
+     * Start analyzing a new (or reset) game. Anything still queued for the old game is dropped.
+     */
+    public void startGame(BughisBoard board) {
+        boolean schedule;
+        synchronized (lock) {
+            game++;
+            schedule = pending == null;
+            pending = new Request(game, true, 0);
+            pending.snapshot = board.snapshot(0);
+        }
+        submittedEpoch = board.getChangeEpoch();
+        submittedChangeCount = board.getChangeCount();
+        submittedVersion = 0;
+        if (schedule) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Record a move for the analyzer's move history. Call before the move is applied to the
+     * board; the pre-move values come from the latest analysis the worker has finished.
+     */
+    public void recordMove(int row, int col, MathAnalyzer.MoveType moveType) {
+        boolean schedule;
+        synchronized (lock) {
+            schedule = pending == null;
+            if (schedule) {
+                pending = new Request(game, false, submittedChangeCount);
+                pending.version = submittedVersion;
+            }
+            pending.moves.add(new Move(row, col, moveType));
+        }
+        if (schedule) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Queue analysis of the board as it is now, replacing any snapshot not yet started.
+     * Does nothing if the board has not changed since the last submission.
+     */
+    public void submit(BughisBoard board) {
+        if (board.getChangeEpoch() == submittedEpoch && board.getChangeCount() == submittedChangeCount) {
+            return; // This version is already queued or analyzed
+        }
+
+        boolean schedule;
+        synchronized (lock) {
+            Request previous = pending;
+            schedule = previous == null;
+
+            int changesFrom = previous != null ? previous.changesFrom : submittedChangeCount;
+            if (board.getChangeEpoch() != submittedEpoch) {
+                changesFrom = 0; // Journal restarted; the analyzer resynchronizes on its own
+            }
+
+            Request request = new Request(game, previous != null && previous.newGame, changesFrom);
+            if (previous != null) {
+                request.moves.addAll(previous.moves);
+            }
+            request.snapshot = board.snapshot(changesFrom);
+            request.version = submittedVersion + 1;
+            pending = request;
+        }
+        submittedEpoch = board.getChangeEpoch();
+        submittedChangeCount = board.getChangeCount();
+        submittedVersion++;
+        if (schedule) {
+            executor.execute(this::drain);
+        }
+    }
+
+    public void shutdown() {
+        synchronized (lock) {
+            game++;
+            pending = null;
+        }
+        executor.shutdownNow();
+        estimator.shutdown();
+    }
+
+    private void drain() {
+        Request request;
+        synchronized (lock) {
+            request = pending;
+            pending = null;
+        }
+        if (request == null) return;
+
+        try {
+            if (request.newGame) {
+                analyzer.initializeGame(request.snapshot);
+            } else {
+                for (Move move : request.moves) {
+                    analyzer.analyzeMove(move.row, move.col, move.type);
+                }
+                if (request.snapshot == null) return; // Nothing to analyze yet
+                if (analysisFailed) {
+                    // The failed update may have stopped part way through the journal
+                    analyzer.invalidateAnalysis();
+                }
+                analyzer.updateCompleteAnalysis(request.snapshot);
+            }
+            analysisFailed = false;
+
+            AnalysisResult result = new AnalysisResult(request.game, request.version, request.snapshot, analyzer);
+            synchronized (lock) {
+                if (request.game != game) return; // A new game started meanwhile
+            }
+            results.postValue(result);
+            estimateWinProbability(request);
+        } catch (Exception e) {
+            // Not critical, but the next request must not build on this one
+            analysisFailed = true;
+            Log.e(TAG, "Analysis failed", e);
+        }
+    }
+
+    /**
+     * Estimate the win probability of the analyzed snapshot in the background
+     */
+    private void estimateWinProbability(Request request) {
+        final int requestGame = request.game;
+        final int version = request.version;
+        estimator.start(request.snapshot, WIN_ESTIMATE_SAMPLES, WIN_ESTIMATE_BUDGET_MILLIS, version, estimate -> {
+            if (requestGame != getGame()) return;
+            winEstimates.postValue(new WinEstimate(requestGame, version, estimate));
+        });
+    }
+
+    private static final class Request {
+        final int game;
+        final boolean newGame;
+        final int changesFrom;
+        final List<Move> moves = new ArrayList<>();
+        BoardSnapshot snapshot;
+        int version;
+
+        Request(int game, boolean newGame, int changesFrom) {
+            this.game = game;
+            this.newGame = newGame;
+            this.changesFrom = changesFrom;
+        }
+    }
+
+    private static final class Move {
+        final int row;
+        final int col;
+        final MathAnalyzer.MoveType type;
+
+        Move(int row, int col, MathAnalyzer.MoveType type) {
+            this.row = row;
+            this.col = col;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Immutable copy of everything the UI shows from one analysis of one board version
+     */
+    public static final class AnalysisResult {
+        public final int game;
+        public final int version;
+        public final ReadableBoard board; // The analyzed board state
+        public final double[][] probabilityGrid;
+        public final double[][] entropyGrid;
+        public final int[][] safetyScores;
+        public final int[][] riskLevels;
+        public final MathAnalyzer.GameStatistics stats;
+        public final MathAnalyzer.OptimalMove optimalMove;
+        public final int safestCell; // Flat index, or -1 if no hidden unflagged cell is left
+        public final boolean exact;
+
+        AnalysisResult(int game, int version, BoardSnapshot board, MathAnalyzer analyzer) {
+            this.game = game;
+            this.version = version;
+            this.board = board;
+            this.probabilityGrid = copy(analyzer.getProbabilityGrid());
+            this.entropyGrid = copy(analyzer.getEntropyGrid());
+            this.safetyScores = copy(analyzer.getSafetyScores());
+            this.riskLevels = copy(analyzer.getRiskLevels());
+            this.stats = analyzer.getCurrentStats().copy();
+            this.optimalMove = analyzer.getOptimalMove();
+            this.safestCell = analyzer.getSafestCell();
+            this.exact = analyzer.isProbabilityExact();
+        }
+
+        private static double[][] copy(double[][] grid) {
+            double[][] copy = new double[grid.length][];
+            for (int r = 0; r < grid.length; r++) {
+                copy[r] = grid[r].clone();
+            }
+            return copy;
+        }
+
+        private static int[][] copy(int[][] grid) {
+            int[][] copy = new int[grid.length][];
+            for (int r = 0; r < grid.length; r++) {
+                copy[r] = grid[r].clone();
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Win probability estimate of one analyzed board version
+     */
+    public static final class WinEstimate {
+        public final int game;
+        public final int version;
+        public final WinProbabilityEstimator.Estimate estimate;
+
+        WinEstimate(int game, int version, WinProbabilityEstimator.Estimate estimate) {
+            this.game = game;
+            this.version = version;
+            this.estimate = estimate;
+        }
+    }
+}
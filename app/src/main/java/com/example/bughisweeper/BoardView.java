@@ -2,13 +2,16 @@ package com.example.bughisweeper;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.ShapeDrawable;
 import android.graphics.drawable.shapes.OvalShape;
 import android.util.AttributeSet;
+import android.util.LruCache;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.ScaleGestureDetector;
@@ -20,6 +23,11 @@ import androidx.core.content.ContextCompat;
 
 /**
  * Custom view for rendering the Bughisweeper game board.
+ * Every cell look (hidden, flagged, empty, 1-8, bug) is prerendered once per zoom level into a
+ * glyph atlas. The board itself is rendered from the atlas into 16x16-cell chunk bitmaps kept in
+ * an LRU cache with a memory budget, so panning and zooming only composite a few chunks per
+ * frame. After a move only the cells the board reports as changed are patched into their
+ * chunks and invalidated.
  */
 public class BoardView extends View {
 
@@ -30,6 +38,24 @@ public class BoardView extends View {
     private static final float MIN_SCALE = 0.5f;
     private static final float MAX_SCALE = 3.0f;
 
+    // Glyph atlas slots, one tile per cell look
+    private static final int GLYPH_HIDDEN = 0;
+    private static final int GLYPH_FLAG = 1;
+    private static final int GLYPH_EMPTY = 2;
+    private static final int GLYPH_NUMBER = 3; // 1-8 take slots 3-10
+    private static final int GLYPH_BUG = 11;
+    private static final int GLYPH_COUNT = 12;
+
+    // Cells per chunk side, and share of the heap the chunk cache may use
+    private static final int CHUNK_CELLS = 16;
+    private static final int CHUNK_CACHE_HEAP_DIVISOR = 8;
+
+    // Largest tile rendered; above it chunks are stretched, so one chunk stays within
+    // 1024x1024 pixels (4 MB) however far the board is zoomed
+    private static final int MAX_TILE_SIZE = 64;
+    // Chunks bigger than this share of the cache are drawn but not kept
+    private static final int CHUNK_CACHE_MAX_SHARE = 4;
+
     // Cell size in pixels
     private float cellSize;
     private float defaultCellSize;
@@ -38,6 +64,36 @@ public class BoardView extends View {
     private Paint cellPaint;
     private Paint textPaint;
     private Paint linePaint;
+    private Paint bitmapPaint;
+
+    // Prerendered cell glyphs at atlasTileSize pixels per tile
+    private Bitmap glyphAtlas;
+    private int atlasTileSize;
+    private boolean scaling;
+
+    // Rendered chunks at atlasTileSize pixels per cell, keyed by chunk index
+    private final LruCache<Integer, Bitmap> chunkCache = new LruCache<Integer, Bitmap>(
+            (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / CHUNK_CACHE_HEAP_DIVISOR)) {
+        @Override
+        protected int sizeOf(Integer key, Bitmap chunk) {
+            return chunk.getByteCount();
+        }
+    };
+    private Integer[] chunkKeys = new Integer[0]; // Boxed once so lookups do not allocate
+    private int chunkRows;
+    private int chunkCols;
+    private final Canvas chunkCanvas = new Canvas();
+
+    // Reused drawing state, so onDraw allocates nothing
+    private final Rect glyphSrc = new Rect();
+    private final RectF cellDst = new RectF();
+    private final Rect clipBounds = new Rect();
+    private final Rect dirtyCells = new Rect();
+    private final float[] gridLines = new float[(CHUNK_CELLS + 1) * 2 * 4];
+
+    // Change-journal position already drawn
+    private int drawnChangeEpoch;
+    private int drawnChangeCount;
 
     // Board and cell state
     private BughisBoard board;
@@ -111,6 +167,9 @@ public class BoardView extends View {
             linePaint.setColor(0xFF888888);
             linePaint.setStrokeWidth(1 * density);
 
+            bitmapPaint = new Paint();
+            bitmapPaint.setFilterBitmap(true);
+
             // Initialize theme colors
             loadThemeColors();
 
@@ -131,12 +190,25 @@ public class BoardView extends View {
      */
     private void loadThemeColors() {
         Context context = getContext();
+        ThemeManager.Palette palette = null;
+        try {
+            palette = ThemeManager.getInstance(context).getPalette();
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading theme palette", e);
+        }
 
-        // Set default values first
-        revealedCellColor = ContextCompat.getColor(context, R.color.classic_cell_revealed);
-        unrevealedCellColor = ContextCompat.getColor(context, R.color.classic_cell_unrevealed);
-        bugColor = ContextCompat.getColor(context, R.color.classic_bug);
-        flagColor = ContextCompat.getColor(context, R.color.classic_flag);
+        // Set default values first, from the resolved theme palette
+        if (palette != null) {
+            revealedCellColor = palette.getCellRevealedColor();
+            unrevealedCellColor = palette.getCellUnrevealedColor();
+            bugColor = palette.getBugColor();
+            flagColor = palette.getFlagColor();
+        } else {
+            revealedCellColor = ContextCompat.getColor(context, R.color.classic_cell_revealed);
+            unrevealedCellColor = ContextCompat.getColor(context, R.color.classic_cell_unrevealed);
+            bugColor = ContextCompat.getColor(context, R.color.classic_bug);
+            flagColor = ContextCompat.getColor(context, R.color.classic_flag);
+        }
 
         try {
             // Get colors from theme attributes
@@ -184,11 +256,10 @@ public class BoardView extends View {
             bugDrawable = ContextCompat.getDrawable(context, R.drawable.bug_classic);
             flagDrawable = ContextCompat.getDrawable(context, R.drawable.flag_classic);
 
-            // Try to get themed versions
-            try {
-                ThemeManager themeManager = ThemeManager.getInstance(context);
-                Drawable themeBugDrawable = themeManager.getThemeDrawable("bug");
-                Drawable themeFlagDrawable = themeManager.getThemeDrawable("flag");
+            // Try to get themed versions, preloaded in the palette
+            if (palette != null) {
+                Drawable themeBugDrawable = palette.newBugDrawable();
+                Drawable themeFlagDrawable = palette.newFlagDrawable();
 
                 // Only use themed drawables if not null
                 if (themeBugDrawable != null) {
@@ -197,8 +268,6 @@ public class BoardView extends View {
                 if (themeFlagDrawable != null) {
                     flagDrawable = themeFlagDrawable;
                 }
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading themed drawables, using classics", e);
             }
         } catch (Exception e) {
             Log.e(TAG, "Error loading classic drawables, creating fallbacks", e);
@@ -224,10 +293,76 @@ public class BoardView extends View {
      */
     public void setBoard(BughisBoard board) {
         this.board = board;
+        chunkCache.evictAll();
+        if (board != null) {
+            chunkRows = (board.getRows() + CHUNK_CELLS - 1) / CHUNK_CELLS;
+            chunkCols = (board.getCols() + CHUNK_CELLS - 1) / CHUNK_CELLS;
+            chunkKeys = new Integer[chunkRows * chunkCols];
+            for (int i = 0; i < chunkKeys.length; i++) {
+                chunkKeys[i] = i;
+            }
+            drawnChangeEpoch = board.getChangeEpoch();
+            drawnChangeCount = board.getChangeCount();
+        }
         resetViewport();
         invalidate();
     }
 
+    /**
+     * Redraw only the cells that changed since the last call, using the board's change journal.
+     * Call after a move instead of invalidate().
+     */
+    public void refreshChangedCells() {
+        if (board == null) return;
+
+        try {
+            if (!consumeChanges()) {
+                invalidate(); // Journal restarted, so the changed cells are unknown
+                return;
+            }
+            if (dirtyCells.isEmpty()) return;
+
+            // Dirty rectangle around the changed cells, padded for the grid lines
+            float size = cellSize * scale;
+            int pad = (int) Math.ceil(linePaint.getStrokeWidth()) + 1;
+            invalidate((int) Math.floor(offsetX + dirtyCells.left * size) - pad,
+                    (int) Math.floor(offsetY + dirtyCells.top * size) - pad,
+                    (int) Math.ceil(offsetX + dirtyCells.right * size) + pad,
+                    (int) Math.ceil(offsetY + dirtyCells.bottom * size) + pad);
+        } catch (Exception e) {
+            Log.e(TAG, "Error refreshing changed cells", e);
+            invalidate();
+        }
+    }
+
+    /**
+     * Patch cells changed since the last call into their cached chunks and collect their
+     * bounds (in cells) in dirtyCells
+     * @return False if the journal restarted and every chunk was dropped instead
+     */
+    private boolean consumeChanges() {
+        int epoch = board.getChangeEpoch();
+        int count = board.getChangeCount();
+        dirtyCells.setEmpty();
+        if (epoch != drawnChangeEpoch || count < drawnChangeCount) {
+            drawnChangeEpoch = epoch;
+            drawnChangeCount = count;
+            chunkCache.evictAll();
+            return false;
+        }
+
+        int cols = board.getCols();
+        for (int i = drawnChangeCount; i < count; i++) {
+            int index = board.getChangedIndex(i);
+            int row = index / cols;
+            int col = index % cols;
+            patchChunkCell(row, col);
+            dirtyCells.union(col, row, col + 1, row + 1);
+        }
+        drawnChangeCount = count;
+        return true;
+    }
+
     /**
      * Set cell action listener
      * @param listener OnCellActionListener instance
@@ -271,6 +406,13 @@ public class BoardView extends View {
         resetViewport();
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        chunkCache.evictAll();
+        glyphAtlas = null;
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
@@ -278,101 +420,185 @@ public class BoardView extends View {
         if (board == null) return;
 
         try {
-            // Calculate the visible portion of the board
-            int startRow = Math.max(0, (int)(-offsetY / (cellSize * scale)));
-            int startCol = Math.max(0, (int)(-offsetX / (cellSize * scale)));
-
-            int endRow = Math.min(board.getRows(), (int)((-offsetY + getHeight()) / (cellSize * scale)) + 1);
-            int endCol = Math.min(board.getCols(), (int)((-offsetX + getWidth()) / (cellSize * scale)) + 1);
-
-            // Draw each visible cell
-            for (int row = startRow; row < endRow; row++) {
-                for (int col = startCol; col < endCol; col++) {
-                    Cell cell = board.getCell(row, col);
-                    if (cell != null) {
-                        drawCell(canvas, cell);
-                    }
+            float size = cellSize * scale;
+            float chunkSize = CHUNK_CELLS * size;
+            ensureGlyphAtlas(size);
+            if (glyphAtlas == null) return;
+            consumeChanges(); // Pick up moves made without refreshChangedCells()
+
+            // Only chunks inside the view and the dirty region need drawing
+            if (!canvas.getClipBounds(clipBounds)) return;
+            float left = Math.max(0, clipBounds.left);
+            float top = Math.max(0, clipBounds.top);
+            float right = Math.min(getWidth(), clipBounds.right);
+            float bottom = Math.min(getHeight(), clipBounds.bottom);
+
+            int startChunkRow = Math.max(0, (int) Math.floor((top - offsetY) / chunkSize));
+            int startChunkCol = Math.max(0, (int) Math.floor((left - offsetX) / chunkSize));
+            int endChunkRow = Math.min(chunkRows, (int) Math.floor((bottom - offsetY) / chunkSize) + 1);
+            int endChunkCol = Math.min(chunkCols, (int) Math.floor((right - offsetX) / chunkSize) + 1);
+
+            // Composite each visible chunk, rendering it first if it is not cached
+            for (int chunkRow = startChunkRow; chunkRow < endChunkRow; chunkRow++) {
+                for (int chunkCol = startChunkCol; chunkCol < endChunkCol; chunkCol++) {
+                    Bitmap chunk = getChunk(chunkRow, chunkCol);
+                    float x = offsetX + chunkCol * chunkSize;
+                    float y = offsetY + chunkRow * chunkSize;
+                    cellDst.set(x, y, x + chunk.getWidth() / (float) atlasTileSize * size,
+                            y + chunk.getHeight() / (float) atlasTileSize * size);
+                    canvas.drawBitmap(chunk, null, cellDst, bitmapPaint);
                 }
             }
+        } catch (OutOfMemoryError e) {
+            // Drop the cached chunks so the next frame can render again
+            chunkCache.evictAll();
+            Log.e(TAG, "Out of memory in onDraw", e);
         } catch (Exception e) {
             Log.e(TAG, "Error in onDraw", e);
         }
     }
 
     /**
-     * Draw a single cell
-     * @param canvas Canvas to draw on
-     * @param cell Cell to draw
+     * Cached bitmap of a chunk, rendered from the glyph atlas on a cache miss
      */
-    private void drawCell(Canvas canvas, Cell cell) {
-        try {
-            float x = offsetX + (cell.getCol() * cellSize * scale);
-            float y = offsetY + (cell.getRow() * cellSize * scale);
-
-            // Cell rectangle
-            Rect cellRect = new Rect(
-                    (int)x,
-                    (int)y,
-                    (int)(x + cellSize * scale),
-                    (int)(y + cellSize * scale)
-            );
-
-            // Draw cell background
-            if (cell.isRevealed()) {
-                cellPaint.setColor(revealedCellColor);
-            } else {
-                cellPaint.setColor(unrevealedCellColor);
-            }
-            canvas.drawRect(cellRect, cellPaint);
-
-            // Draw cell content
-            if (cell.isRevealed()) {
-                if (cell.hasBug()) {
-                    // Draw bug
-                    drawableBounds(bugDrawable, cellRect);
-                    bugDrawable.draw(canvas);
-                } else if (cell.getAdjacentBugs() > 0) {
-                    // Draw number
-                    int number = cell.getAdjacentBugs();
-                    textPaint.setColor(numberColors[Math.min(number - 1, numberColors.length - 1)]);
-                    textPaint.setTextSize(cellSize * scale * 0.6f);
-
-                    float textX = x + (cellSize * scale / 2);
-                    float textY = y + (cellSize * scale / 2) - ((textPaint.descent() + textPaint.ascent()) / 2);
-
-                    canvas.drawText(String.valueOf(number), textX, textY, textPaint);
-                }
-            } else if (cell.isFlagged()) {
-                // Draw flag
-                drawableBounds(flagDrawable, cellRect);
-                flagDrawable.draw(canvas);
+    private Bitmap getChunk(int chunkRow, int chunkCol) {
+        Integer key = chunkKeys[chunkRow * chunkCols + chunkCol];
+        Bitmap chunk = chunkCache.get(key);
+        if (chunk != null) return chunk;
+
+        int startRow = chunkRow * CHUNK_CELLS;
+        int startCol = chunkCol * CHUNK_CELLS;
+        int endRow = Math.min(board.getRows(), startRow + CHUNK_CELLS);
+        int endCol = Math.min(board.getCols(), startCol + CHUNK_CELLS);
+
+        chunk = Bitmap.createBitmap((endCol - startCol) * atlasTileSize,
+                (endRow - startRow) * atlasTileSize, Bitmap.Config.ARGB_8888);
+        chunkCanvas.setBitmap(chunk);
+        for (int row = startRow; row < endRow; row++) {
+            for (int col = startCol; col < endCol; col++) {
+                drawChunkCell(row, col, startRow, startCol);
             }
+        }
+        drawGridLines(startRow, endRow, startCol, endCol, startRow, startCol);
+        chunkCanvas.setBitmap(null);
 
-            // Draw cell border
-            canvas.drawLine(x, y, x + cellSize * scale, y, linePaint);
-            canvas.drawLine(x, y, x, y + cellSize * scale, linePaint);
-            canvas.drawLine(x + cellSize * scale, y, x + cellSize * scale, y + cellSize * scale, linePaint);
-            canvas.drawLine(x, y + cellSize * scale, x + cellSize * scale, y + cellSize * scale, linePaint);
-        } catch (Exception e) {
-            Log.e(TAG, "Error drawing cell", e);
+        if (chunk.getByteCount() <= chunkCache.maxSize() / CHUNK_CACHE_MAX_SHARE) {
+            chunkCache.put(key, chunk);
         }
+        return chunk;
+    }
+
+    /**
+     * Redraw one changed cell into its chunk, if that chunk is cached
+     */
+    private void patchChunkCell(int row, int col) {
+        if (glyphAtlas == null) return;
+
+        int chunkRow = row / CHUNK_CELLS;
+        int chunkCol = col / CHUNK_CELLS;
+        Bitmap chunk = chunkCache.get(chunkKeys[chunkRow * chunkCols + chunkCol]);
+        if (chunk == null) return; // Rendered fresh when it becomes visible
+
+        int startRow = chunkRow * CHUNK_CELLS;
+        int startCol = chunkCol * CHUNK_CELLS;
+        chunkCanvas.setBitmap(chunk);
+        drawChunkCell(row, col, startRow, startCol);
+        drawGridLines(row, row + 1, col, col + 1, startRow, startCol);
+        chunkCanvas.setBitmap(null);
     }
 
     /**
-     * Set drawable bounds to fit in cell
-     * @param drawable Drawable to set bounds for
-     * @param cellRect Cell rectangle
+     * Blit a cell's glyph into the chunk bound to chunkCanvas
      */
-    private void drawableBounds(Drawable drawable, Rect cellRect) {
-        if (drawable != null) {
-            int padding = (int)(cellSize * scale * 0.2f);
-            drawable.setBounds(
-                    cellRect.left + padding,
-                    cellRect.top + padding,
-                    cellRect.right - padding,
-                    cellRect.bottom - padding
-            );
+    private void drawChunkCell(int row, int col, int startRow, int startCol) {
+        int glyph = glyphFor(row, col);
+        int x = (col - startCol) * atlasTileSize;
+        int y = (row - startRow) * atlasTileSize;
+        glyphSrc.set(glyph * atlasTileSize, 0, (glyph + 1) * atlasTileSize, atlasTileSize);
+        cellDst.set(x, y, x + atlasTileSize, y + atlasTileSize);
+        chunkCanvas.drawBitmap(glyphAtlas, glyphSrc, cellDst, null);
+    }
+
+    /**
+     * Atlas slot for the current look of a cell
+     */
+    private int glyphFor(int row, int col) {
+        if (board.isRevealed(row, col)) {
+            if (board.hasBug(row, col)) return GLYPH_BUG;
+            int number = board.getAdjacentBugs(row, col);
+            return number > 0 ? GLYPH_NUMBER + Math.min(number, 8) - 1 : GLYPH_EMPTY;
         }
+        return board.isFlagged(row, col) ? GLYPH_FLAG : GLYPH_HIDDEN;
+    }
+
+    /**
+     * Draw the borders of a cell range into the chunk bound to chunkCanvas with a single
+     * drawLines call
+     */
+    private void drawGridLines(int startRow, int endRow, int startCol, int endCol, int chunkRow, int chunkCol) {
+        float left = (startCol - chunkCol) * atlasTileSize;
+        float right = (endCol - chunkCol) * atlasTileSize;
+        float top = (startRow - chunkRow) * atlasTileSize;
+        float bottom = (endRow - chunkRow) * atlasTileSize;
+
+        int n = 0;
+        for (int row = startRow; row <= endRow; row++) {
+            float y = (row - chunkRow) * atlasTileSize;
+            gridLines[n++] = left;
+            gridLines[n++] = y;
+            gridLines[n++] = right;
+            gridLines[n++] = y;
+        }
+        for (int col = startCol; col <= endCol; col++) {
+            float x = (col - chunkCol) * atlasTileSize;
+            gridLines[n++] = x;
+            gridLines[n++] = top;
+            gridLines[n++] = x;
+            gridLines[n++] = bottom;
+        }
+        chunkCanvas.drawLines(gridLines, 0, n, linePaint);
+    }
+
+    /**
+     * Prerender the glyph atlas for the current cell size, up to MAX_TILE_SIZE. While a pinch
+     * is in progress the existing atlas and chunks are stretched instead, and rebuilt once
+     * the gesture ends.
+     */
+    private void ensureGlyphAtlas(float size) {
+        int tileSize = Math.max(1, Math.min(MAX_TILE_SIZE, Math.round(size)));
+        if (glyphAtlas != null && (tileSize == atlasTileSize || scaling)) return;
+
+        Bitmap atlas = Bitmap.createBitmap(tileSize * GLYPH_COUNT, tileSize, Bitmap.Config.ARGB_8888);
+        Canvas atlasCanvas = new Canvas(atlas);
+        Rect tile = new Rect();
+        textPaint.setTextSize(tileSize * 0.6f);
+        float textY = (tileSize / 2f) - ((textPaint.descent() + textPaint.ascent()) / 2);
+        int padding = (int) (tileSize * 0.2f);
+
+        for (int glyph = 0; glyph < GLYPH_COUNT; glyph++) {
+            tile.set(glyph * tileSize, 0, (glyph + 1) * tileSize, tileSize);
+
+            // Cell background
+            cellPaint.setColor(glyph <= GLYPH_FLAG ? unrevealedCellColor : revealedCellColor);
+            atlasCanvas.drawRect(tile, cellPaint);
+
+            // Cell content
+            if (glyph == GLYPH_BUG || glyph == GLYPH_FLAG) {
+                Drawable drawable = glyph == GLYPH_BUG ? bugDrawable : flagDrawable;
+                drawable.setBounds(tile.left + padding, tile.top + padding,
+                        tile.right - padding, tile.bottom - padding);
+                drawable.draw(atlasCanvas);
+            } else if (glyph >= GLYPH_NUMBER) {
+                int number = glyph - GLYPH_NUMBER + 1;
+                textPaint.setColor(numberColors[Math.min(number - 1, numberColors.length - 1)]);
+                atlasCanvas.drawText(String.valueOf(number), tile.exactCenterX(), textY, textPaint);
+            }
+        }
+
+        // Chunks were rendered at the old tile size
+        chunkCache.evictAll();
+        glyphAtlas = atlas;
+        atlasTileSize = tileSize;
     }
 
     @Override
@@ -392,6 +618,18 @@ public class BoardView extends View {
      * Scale gesture listener for pinch-to-zoom
      */
     private class ScaleListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+        @Override
+        public boolean onScaleBegin(ScaleGestureDetector detector) {
+            scaling = true;
+            return true;
+        }
+
+        @Override
+        public void onScaleEnd(ScaleGestureDetector detector) {
+            scaling = false;
+            invalidate(); // Rebuild the atlas at the final zoom
+        }
+
         @Override
         public boolean onScale(ScaleGestureDetector detector) {
             try {
@@ -0,0 +1,271 @@
+package com.example.bughisweeper;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.GradientDrawable;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Plain cell grid used when BoardView is unavailable: a fixed-size grid without zoom or pan,
+ * meant to sit inside scroll views. It is a single view whatever the board size, and all
+ * cells of a state share one background drawable. onDraw paints only the cells near the
+ * part of the view that is on screen (a hardware-accelerated canvas is not clipped to it),
+ * and redraws when scrolling leaves that area. After a move only the cells in the board's
+ * change journal are invalidated.
+ */
+public class CellGridView extends View {
+
+    private static final String TAG = "CellGridView";
+
+    private static final int DEFAULT_CELL_SIZE = 50;
+    private static final int CELL_MARGIN = 1;
+
+    private static final int[] NUMBER_COLORS = {0xFF0000FF, 0xFF008000, 0xFFFF0000, 0xFF800080,
+            0xFF800000, 0xFF008080, 0xFF000000, 0xFF808080};
+
+    // One background per cell state, moved to each cell as it is drawn
+    private final GradientDrawable hiddenBackground = cellBackground(0xFFBBBBBB);
+    private final GradientDrawable revealedBackground = cellBackground(0xFFDDDDDD);
+    private final GradientDrawable flaggedBackground = cellBackground(0xFFFF5722);
+    private final GradientDrawable bugBackground = cellBackground(0xFFFF0000);
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Rect clipBounds = new Rect();
+    private final Rect visibleBounds = new Rect();
+    private final Rect drawnBounds = new Rect(); // Area painted by the last onDraw
+    private final Rect dirtyCells = new Rect();
+    private final String[] numberLabels = new String[9];
+    private final GestureDetector gestureDetector;
+    private final ViewTreeObserver.OnScrollChangedListener scrollListener = this::onScrollChanged;
+
+    private BughisBoard board;
+    private BoardView.OnCellActionListener cellActionListener;
+    private int cellSize = DEFAULT_CELL_SIZE;
+
+    // Change-journal position already drawn
+    private int drawnChangeEpoch;
+    private int drawnChangeCount;
+
+    public CellGridView(Context context) {
+        this(context, null);
+    }
+
+    public CellGridView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        for (int i = 1; i < numberLabels.length; i++) {
+            numberLabels[i] = String.valueOf(i);
+        }
+        gestureDetector = new GestureDetector(context, new GestureListener());
+        setClickable(true);
+        setLongClickable(true);
+    }
+
+    public void setBoard(BughisBoard board) {
+        this.board = board;
+        if (board != null) {
+            drawnChangeEpoch = board.getChangeEpoch();
+            drawnChangeCount = board.getChangeCount();
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * @param cellSize Side of a cell in pixels, including its margin
+     */
+    public void setCellSize(int cellSize) {
+        this.cellSize = Math.max(2 * CELL_MARGIN + 1, cellSize);
+        textPaint.setTextSize(Math.max(10, this.cellSize / 2f));
+        requestLayout();
+        invalidate();
+    }
+
+    public void setCellActionListener(BoardView.OnCellActionListener listener) {
+        this.cellActionListener = listener;
+    }
+
+    /**
+     * Redraw only the cells that changed since the last call, using the board's change journal
+     */
+    public void refreshChangedCells() {
+        if (board == null) return;
+
+        int epoch = board.getChangeEpoch();
+        int count = board.getChangeCount();
+        if (epoch != drawnChangeEpoch || count < drawnChangeCount) {
+            // Journal restarted, so the changed cells are unknown
+            drawnChangeEpoch = epoch;
+            drawnChangeCount = count;
+            invalidate();
+            return;
+        }
+
+        int cols = board.getCols();
+        dirtyCells.setEmpty();
+        for (int i = drawnChangeCount; i < count; i++) {
+            int index = board.getChangedIndex(i);
+            int row = index / cols;
+            int col = index % cols;
+            dirtyCells.union(col, row, col + 1, row + 1);
+        }
+        drawnChangeCount = count;
+        if (dirtyCells.isEmpty()) return;
+
+        invalidate(getPaddingLeft() + dirtyCells.left * cellSize,
+                getPaddingTop() + dirtyCells.top * cellSize,
+                getPaddingLeft() + dirtyCells.right * cellSize,
+                getPaddingTop() + dirtyCells.bottom * cellSize);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(scrollListener);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnScrollChangedListener(scrollListener);
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Redraw once an enclosing scroll view shows cells the last onDraw skipped
+     */
+    private void onScrollChanged() {
+        if (getLocalVisibleRect(visibleBounds) && !drawnBounds.contains(visibleBounds)) {
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int rows = board != null ? board.getRows() : 0;
+        int cols = board != null ? board.getCols() : 0;
+        int width = cols * cellSize + getPaddingLeft() + getPaddingRight();
+        int height = rows * cellSize + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (board == null) return;
+
+        try {
+            // Only the cells inside the clip and near the screen; the margin of half a
+            // screen on each side lets short scrolls go without a redraw
+            if (!canvas.getClipBounds(clipBounds)) return;
+            if (getLocalVisibleRect(visibleBounds)) {
+                visibleBounds.inset(-visibleBounds.width() / 2, -visibleBounds.height() / 2);
+                if (!clipBounds.intersect(visibleBounds)) return;
+            }
+            drawnBounds.set(clipBounds);
+            int left = getPaddingLeft();
+            int top = getPaddingTop();
+            int firstRow = Math.max(0, (clipBounds.top - top) / cellSize);
+            int lastRow = Math.min(board.getRows() - 1, (clipBounds.bottom - top) / cellSize);
+            int firstCol = Math.max(0, (clipBounds.left - left) / cellSize);
+            int lastCol = Math.min(board.getCols() - 1, (clipBounds.right - left) / cellSize);
+
+            float textOffset = (textPaint.descent() + textPaint.ascent()) / 2;
+            for (int row = firstRow; row <= lastRow; row++) {
+                int y = top + row * cellSize;
+                for (int col = firstCol; col <= lastCol; col++) {
+                    int x = left + col * cellSize;
+                    drawCell(canvas, row, col, x, y, textOffset);
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error drawing grid", e);
+        }
+    }
+
+    private void drawCell(Canvas canvas, int row, int col, int x, int y, float textOffset) {
+        GradientDrawable background;
+        String label = null;
+        int textColor = 0xFFFFFFFF;
+
+        if (board.isFlagged(row, col)) {
+            background = flaggedBackground;
+            label = "🚩";
+        } else if (board.isRevealed(row, col)) {
+            if (board.hasBug(row, col)) {
+                background = bugBackground;
+                label = "💣";
+            } else {
+                background = revealedBackground;
+                int adjacent = board.getAdjacentBugs(row, col);
+                if (adjacent > 0) {
+                    label = numberLabels[Math.min(adjacent, 8)];
+                    textColor = NUMBER_COLORS[Math.min(adjacent - 1, NUMBER_COLORS.length - 1)];
+                }
+            }
+        } else {
+            background = hiddenBackground;
+        }
+
+        background.setBounds(x + CELL_MARGIN, y + CELL_MARGIN, x + cellSize - CELL_MARGIN, y + cellSize - CELL_MARGIN);
+        background.draw(canvas);
+        if (label != null) {
+            textPaint.setColor(textColor);
+            canvas.drawText(label, x + cellSize / 2f, y + cellSize / 2f - textOffset, textPaint);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    private static GradientDrawable cellBackground(int color) {
+        GradientDrawable background = new GradientDrawable();
+        background.setColor(color);
+        background.setCornerRadius(4);
+        background.setStroke(1, 0xFF888888);
+        return background;
+    }
+
+    private class GestureListener extends GestureDetector.SimpleOnGestureListener {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            return true;
+        }
+
+        @Override
+        public boolean onSingleTapUp(MotionEvent e) {
+            int index = cellAt(e);
+            if (index < 0 || cellActionListener == null) return false;
+            cellActionListener.onCellRevealed(index / board.getCols(), index % board.getCols());
+            return true;
+        }
+
+        @Override
+        public void onLongPress(MotionEvent e) {
+            int index = cellAt(e);
+            if (index < 0 || cellActionListener == null) return;
+            cellActionListener.onCellFlagged(index / board.getCols(), index % board.getCols());
+        }
+
+        /**
+         * Index of the cell under a touch, or -1 outside the board
+         */
+        private int cellAt(MotionEvent e) {
+            if (board == null) return -1;
+            int col = (int) Math.floor((e.getX() - getPaddingLeft()) / cellSize);
+            int row = (int) Math.floor((e.getY() - getPaddingTop()) / cellSize);
+            if (row < 0 || row >= board.getRows() || col < 0 || col >= board.getCols()) return -1;
+            return row * board.getCols() + col;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.bughisweeper;
+
+import android.view.Choreographer;
+import android.widget.ProgressBar;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Animates superpower cooldown bars on the display's vsync. It runs only while some bound
+ * bar is cooling down and on screen; it is woken by the ACTIVATED transition and stops by
+ * itself once every visible cooldown is over, so a screen with all powers ready does no
+ * periodic work. Countdown text is handed back through a listener, and only when the whole
+ * second shown changes.
+ */
+public class CooldownProgressAnimator implements Choreographer.FrameCallback, SuperpowerManager.CooldownListener {
+
+    /**
+     * Receives the remaining cooldown whenever its whole seconds change
+     */
+    public interface OnCountdownListener {
+        void onCountdown(SuperpowerManager.SuperpowerType type, long remainingMs);
+    }
+
+    private final SuperpowerManager manager;
+    private final OnCountdownListener countdownListener;
+    private final Map<SuperpowerManager.SuperpowerType, ProgressBar> bars =
+            new EnumMap<>(SuperpowerManager.SuperpowerType.class);
+    private final Map<SuperpowerManager.SuperpowerType, Long> shownSeconds =
+            new EnumMap<>(SuperpowerManager.SuperpowerType.class);
+    private boolean running = false;
+    private boolean started = false;
+
+    public CooldownProgressAnimator(SuperpowerManager manager, OnCountdownListener countdownListener) {
+        this.manager = manager;
+        this.countdownListener = countdownListener;
+    }
+
+    public void bind(SuperpowerManager.SuperpowerType type, ProgressBar bar) {
+        bars.put(type, bar);
+        shownSeconds.remove(type);
+    }
+
+    /**
+     * Follow the manager's transitions and animate any cooldown already running
+     */
+    public void start() {
+        if (started) return;
+        started = true;
+        manager.addCooldownListener(this);
+        wake();
+    }
+
+    public void stop() {
+        if (!started) return;
+        started = false;
+        manager.removeCooldownListener(this);
+        if (running) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            running = false;
+        }
+    }
+
+    @Override
+    public void onSuperpowerTransition(SuperpowerManager.SuperpowerType type, SuperpowerManager.Transition transition) {
+        if (transition == SuperpowerManager.Transition.ACTIVATED) {
+            wake();
+        } else if (transition == SuperpowerManager.Transition.READY) {
+            ProgressBar bar = bars.get(type);
+            if (bar != null) {
+                bar.setProgress(bar.getMax());
+            }
+            shownSeconds.remove(type);
+        }
+    }
+
+    private void wake() {
+        if (started && !running) {
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!started) {
+            running = false;
+            return;
+        }
+
+        boolean cooling = false;
+        for (Map.Entry<SuperpowerManager.SuperpowerType, ProgressBar> entry : bars.entrySet()) {
+            SuperpowerManager.SuperpowerType type = entry.getKey();
+            ProgressBar bar = entry.getValue();
+            long total = manager.getCooldownDuration(type);
+            long remaining = manager.getRemainingCooldown(type);
+            if (total <= 0 || remaining <= 0 || !bar.isShown()) continue;
+
+            cooling = true;
+            bar.setProgress((int) ((total - remaining) * bar.getMax() / total));
+
+            long seconds = remaining / 1000;
+            Long shown = shownSeconds.get(type);
+            if (shown == null || shown != seconds) {
+                shownSeconds.put(type, seconds);
+                if (countdownListener != null) {
+                    countdownListener.onCountdown(type, remaining);
+                }
+            }
+        }
+
+        if (cooling) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            running = false;
+        }
+    }
+}
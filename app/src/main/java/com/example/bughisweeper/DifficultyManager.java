@@ -14,18 +14,18 @@ public class DifficultyManager {
     public static final String DIFFICULTY_HARD = "hard";
     public static final String DIFFICULTY_CUSTOM = "custom";
 
-    // Default difficulty settings
-    private static final int EASY_ROWS = 8;
-    private static final int EASY_COLS = 8;
-    private static final int EASY_BUGS = 10;
-
-    private static final int MEDIUM_ROWS = 16;
-    private static final int MEDIUM_COLS = 16;
-    private static final int MEDIUM_BUGS = 40;
-
-    private static final int HARD_ROWS = 24;
-    private static final int HARD_COLS = 24;
-    private static final int HARD_BUGS = 99;
+    // Default difficulty settings, from the engine presets the simulator and benchmarks use
+    public static final int EASY_ROWS = Difficulty.EASY.rows;
+    public static final int EASY_COLS = Difficulty.EASY.cols;
+    public static final int EASY_BUGS = Difficulty.EASY.bugs;
+
+    public static final int MEDIUM_ROWS = Difficulty.MEDIUM.rows;
+    public static final int MEDIUM_COLS = Difficulty.MEDIUM.cols;
+    public static final int MEDIUM_BUGS = Difficulty.MEDIUM.bugs;
+
+    public static final int HARD_ROWS = Difficulty.HARD.rows;
+    public static final int HARD_COLS = Difficulty.HARD.cols;
+    public static final int HARD_BUGS = Difficulty.HARD.bugs;
 
     // Minimum and maximum values for custom difficulty
     private static final int MIN_ROWS = 4;
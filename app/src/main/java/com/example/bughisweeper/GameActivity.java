@@ -6,15 +6,12 @@
         import android.graphics.Color;
         import android.graphics.drawable.GradientDrawable;
         import android.os.Bundle;
-        import android.os.Handler;
-        import android.os.SystemClock;
         import android.view.Gravity;
         import android.view.Menu;
         import android.view.MenuItem;
         import android.view.View;
         import android.view.ViewGroup;
         import android.widget.Button;
-        import android.widget.GridLayout;
         import android.widget.LinearLayout;
         import android.widget.ProgressBar;
         import android.widget.ScrollView;
@@ -37,7 +34,9 @@ public class GameActivity extends AppCompatActivity {
 
     // Game components - all optional
     private BughisBoard board;
-    private MathAnalyzer mathAnalyzer;
+    private AnalysisPipeline analysisPipeline;
+    private AnalysisPipeline.AnalysisResult latestAnalysis;
+    private AnalysisPipeline.WinEstimate latestWinEstimate;
     private SuperpowerManager superpowerManager;
     private ThemeManager themeManager;
 
@@ -46,8 +45,7 @@ public class GameActivity extends AppCompatActivity {
     private TextView tvBugsLeft;
     private Button btnFlag;
     private BoardView boardView;
-    private GridLayout gameGrid;
-    private Button[][] cellButtons;
+    private CellGridView gameGrid;
 
     // Feature panels - all optional
     private LinearLayout llMathControls;
@@ -63,8 +61,8 @@ public class GameActivity extends AppCompatActivity {
     private Map<SuperpowerManager.SuperpowerType, Button> superpowerButtons;
     private Map<SuperpowerManager.SuperpowerType, TextView> cooldownTexts;
     private Map<SuperpowerManager.SuperpowerType, ProgressBar> cooldownBars;
-    private Handler superpowerUpdateHandler;
-    private Runnable superpowerUpdateRunnable;
+    private CooldownProgressAnimator cooldownAnimator;
+    private final SuperpowerManager.CooldownListener superpowerStateListener = this::onSuperpowerTransition;
 
     // Game settings with safe defaults
     private int rows = 8;
@@ -75,11 +73,8 @@ public class GameActivity extends AppCompatActivity {
     private boolean superpowersEnabled = false;
     private boolean challengeMode = false;
 
-    // Timer - improved for challenge mode
-    private Handler timerHandler;
-    private Runnable timerRunnable;
-    private long startTime;
-    private long pausedTime = 0;
+    // Timer - play time stops while paused or frozen, the challenge limit fires on time
+    private final GameClock gameClock = new GameClock();
     private boolean gameActive;
     private boolean gamePaused = false;
     private long timeLimit = 0; // For challenge mode (0 = no limit)
@@ -114,7 +109,7 @@ public class GameActivity extends AppCompatActivity {
             initializeViews();
             initializeGame();
             setupTimer();
-            setupSuperpowerUpdateLoop();
+            setupSuperpowerStateUpdates();
 
             // Set up action bar safely
             try {
@@ -236,7 +231,7 @@ public class GameActivity extends AppCompatActivity {
         scrollSuperpowerControls = createSimpleSuperpowersPanel();
 
         // Game grid (center, larger)
-        gameGrid = new GridLayout(this);
+        gameGrid = new CellGridView(this);
         gameGrid.setLayoutParams(new LinearLayout.LayoutParams(
                 0, LinearLayout.LayoutParams.MATCH_PARENT, 1));
         gameGrid.setPadding(16, 16, 16, 16);
@@ -376,7 +371,7 @@ public class GameActivity extends AppCompatActivity {
             if (tvBugsLeft == null) tvBugsLeft = findViewById(R.id.tvBugsLeft);
             if (btnFlag == null) btnFlag = findViewById(R.id.btnFlag);
 
-            // Try BoardView first, fallback to GridLayout
+            // Try BoardView first, fallback to the plain cell grid
             if (boardView == null) boardView = findViewById(R.id.boardView);
             if (gameGrid == null) gameGrid = findViewById(R.id.gameGrid);
 
@@ -422,14 +417,14 @@ public class GameActivity extends AppCompatActivity {
         try {
             // Initialize game board - this is critical
             board = new BughisBoard(rows, cols, totalBugs);
+            board.setOnGameStateChangeListener(this::onGameStateChanged);
 
             // Try to initialize mathematical analyzer ONLY if needed
             if (mathMode || superpowersEnabled) {
                 try {
-                    mathAnalyzer = new MathAnalyzer(this);
-                    mathAnalyzer.initializeGame(board);
+                    startAnalysis();
                 } catch (Exception e) {
-                    mathAnalyzer = null;
+                    stopAnalysis();
                     Toast.makeText(this, "Mathematical analysis disabled", Toast.LENGTH_SHORT).show();
                 }
             }
@@ -460,7 +455,7 @@ public class GameActivity extends AppCompatActivity {
             updateMathematicalInfo();
 
             gameActive = true;
-            startTime = SystemClock.elapsedRealtime();
+            gameClock.start();
 
         } catch (Exception e) {
             handleGameInitializationError(e);
@@ -485,10 +480,10 @@ public class GameActivity extends AppCompatActivity {
                 superpowerManager = new SuperpowerManager(this, board, null);
             }
 
-            // Try to connect math analyzer if available
-            if (mathAnalyzer != null && superpowerManager != null) {
+            // Share the board analysis if available
+            if (analysisPipeline != null && superpowerManager != null) {
                 try {
-                    superpowerManager.updateProbabilityAnalysis();
+                    superpowerManager.attachAnalysis(analysisPipeline);
                 } catch (Exception e) {
                     // Math connection failed - not critical
                 }
@@ -498,6 +493,9 @@ public class GameActivity extends AppCompatActivity {
             createSimpleSuperpowerButtons();
 
         } catch (Exception e) {
+            if (superpowerManager != null) {
+                superpowerManager.detachAnalysis();
+            }
             superpowerManager = null;
             throw e; // Re-throw to disable superpowers
         }
@@ -711,58 +709,85 @@ public class GameActivity extends AppCompatActivity {
         llSuperpowerContainer.addView(tips);
     }
 
-    private void setupSuperpowerUpdateLoop() {
-        if (!superpowersEnabled) return;
+    /**
+     * Follow the superpower state instead of polling it: buttons change on the manager's
+     * ready/active/expired transitions, and the cooldown bars animate on vsync only while a
+     * cooldown is running
+     */
+    private void setupSuperpowerStateUpdates() {
+        if (!superpowersEnabled || superpowerManager == null) return;
 
         try {
-            superpowerUpdateHandler = new Handler();
-            superpowerUpdateRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    updateSuperpowerUI();
-                    if (superpowerUpdateHandler != null) {
-                        superpowerUpdateHandler.postDelayed(this, 100); // Update every 100ms for smooth animation
-                    }
-                }
-            };
+            superpowerManager.addCooldownListener(superpowerStateListener);
 
-            if (superpowerUpdateHandler != null) {
-                superpowerUpdateHandler.post(superpowerUpdateRunnable);
+            cooldownAnimator = new CooldownProgressAnimator(superpowerManager, this::onCooldownCountdown);
+            if (cooldownBars != null) {
+                for (Map.Entry<SuperpowerManager.SuperpowerType, ProgressBar> entry : cooldownBars.entrySet()) {
+                    cooldownAnimator.bind(entry.getKey(), entry.getValue());
+                }
             }
+            cooldownAnimator.start();
+
+            updateSuperpowerUI();
         } catch (Exception e) {
-            // Superpower update loop failed - not critical
+            // Superpower state updates failed - not critical
         }
     }
 
-    private void updateSuperpowerUI() {
+    private void onSuperpowerTransition(SuperpowerManager.SuperpowerType type, SuperpowerManager.Transition transition) {
+        if (type == SuperpowerManager.SuperpowerType.FREEZE) {
+            onFreezeTransition(transition);
+        }
         if (superpowerManager == null || superpowerButtons == null) return;
 
         try {
-            updateSuperpowerButton(SuperpowerManager.SuperpowerType.FREEZE,
-                    superpowerManager.canUseFreeze(),
-                    superpowerManager.getRemainingFreezeCooldown(), 60000);
+            updateSuperpowerState(type);
+        } catch (Exception e) {
+            // UI update failed - not critical
+        }
+    }
 
-            updateSuperpowerButton(SuperpowerManager.SuperpowerType.XRAY,
-                    superpowerManager.canUseXRay(),
-                    superpowerManager.getRemainingXRayCooldown(), 45000);
+    /**
+     * Freeze Time holds the game clock for exactly as long as the effect lasts
+     */
+    private void onFreezeTransition(SuperpowerManager.Transition transition) {
+        if (transition == SuperpowerManager.Transition.ACTIVATED) {
+            gameClock.pause(GameClock.HOLD_FROZEN);
+        } else if (gameClock.isPaused(GameClock.HOLD_FROZEN)) {
+            gameClock.resume(GameClock.HOLD_FROZEN);
+            if (gameActive && transition == SuperpowerManager.Transition.EXPIRED) {
+                Toast.makeText(this, "⏰ Time resumed!", Toast.LENGTH_SHORT).show();
+            }
+        }
+        updateGameInfo();
+    }
 
-            updateSuperpowerButton(SuperpowerManager.SuperpowerType.SONAR,
-                    superpowerManager.canUseSonar(),
-                    superpowerManager.getRemainingSonarCooldown(), 30000);
+    private void onCooldownCountdown(SuperpowerManager.SuperpowerType type, long remainingMs) {
+        TextView cooldownText = cooldownTexts != null ? cooldownTexts.get(type) : null;
+        if (cooldownText != null) {
+            cooldownText.setText(formatCooldownTime(remainingMs));
+        }
+    }
 
-            updateSuperpowerButton(SuperpowerManager.SuperpowerType.LIGHTNING,
-                    superpowerManager.canUseLightning(),
-                    superpowerManager.getRemainingLightningCooldown(), 90000);
+    private void updateSuperpowerUI() {
+        if (superpowerManager == null || superpowerButtons == null) return;
 
-            updateSuperpowerButton(SuperpowerManager.SuperpowerType.SMART_SWEEP,
-                    superpowerManager.canUseSmartSweep(),
-                    superpowerManager.getRemainingSmartSweepCooldown(), 20000);
+        try {
+            for (SuperpowerManager.SuperpowerType type : SuperpowerManager.SuperpowerType.values()) {
+                updateSuperpowerState(type);
+            }
+        } catch (Exception e) {
+            // UI update failed - not critical
+        }
+    }
 
+    private void updateSuperpowerState(SuperpowerManager.SuperpowerType type) {
+        if (type == SuperpowerManager.SuperpowerType.SHIELD) {
             // Special handling for shield (one-time use)
             updateShieldButton();
-
-        } catch (Exception e) {
-            // UI update failed - not critical
+        } else {
+            updateSuperpowerButton(type, superpowerManager.canUse(type),
+                    superpowerManager.getRemainingCooldown(type), superpowerManager.getCooldownDuration(type));
         }
     }
 
@@ -933,17 +958,14 @@ public class GameActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Show the board in the plain cell grid, with cells sized to fit the screen
+     */
     private void createImprovedGrid() {
         if (gameGrid == null) return;
 
         try {
-            gameGrid.removeAllViews();
-            gameGrid.setColumnCount(cols);
-            gameGrid.setRowCount(rows);
-
-            cellButtons = new Button[rows][cols];
-
-            // Calculate better button size based on screen and grid size
+            // Calculate better cell size based on screen and grid size
             int screenWidth = getResources().getDisplayMetrics().widthPixels;
             int screenHeight = getResources().getDisplayMetrics().heightPixels;
 
@@ -957,91 +979,41 @@ public class GameActivity extends AppCompatActivity {
             int cellHeight = Math.max(30, Math.min(80, availableHeight / rows));
             int cellSize = Math.min(cellWidth, cellHeight);
 
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    Button cellButton = createImprovedCellButton(r, c, cellSize);
-                    cellButtons[r][c] = cellButton;
-                    gameGrid.addView(cellButton);
-                }
-            }
-
-            updateFallbackCellDisplays();
+            bindCellGrid(cellSize);
         } catch (Exception e) {
             // Grid creation failed - use basic version
             createBasicGrid();
         }
     }
 
-    private Button createImprovedCellButton(int row, int col, int size) {
-        Button cellButton = new Button(this);
-        cellButton.setText("");
-        cellButton.setTextSize(Math.max(10, size / 4));
-        cellButton.setPadding(2, 2, 2, 2);
-
-        // Better styling with gradient
-        GradientDrawable cellBg = new GradientDrawable();
-        cellBg.setColor(0xFFBBBBBB);
-        cellBg.setCornerRadius(4);
-        cellBg.setStroke(1, 0xFF888888);
-        cellButton.setBackground(cellBg);
-
-        GridLayout.LayoutParams params = new GridLayout.LayoutParams();
-        params.width = size;
-        params.height = size;
-        params.setMargins(1, 1, 1, 1);
-        cellButton.setLayoutParams(params);
-
-        // Set click listeners
-        cellButton.setOnClickListener(v -> handleCellClick(row, col));
-        cellButton.setOnLongClickListener(v -> {
-            handleCellLongClick(row, col);
-            return true;
-        });
-
-        return cellButton;
-    }
-
     private void createBasicGrid() {
         // Fallback to very basic grid
         try {
             if (gameGrid == null) return;
 
-            gameGrid.setColumnCount(Math.min(cols, 10));
-            gameGrid.setRowCount(Math.min(rows, 10));
-
-            int safeRows = Math.min(rows, 10);
-            int safeCols = Math.min(cols, 10);
-            cellButtons = new Button[safeRows][safeCols];
-
-            for (int r = 0; r < safeRows; r++) {
-                for (int c = 0; c < safeCols; c++) {
-                    Button btn = new Button(this);
-                    btn.setText("");
-                    btn.setTextSize(12);
-                    GridLayout.LayoutParams params = new GridLayout.LayoutParams();
-                    params.width = 50;
-                    params.height = 50;
-                    params.setMargins(1, 1, 1, 1);
-                    btn.setLayoutParams(params);
-
-                    final int finalR = r, finalC = c;
-                    btn.setOnClickListener(v -> handleCellClick(finalR, finalC));
-                    btn.setOnLongClickListener(v -> {
-                        handleCellLongClick(finalR, finalC);
-                        return true;
-                    });
-
-                    cellButtons[r][c] = btn;
-                    gameGrid.addView(btn);
-                }
-            }
-
-            Toast.makeText(this, "Using basic grid - board size limited", Toast.LENGTH_LONG).show();
+            bindCellGrid(50);
+            Toast.makeText(this, "Using basic grid", Toast.LENGTH_LONG).show();
         } catch (Exception e) {
             handleCriticalError(e);
         }
     }
 
+    private void bindCellGrid(int cellSize) {
+        gameGrid.setCellSize(cellSize);
+        gameGrid.setBoard(board);
+        gameGrid.setCellActionListener(new BoardView.OnCellActionListener() {
+            @Override
+            public void onCellRevealed(int row, int col) {
+                handleCellClick(row, col);
+            }
+
+            @Override
+            public void onCellFlagged(int row, int col) {
+                handleCellLongClick(row, col);
+            }
+        });
+    }
+
     private void createImprovedMathControls() {
         try {
             if (llMathControls == null) return;
@@ -1113,13 +1085,8 @@ public class GameActivity extends AppCompatActivity {
                     success = superpowerManager.activateFreeze();
                     message = success ? "⏰ Time frozen for 10 seconds!" : "🧊 Freeze on cooldown";
                     if (success) {
-                        gamePaused = true;
-                        // Add visual feedback
+                        // The clock is held until the effect expires, see onFreezeTransition
                         showSuperpowerEffect("🧊 TIME FROZEN", 0xFF00BCD4);
-                        new Handler().postDelayed(() -> {
-                            gamePaused = false;
-                            Toast.makeText(this, "⏰ Time resumed!", Toast.LENGTH_SHORT).show();
-                        }, 10000);
                     }
                     break;
                 case LIGHTNING:
@@ -1152,7 +1119,7 @@ public class GameActivity extends AppCompatActivity {
                     break;
                 case SMART_SWEEP:
                     success = superpowerManager.activateSmartSweep();
-                    message = success ? "🎯 Smart Sweep flags obvious mines!" : "🎯 Smart Sweep on cooldown";
+                    message = success ? "🎯 Smart Sweep flags mines and clears safe cells!" : "🎯 Smart Sweep on cooldown";
                     if (success) {
                         showSuperpowerEffect("🎯 SMART SWEEP", 0xFF9C27B0);
                     }
@@ -1165,6 +1132,9 @@ public class GameActivity extends AppCompatActivity {
             Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
 
             if (success) {
+                if (analysisPipeline != null) {
+                    analysisPipeline.submit(board); // Superpowers may reveal or flag cells
+                }
                 updateDisplay();
                 updateGameInfo();
                 // Trigger haptic feedback if available
@@ -1317,9 +1287,9 @@ public class GameActivity extends AppCompatActivity {
             if (row < 0 || row >= rows || col < 0 || col >= cols) return;
 
             // Analyze move mathematically if available
-            if (mathAnalyzer != null) {
+            if (analysisPipeline != null) {
                 try {
-                    mathAnalyzer.analyzeMove(row, col,
+                    analysisPipeline.recordMove(row, col,
                             flagMode ? MathAnalyzer.MoveType.FLAG : MathAnalyzer.MoveType.REVEAL);
                 } catch (Exception e) {
                     // Math analysis failed - continue anyway
@@ -1329,24 +1299,15 @@ public class GameActivity extends AppCompatActivity {
             if (flagMode) {
                 board.toggleFlag(row, col);
             } else {
-                BughisBoard.RevealResult result = board.revealCell(row, col);
-
-                if (result == BughisBoard.RevealResult.BUG_HIT) {
-                    // Check shield
-                    if (superpowerManager != null && superpowerManager.handleMineHitWithShield()) {
-                        showSuperpowerEffect("🛡️ SHIELD SAVED YOU!", 0xFFFF9800);
-                        Toast.makeText(this, "🛡️ Shield absorbed the hit!", Toast.LENGTH_LONG).show();
-                    } else {
-                        gameOver(false);
-                        return;
-                    }
-                }
+                // Win/loss is reported through onGameStateChanged
+                board.revealCell(row, col);
+                if (!gameActive) return;
             }
 
-            // Update mathematical analysis if available
-            if (mathAnalyzer != null) {
+            // Queue mathematical analysis; the result arrives in onAnalysisResult
+            if (analysisPipeline != null) {
                 try {
-                    mathAnalyzer.updateCompleteAnalysis();
+                    analysisPipeline.submit(board);
                 } catch (Exception e) {
                     // Math update failed - not critical
                 }
@@ -1354,36 +1315,47 @@ public class GameActivity extends AppCompatActivity {
 
             updateDisplay();
             updateGameInfo();
-            updateMathematicalInfo();
-
-            // Check win condition
-            if (board.getGameState() == BughisBoard.GameState.WON) {
-                gameOver(true);
-            }
-
-            // Check time limit for challenge mode
-            if (challengeMode && timeLimit > 0) {
-                long elapsed = SystemClock.elapsedRealtime() - startTime - pausedTime;
-                if (elapsed >= timeLimit) {
-                    gameOver(false);
-                    return;
-                }
-            }
         } catch (Exception e) {
             Toast.makeText(this, "Move failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
         }
     }
 
+    /**
+     * Called by the board when the game transitions to WON or LOST
+     */
+    private void onGameStateChanged(BughisBoard.GameState state) {
+        if (!gameActive) return;
+
+        if (state == BughisBoard.GameState.WON) {
+            gameOver(true);
+        } else if (state == BughisBoard.GameState.LOST) {
+            // Check shield
+            if (superpowerManager != null && superpowerManager.handleMineHitWithShield()) {
+                showSuperpowerEffect("🛡️ SHIELD SAVED YOU!", 0xFFFF9800);
+                Toast.makeText(this, "🛡️ Shield absorbed the hit!", Toast.LENGTH_LONG).show();
+            } else {
+                gameOver(false);
+            }
+        }
+    }
+
     private void handleCellLongClick(int row, int col) {
         if (!gameActive || gamePaused) return;
 
         try {
+            if (analysisPipeline != null) {
+                try {
+                    analysisPipeline.recordMove(row, col, MathAnalyzer.MoveType.FLAG);
+                } catch (Exception e) {
+                    // Math analysis failed - not critical
+                }
+            }
+
             board.toggleFlag(row, col);
 
-            if (mathAnalyzer != null) {
+            if (analysisPipeline != null) {
                 try {
-                    mathAnalyzer.analyzeMove(row, col, MathAnalyzer.MoveType.FLAG);
-                    mathAnalyzer.updateCompleteAnalysis();
+                    analysisPipeline.submit(board);
                 } catch (Exception e) {
                     // Math analysis failed - not critical
                 }
@@ -1391,7 +1363,6 @@ public class GameActivity extends AppCompatActivity {
 
             updateDisplay();
             updateGameInfo();
-            updateMathematicalInfo();
         } catch (Exception e) {
             // Flag toggle failed - not critical
         }
@@ -1400,81 +1371,23 @@ public class GameActivity extends AppCompatActivity {
     private void updateDisplay() {
         try {
             if (boardView != null && boardView.getVisibility() == View.VISIBLE) {
-                boardView.invalidate();
-            } else if (cellButtons != null) {
-                updateFallbackCellDisplays();
+                boardView.refreshChangedCells();
+            } else if (gameGrid != null) {
+                gameGrid.refreshChangedCells();
             }
         } catch (Exception e) {
             // Display update failed - not critical
         }
     }
 
-    private void updateFallbackCellDisplays() {
-        if (cellButtons == null || board == null) return;
-
-        try {
-            for (int r = 0; r < cellButtons.length && r < rows; r++) {
-                for (int c = 0; c < cellButtons[r].length && c < cols; c++) {
-                    Cell cell = board.getCell(r, c);
-                    Button button = cellButtons[r][c];
-                    if (cell != null && button != null) {
-                        updateCellAppearance(button, cell);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // Cell display update failed - not critical
-        }
-    }
-
-    private void updateCellAppearance(Button button, Cell cell) {
-        try {
-            GradientDrawable bg = new GradientDrawable();
-            bg.setCornerRadius(4);
-            bg.setStroke(1, 0xFF888888);
-
-            if (cell.isFlagged()) {
-                button.setText("🚩");
-                bg.setColor(0xFFFF5722);
-                button.setTextColor(0xFFFFFFFF);
-            } else if (cell.isRevealed()) {
-                if (cell.hasBug()) {
-                    button.setText("💣");
-                    bg.setColor(0xFFFF0000);
-                    button.setTextColor(0xFFFFFFFF);
-                } else {
-                    int adjacent = cell.getAdjacentBugs();
-                    button.setText(adjacent > 0 ? String.valueOf(adjacent) : "");
-                    bg.setColor(0xFFDDDDDD);
-
-                    if (adjacent > 0) {
-                        int[] colors = {0xFF0000FF, 0xFF008000, 0xFFFF0000, 0xFF800080,
-                                0xFF800000, 0xFF008080, 0xFF000000, 0xFF808080};
-                        button.setTextColor(colors[Math.min(adjacent - 1, colors.length - 1)]);
-                    }
-                }
-            } else {
-                button.setText("");
-                bg.setColor(0xFFBBBBBB);
-                button.setTextColor(0xFF000000);
-            }
-
-            button.setBackground(bg);
-        } catch (Exception e) {
-            // Cell appearance update failed - use default
-            button.setText("?");
-            button.setBackgroundColor(0xFF888888);
-        }
-    }
-
     private void updateGameInfo() {
         try {
             if (tvTime != null && gameActive) {
-                long elapsed = SystemClock.elapsedRealtime() - startTime - pausedTime;
+                long elapsed = gameClock.getElapsedMillis();
 
                 if (challengeMode && timeLimit > 0) {
                     // Show countdown for challenge mode
-                    long remaining = Math.max(0, timeLimit - elapsed);
+                    long remaining = gameClock.getRemainingMillis();
                     long minutes = remaining / 60000;
                     long seconds = (remaining % 60000) / 1000;
                     tvTime.setText(String.format(Locale.getDefault(), "⏰ Time: %02d:%02d", minutes, seconds));
@@ -1504,11 +1417,79 @@ public class GameActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Start background analysis of the current board, creating the pipeline on first use
+     */
+    private void startAnalysis() {
+        if (analysisPipeline == null) {
+            analysisPipeline = new AnalysisPipeline(new MathAnalyzer());
+            analysisPipeline.getResults().observe(this, this::onAnalysisResult);
+            analysisPipeline.getWinEstimates().observe(this, this::onWinEstimate);
+            if (superpowerManager != null) {
+                superpowerManager.attachAnalysis(analysisPipeline);
+            }
+        }
+        latestAnalysis = null;
+        latestWinEstimate = null;
+        analysisPipeline.startGame(board);
+    }
+
+    private void stopAnalysis() {
+        if (superpowerManager != null) {
+            superpowerManager.detachAnalysis();
+        }
+        if (analysisPipeline != null) {
+            analysisPipeline.getResults().removeObservers(this);
+            analysisPipeline.getWinEstimates().removeObservers(this);
+            analysisPipeline.shutdown();
+        }
+        analysisPipeline = null;
+        latestAnalysis = null;
+        latestWinEstimate = null;
+    }
+
+    /**
+     * Called on the UI thread whenever the analysis worker publishes a result
+     */
+    private void onAnalysisResult(AnalysisPipeline.AnalysisResult result) {
+        if (result == null || analysisPipeline == null || result.game != analysisPipeline.getGame()) return;
+
+        latestAnalysis = result;
+        updateMathematicalInfo();
+    }
+
+    /**
+     * Called on the UI thread for every refinement of the win probability estimate
+     */
+    private void onWinEstimate(AnalysisPipeline.WinEstimate estimate) {
+        if (estimate == null || analysisPipeline == null || estimate.game != analysisPipeline.getGame()) return;
+        if (!gameActive) return; // The outcome is known, see gameOver
+
+        latestWinEstimate = estimate;
+        updateMathematicalInfo();
+    }
+
+    /**
+     * Win probability with its confidence margin, e.g. "42.0% ±3.1%"
+     */
+    private String formatWinProbability() {
+        if (latestWinEstimate == null || latestWinEstimate.estimate.samples == 0) {
+            return "estimating...";
+        }
+        WinProbabilityEstimator.Estimate estimate = latestWinEstimate.estimate;
+        if (estimate.getMargin() == 0) {
+            // Decided game: the outcome is certain
+            return String.format(Locale.getDefault(), "%.1f%%", estimate.probability * 100);
+        }
+        return String.format(Locale.getDefault(), "%.1f%% ±%.1f%%",
+                estimate.probability * 100, estimate.getMargin() * 100);
+    }
+
     private void updateMathematicalInfo() {
-        if (mathAnalyzer == null) return;
+        if (latestAnalysis == null) return;
 
         try {
-            MathAnalyzer.GameStatistics stats = mathAnalyzer.getCurrentStats();
+            MathAnalyzer.GameStatistics stats = latestAnalysis.stats;
 
             if (tvProbabilityInfo != null) {
                 String probInfo = String.format(Locale.getDefault(),
@@ -1520,10 +1501,7 @@ public class GameActivity extends AppCompatActivity {
             }
 
             if (tvMathInsights != null) {
-                double winProb = mathAnalyzer.calculateWinProbability();
-                String insights = String.format(Locale.getDefault(),
-                        "🧮 Win Probability: %.1f%%",
-                        winProb * 100);
+                String insights = "🧮 Win Probability: " + formatWinProbability();
                 tvMathInsights.setText(insights);
                 tvMathInsights.setVisibility(View.VISIBLE);
             }
@@ -1554,11 +1532,11 @@ public class GameActivity extends AppCompatActivity {
     private void toggleMathView() {
         mathMode = !mathMode;
 
-        if (mathMode && mathAnalyzer == null) {
+        if (mathMode && analysisPipeline == null) {
             try {
-                mathAnalyzer = new MathAnalyzer(this);
-                mathAnalyzer.initializeGame(board);
+                startAnalysis();
             } catch (Exception e) {
+                stopAnalysis();
                 mathMode = false;
                 Toast.makeText(this, "Mathematical analysis not available", Toast.LENGTH_SHORT).show();
                 return;
@@ -1573,13 +1551,17 @@ public class GameActivity extends AppCompatActivity {
     }
 
     private void showMathematicalHint() {
-        if (mathAnalyzer == null) {
+        if (analysisPipeline == null) {
             Toast.makeText(this, "Enable math mode for AI hints", Toast.LENGTH_SHORT).show();
             return;
         }
+        if (latestAnalysis == null) {
+            Toast.makeText(this, "Analysis still running, try again", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
         try {
-            MathAnalyzer.OptimalMove hint = mathAnalyzer.getOptimalMove();
+            MathAnalyzer.OptimalMove hint = latestAnalysis.optimalMove;
 
             if (hint == null || hint.row < 0 || hint.col < 0) {
                 Toast.makeText(this, "No optimal move available", Toast.LENGTH_SHORT).show();
@@ -1613,19 +1595,23 @@ public class GameActivity extends AppCompatActivity {
     }
 
     private void showDetailedAnalysis() {
-        if (mathAnalyzer == null) {
+        if (analysisPipeline == null) {
             Toast.makeText(this, "Mathematical analysis not available", Toast.LENGTH_SHORT).show();
             return;
         }
+        if (latestAnalysis == null) {
+            Toast.makeText(this, "Analysis still running, try again", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
         try {
-            MathAnalyzer.GameStatistics stats = mathAnalyzer.getCurrentStats();
-            double winProb = mathAnalyzer.calculateWinProbability();
+            MathAnalyzer.GameStatistics stats = latestAnalysis.stats;
+            double winProb = latestWinEstimate != null ? latestWinEstimate.estimate.probability : 0;
 
             String analysis = String.format(Locale.getDefault(),
                     "📊 DETAILED GAME ANALYSIS\n\n" +
                             "🎯 Progress: %d%%\n" +
-                            "🏆 Win Probability: %.1f%%\n" +
+                            "🏆 Win Probability: %s\n" +
                             "⚠️ Average Risk: %.1f%%\n" +
                             "✅ Cells Revealed: %d\n" +
                             "🚩 Flags Placed: %d\n" +
@@ -1635,7 +1621,7 @@ public class GameActivity extends AppCompatActivity {
                             "• Information gain potential: %s\n" +
                             "• Risk assessment: %s",
                     stats.progressPercentage,
-                    winProb * 100,
+                    formatWinProbability(),
                     stats.averageProbability * 100,
                     stats.revealedCells,
                     stats.flaggedCells,
@@ -1702,8 +1688,8 @@ public class GameActivity extends AppCompatActivity {
                 board.reset();
             }
 
-            if (mathAnalyzer != null) {
-                mathAnalyzer.initializeGame(board);
+            if (analysisPipeline != null) {
+                startAnalysis();
             }
 
             if (superpowerManager != null) {
@@ -1715,8 +1701,7 @@ public class GameActivity extends AppCompatActivity {
             updateMathematicalInfo();
 
             gameActive = true;
-            startTime = SystemClock.elapsedRealtime();
-            pausedTime = 0;
+            gameClock.start();
 
             Toast.makeText(this, "🎮 Game reset!", Toast.LENGTH_SHORT).show();
         } catch (Exception e) {
@@ -1728,6 +1713,15 @@ public class GameActivity extends AppCompatActivity {
         try {
             gameActive = false;
             gamePaused = false;
+            gameClock.stop();
+
+            // A revealed bug alone does not end the game (a shield may absorb it), so the
+            // estimator never reports the loss itself
+            if (analysisPipeline != null) {
+                latestWinEstimate = new AnalysisPipeline.WinEstimate(analysisPipeline.getGame(),
+                        latestWinEstimate != null ? latestWinEstimate.version : 0,
+                        WinProbabilityEstimator.Estimate.decided(won));
+            }
 
             // Reveal all cells
             if (board != null) {
@@ -1744,9 +1738,10 @@ public class GameActivity extends AppCompatActivity {
             updateDisplay();
 
             // Calculate game time
-            long gameTime = SystemClock.elapsedRealtime() - startTime - pausedTime;
+            long gameTime = gameClock.getElapsedMillis();
             long minutes = gameTime / 60000;
             long seconds = (gameTime % 60000) / 1000;
+            long hundredths = (gameTime % 1000) / 10;
 
             String message;
             String title;
@@ -1755,22 +1750,22 @@ public class GameActivity extends AppCompatActivity {
                 title = "🏆 Victory!";
                 message = String.format(Locale.getDefault(),
                         "🎉 CONGRATULATIONS!\n\n" +
-                                "⏱️ Time: %02d:%02d\n" +
+                                "⏱️ Time: %02d:%02d.%02d\n" +
                                 "🎯 Difficulty: %dx%d (%d mines)\n" +
                                 "🎮 Mode: %s\n\n" +
                                 "Excellent work!",
-                        minutes, seconds, rows, cols, totalBugs,
+                        minutes, seconds, hundredths, rows, cols, totalBugs,
                         getModeDescription());
             } else {
                 title = challengeMode && timeLimit > 0 ? "⏰ Time's Up!" : "💔 Game Over";
                 message = String.format(Locale.getDefault(),
                         "%s\n\n" +
-                                "⏱️ Time survived: %02d:%02d\n" +
+                                "⏱️ Time survived: %02d:%02d.%02d\n" +
                                 "🎯 Difficulty: %dx%d (%d mines)\n" +
                                 "🎮 Mode: %s\n\n" +
                                 "Better luck next time!",
                         challengeMode && timeLimit > 0 ? "Time ran out!" : "Mine hit!",
-                        minutes, seconds, rows, cols, totalBugs,
+                        minutes, seconds, hundredths, rows, cols, totalBugs,
                         getModeDescription());
             }
 
@@ -1998,29 +1993,26 @@ public class GameActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * The clock ticks once per second of play for the time display and calls back exactly at
+     * the challenge limit, so the limit ends the game even if the player never taps again
+     */
     private void setupTimer() {
         try {
-            timerHandler = new Handler();
-            timerRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    if (gameActive && !gamePaused) {
-                        updateGameInfo();
-                        updateMathematicalInfo();
-                        if (timerHandler != null) {
-                            timerHandler.postDelayed(this, 1000);
-                        }
-                    }
-                }
-            };
-            if (timerHandler != null) {
-                timerHandler.post(timerRunnable);
-            }
+            gameClock.setOnTickListener(elapsedMs -> updateGameInfo());
+            gameClock.setTimeLimit(challengeMode ? timeLimit : 0, this::onTimeLimitReached);
         } catch (Exception e) {
             // Timer setup failed - not critical
         }
     }
 
+    private void onTimeLimitReached() {
+        if (!gameActive) return;
+
+        updateGameInfo();
+        gameOver(false);
+    }
+
     private void handleCriticalError(Exception e) {
         try {
             String errorMsg = "Critical error: " + e.getMessage();
@@ -2045,20 +2037,24 @@ public class GameActivity extends AppCompatActivity {
             // Try to create a minimal working game
             if (board == null) {
                 board = new BughisBoard(8, 8, 10);
+                board.setOnGameStateChangeListener(this::onGameStateChanged);
                 rows = 8; cols = 8; totalBugs = 10;
             }
 
             // Disable advanced features
             mathMode = false;
             superpowersEnabled = false;
-            mathAnalyzer = null;
+            stopAnalysis();
+            if (superpowerManager != null) {
+                superpowerManager.release();
+            }
             superpowerManager = null;
 
             // Create basic display
             createBasicGrid();
 
             gameActive = true;
-            startTime = SystemClock.elapsedRealtime();
+            gameClock.start();
 
             Toast.makeText(this, "🎮 Basic game mode activated", Toast.LENGTH_SHORT).show();
         } catch (Exception e2) {
@@ -2129,7 +2125,7 @@ public class GameActivity extends AppCompatActivity {
         super.onPause();
         if (gameActive && !challengeMode) { // Don't pause challenge mode
             gamePaused = true;
-            pausedTime += SystemClock.elapsedRealtime();
+            gameClock.pause(GameClock.HOLD_PAUSED);
             Toast.makeText(this, "⏸️ Game paused", Toast.LENGTH_SHORT).show();
         }
     }
@@ -2138,12 +2134,13 @@ public class GameActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         if (gamePaused) {
-            pausedTime = SystemClock.elapsedRealtime() - pausedTime;
             gamePaused = false;
-            if (timerHandler != null && timerRunnable != null) {
-                timerHandler.post(timerRunnable);
-            }
+            gameClock.resume(GameClock.HOLD_PAUSED);
+            updateGameInfo();
             Toast.makeText(this, "▶️ Game resumed", Toast.LENGTH_SHORT).show();
+        } else {
+            // A challenge clock kept running; catch up on anything due while the device slept
+            gameClock.refresh();
         }
     }
 
@@ -2151,12 +2148,14 @@ public class GameActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         try {
-            if (timerHandler != null && timerRunnable != null) {
-                timerHandler.removeCallbacks(timerRunnable);
+            gameClock.release();
+            if (cooldownAnimator != null) {
+                cooldownAnimator.stop();
             }
-            if (superpowerUpdateHandler != null && superpowerUpdateRunnable != null) {
-                superpowerUpdateHandler.removeCallbacks(superpowerUpdateRunnable);
+            if (superpowerManager != null) {
+                superpowerManager.release();
             }
+            stopAnalysis();
         } catch (Exception e) {
             // Cleanup failed - not critical
         }
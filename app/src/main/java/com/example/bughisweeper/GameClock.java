@@ -0,0 +1,191 @@
+package com.example.bughisweeper;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Play time of one game, measured on the monotonic elapsedRealtimeNanos clock. The clock stops
+ * while any hold is in place (the activity being in the background, Freeze Time) and keeps
+ * the time accumulated so far, so paused intervals never need to be subtracted afterwards.
+ *
+ * Wake-ups are posted only for what is due: the time limit callback at the moment the limit
+ * is reached, and a tick at each whole second of play for the on-screen clock. While the
+ * clock is held or stopped nothing is posted.
+ */
+public class GameClock {
+
+    /**
+     * Receives the play time at each whole second, for the on-screen clock
+     */
+    public interface OnTickListener {
+        void onTick(long elapsedMs);
+    }
+
+    // Reasons to hold the clock; it runs only while none is in place
+    public static final int HOLD_PAUSED = 1; // Activity in the background
+    public static final int HOLD_FROZEN = 2; // Freeze Time superpower
+
+    private static final long NANOS_PER_MS = 1000000L;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable tickCallback = this::onTick;
+    private final Runnable deadlineCallback = this::onDeadline;
+
+    private OnTickListener tickListener;
+    private Runnable deadlineListener;
+    private long timeLimitNanos = 0; // 0 = no limit
+    private boolean deadlineReached = false;
+
+    private boolean started = false;
+    private int holds = 0;
+    private long accumulatedNanos = 0; // Play time before the current running stretch
+    private long runningSinceNanos;
+
+    public void setOnTickListener(OnTickListener listener) {
+        this.tickListener = listener;
+    }
+
+    /**
+     * Call a listener once when the play time reaches a limit
+     * @param timeLimitMs Limit in milliseconds, or 0 for none
+     */
+    public void setTimeLimit(long timeLimitMs, Runnable listener) {
+        this.timeLimitNanos = Math.max(0, timeLimitMs) * NANOS_PER_MS;
+        this.deadlineListener = listener;
+        this.deadlineReached = false;
+        schedule();
+    }
+
+    /**
+     * Start a new game's time from zero; holds from the previous game are dropped except
+     * the background pause, which still applies
+     */
+    public void start() {
+        holds &= HOLD_PAUSED;
+        started = true;
+        accumulatedNanos = 0;
+        deadlineReached = false;
+        runningSinceNanos = now();
+        schedule();
+    }
+
+    /**
+     * Stop counting at the end of a game; the play time stays readable
+     */
+    public void stop() {
+        if (!started) return;
+        accumulatedNanos = getElapsedNanos();
+        started = false;
+        cancel();
+    }
+
+    public void pause(int reason) {
+        if (isRunning()) {
+            accumulatedNanos += now() - runningSinceNanos;
+        }
+        holds |= reason;
+        if (!isRunning()) cancel();
+    }
+
+    public void resume(int reason) {
+        boolean wasRunning = isRunning();
+        holds &= ~reason;
+        if (!wasRunning && isRunning()) {
+            runningSinceNanos = now();
+        }
+        schedule();
+    }
+
+    public boolean isPaused(int reason) { return (holds & reason) != 0; }
+    public boolean isRunning() { return started && holds == 0; }
+
+    public long getElapsedNanos() {
+        return isRunning() ? accumulatedNanos + now() - runningSinceNanos : accumulatedNanos;
+    }
+
+    public long getElapsedMillis() {
+        return getElapsedNanos() / NANOS_PER_MS;
+    }
+
+    /**
+     * Time left before the limit, or Long.MAX_VALUE without one
+     */
+    public long getRemainingMillis() {
+        if (timeLimitNanos == 0) return Long.MAX_VALUE;
+        return Math.max(0, timeLimitNanos - getElapsedNanos()) / NANOS_PER_MS;
+    }
+
+    /**
+     * Re-check what is due, e.g. after the device slept: posted callbacks run on uptime,
+     * which stops in deep sleep while elapsed time does not
+     */
+    public void refresh() {
+        schedule();
+    }
+
+    /**
+     * Drop every pending callback; the clock itself keeps its state
+     */
+    public void release() {
+        cancel();
+        tickListener = null;
+        deadlineListener = null;
+    }
+
+    private void onTick() {
+        if (!isRunning()) return;
+        if (tickListener != null) {
+            tickListener.onTick(getElapsedMillis());
+        }
+        scheduleTick(getElapsedNanos());
+    }
+
+    private void onDeadline() {
+        if (!isRunning() || deadlineReached || timeLimitNanos == 0) return;
+
+        long remaining = timeLimitNanos - getElapsedNanos();
+        if (remaining > 0) {
+            // Posted early, e.g. across deep sleep
+            handler.postDelayed(deadlineCallback, toDelayMillis(remaining));
+            return;
+        }
+
+        deadlineReached = true;
+        if (deadlineListener != null) {
+            deadlineListener.run();
+        }
+    }
+
+    private void schedule() {
+        cancel();
+        if (!isRunning()) return;
+
+        long elapsed = getElapsedNanos();
+        scheduleTick(elapsed);
+        if (timeLimitNanos > 0 && !deadlineReached) {
+            handler.postDelayed(deadlineCallback, toDelayMillis(timeLimitNanos - elapsed));
+        }
+    }
+
+    private void scheduleTick(long elapsedNanos) {
+        if (tickListener == null) return;
+        long untilNextSecond = NANOS_PER_SECOND - elapsedNanos % NANOS_PER_SECOND;
+        handler.postDelayed(tickCallback, toDelayMillis(untilNextSecond));
+    }
+
+    private void cancel() {
+        handler.removeCallbacks(tickCallback);
+        handler.removeCallbacks(deadlineCallback);
+    }
+
+    // Rounded up, so a callback never runs before what it waits for
+    private static long toDelayMillis(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + NANOS_PER_MS - 1) / NANOS_PER_MS;
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtimeNanos();
+    }
+}
@@ -4,7 +4,6 @@ import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.os.Handler;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -39,10 +38,18 @@ public class GameStatsFragment extends Fragment {
     private GridLayout glProbabilityGrid;
     private ProgressBar pbOverallProgress;
 
-    private BughisBoard board;
-    private SuperpowerManager superpowerManager;
-    private Handler updateHandler;
-    private Runnable updateRunnable;
+    private AnalysisPipeline analysisPipeline;
+
+    // Last rendered analysis, so redelivered results are skipped
+    private int renderedGame = -1;
+    private int renderedVersion = -1;
+    private int renderedProgress = -1;
+
+    // Inputs of the win analysis card, kept so estimate refinements redraw only that card
+    private AnalysisPipeline.WinEstimate winEstimate;
+    private int safeCells;
+    private int hiddenCells;
+    private double averageRisk;
 
     private DecimalFormat probabilityFormat = new DecimalFormat("0.00%");
     private DecimalFormat scoreFormat = new DecimalFormat("0.0");
@@ -53,11 +60,16 @@ public class GameStatsFragment extends Fragment {
         View view = inflater.inflate(R.layout.fragment_game_stats, container, false);
 
         initializeViews(view);
-        setupUpdateLoop();
 
         return view;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        observeAnalysis();
+    }
+
     private void initializeViews(View view) {
         tvProbabilityAnalysis = view.findViewById(R.id.tvProbabilityAnalysis);
         tvSafetyScore = view.findViewById(R.id.tvSafetyScore);
@@ -71,93 +83,107 @@ public class GameStatsFragment extends Fragment {
         pbOverallProgress = view.findViewById(R.id.pbOverallProgress);
     }
 
-    private void setupUpdateLoop() {
-        updateHandler = new Handler();
-        updateRunnable = new Runnable() {
-            @Override
-            public void run() {
-                updateStatistics();
-                updateHandler.postDelayed(this, 1000); // Update every second
-            }
-        };
-    }
-
-    public void setGameComponents(BughisBoard board, SuperpowerManager superpowerManager) {
-        this.board = board;
-        this.superpowerManager = superpowerManager;
-    }
-
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (updateHandler != null && updateRunnable != null) {
-            updateHandler.post(updateRunnable);
+    public void setGameComponents(AnalysisPipeline analysisPipeline) {
+        if (this.analysisPipeline != null && getView() != null) {
+            this.analysisPipeline.getResults().removeObservers(getViewLifecycleOwner());
+            this.analysisPipeline.getWinEstimates().removeObservers(getViewLifecycleOwner());
         }
-    }
-
-    @Override
-    public void onPause() {
-        super.onPause();
-        if (updateHandler != null && updateRunnable != null) {
-            updateHandler.removeCallbacks(updateRunnable);
+        this.analysisPipeline = analysisPipeline;
+        renderedGame = -1;
+        if (getView() != null) {
+            observeAnalysis();
         }
     }
 
     /**
-     * Update all mathematical statistics and analysis
+     * Redraw whenever the shared analysis publishes a new board version; the view's
+     * lifecycle pauses delivery while the fragment is hidden
      */
-    private void updateStatistics() {
-        if (board == null || superpowerManager == null) return;
-
-        // Update probability analysis
-        updateProbabilityAnalysis();
-
-        // Update safety scores
-        updateSafetyScores();
-
-        // Update information theory metrics
-        updateInformationMetrics();
-
-        // Update optimal move suggestion
-        updateOptimalMove();
-
-        // Update win probability
-        updateWinProbability();
-
-        // Update expected moves remaining
-        updateExpectedMoves();
-
-        // Update overall progress
-        updateOverallProgress();
+    private void observeAnalysis() {
+        if (analysisPipeline == null) return;
+
+        renderedGame = -1;
+        renderedProgress = -1;
+        winEstimate = null;
+        analysisPipeline.getWinEstimates().observe(getViewLifecycleOwner(), estimate -> {
+            if (estimate == null || estimate.game != analysisPipeline.getGame()) return;
+
+            winEstimate = estimate;
+            if (renderedGame == estimate.game) {
+                updateWinProbability();
+            }
+        });
+        analysisPipeline.getResults().observe(getViewLifecycleOwner(), result -> {
+            if (result == null || result.game != analysisPipeline.getGame()) return;
+            if (result.game == renderedGame && result.version == renderedVersion) return; // Already shown
+
+            try {
+                updateStatistics(result);
+                renderedGame = result.game;
+                renderedVersion = result.version;
+            } catch (Exception e) {
+                // Statistics update failed - not critical
+            }
+        });
     }
 
-    private void updateProbabilityAnalysis() {
-        double[][] probabilities = superpowerManager.getProbabilityGrid();
-        if (probabilities == null) return;
+    /**
+     * Update all mathematical statistics from one analysis in a single pass over the board
+     */
+    private void updateStatistics(AnalysisPipeline.AnalysisResult analysis) {
+        ReadableBoard board = analysis.board;
+        double[][] probabilities = analysis.probabilityGrid;
+        double[][] entropies = analysis.entropyGrid;
+        int[][] safetyScores = analysis.safetyScores;
 
-        double averageProbability = 0;
-        double maxProbability = 0;
+        int hiddenCells = 0;
+        int revealedCells = 0;
+        int safeCells = 0;
+        double probabilitySum = 0;
         double minProbability = 1;
-        int cellCount = 0;
+        double maxProbability = 0;
+        double safestScore = 0;
+        double safetySum = 0;
+        double entropySum = 0;
+        double informationSum = 0;
 
         for (int r = 0; r < board.getRows(); r++) {
             for (int c = 0; c < board.getCols(); c++) {
-                Cell cell = board.getCell(r, c);
-                if (!cell.isRevealed() && !cell.isFlagged()) {
-                    double prob = probabilities[r][c];
-                    averageProbability += prob;
-                    maxProbability = Math.max(maxProbability, prob);
-                    minProbability = Math.min(minProbability, prob);
-                    cellCount++;
+                if (board.isRevealed(r, c)) {
+                    revealedCells++;
+                    continue;
+                }
+                if (board.isFlagged(r, c)) continue;
+
+                double p = probabilities[r][c];
+                hiddenCells++;
+                probabilitySum += p;
+                minProbability = Math.min(minProbability, p);
+                maxProbability = Math.max(maxProbability, p);
+
+                safestScore = Math.max(safestScore, safetyScores[r][c]);
+                safetySum += safetyScores[r][c];
+
+                entropySum += entropies[r][c];
+                if (p > 0) {
+                    informationSum += -log2(p); // Information content = -log₂(p)
+                }
+
+                if (p < 0.1) { // Consider < 10% risk as "safe"
+                    safeCells++;
                 }
             }
         }
 
-        if (cellCount > 0) {
-            averageProbability /= cellCount;
+        double averageProbability = hiddenCells > 0 ? probabilitySum / hiddenCells : 0;
+        double averageSafety = hiddenCells > 0 ? safetySum / hiddenCells : 0;
+        double averageEntropy = hiddenCells > 0 ? entropySum / hiddenCells : 0;
+        double averageInformation = hiddenCells > 0 ? informationSum / hiddenCells : 0;
+        if (hiddenCells == 0) {
+            minProbability = 0;
         }
 
-        String analysisText = String.format(Locale.getDefault(),
+        tvProbabilityAnalysis.setText(String.format(Locale.getDefault(),
                 "📊 Probability Analysis\n" +
                         "Average: %s\n" +
                         "Range: %s - %s\n" +
@@ -165,138 +191,87 @@ public class GameStatsFragment extends Fragment {
                 probabilityFormat.format(averageProbability),
                 probabilityFormat.format(minProbability),
                 probabilityFormat.format(maxProbability),
-                cellCount
-        );
+                hiddenCells
+        ));
 
-        tvProbabilityAnalysis.setText(analysisText);
-    }
-
-    private void updateSafetyScores() {
-        double safestScore = 0;
-        double averageScore = 0;
-        int scoreCount = 0;
-
-        for (int r = 0; r < board.getRows(); r++) {
-            for (int c = 0; c < board.getCols(); c++) {
-                Cell cell = board.getCell(r, c);
-                if (!cell.isRevealed() && !cell.isFlagged()) {
-                    double prob = superpowerManager.getProbabilityGrid()[r][c];
-                    double safety = (1 - prob) * 100;
-                    safestScore = Math.max(safestScore, safety);
-                    averageScore += safety;
-                    scoreCount++;
-                }
-            }
-        }
-
-        if (scoreCount > 0) {
-            averageScore /= scoreCount;
-        }
-
-        String safetyText = String.format(Locale.getDefault(),
+        tvSafetyScore.setText(String.format(Locale.getDefault(),
                 "🛡️ Safety Analysis\n" +
                         "Safest Cell: %s\n" +
                         "Average Safety: %s",
                 scoreFormat.format(safestScore) + "%",
-                scoreFormat.format(averageScore) + "%"
-        );
-
-        tvSafetyScore.setText(safetyText);
-    }
-
-    private void updateInformationMetrics() {
-        double totalEntropy = 0;
-        double averageInformation = 0;
-        int cellCount = 0;
+                scoreFormat.format(averageSafety) + "%"
+        ));
 
-        double[][] probabilities = superpowerManager.getProbabilityGrid();
+        tvInformationGain.setText(String.format(Locale.getDefault(),
+                "📈 Information Theory\n" +
+                        "Average Entropy: %s bits\n" +
+                        "Information Content: %s bits",
+                scoreFormat.format(averageEntropy),
+                scoreFormat.format(averageInformation)
+        ));
+        tvEntropyMeasure.setText("Total Entropy: " + scoreFormat.format(entropySum) + " bits");
 
-        for (int r = 0; r < board.getRows(); r++) {
-            for (int c = 0; c < board.getCols(); c++) {
-                Cell cell = board.getCell(r, c);
-                if (!cell.isRevealed() && !cell.isFlagged()) {
-                    double p = probabilities[r][c];
+        updateOptimalMove(analysis.optimalMove);
 
-                    // Calculate Shannon entropy
-                    double entropy = 0;
-                    if (p > 0 && p < 1) {
-                        entropy = -(p * log2(p) + (1 - p) * log2(1 - p));
-                    }
+        this.safeCells = safeCells;
+        this.hiddenCells = hiddenCells;
+        this.averageRisk = averageProbability;
+        updateWinProbability();
 
-                    totalEntropy += entropy;
+        int targetCells = board.getRows() * board.getCols() - board.getTotalBugs();
+        int progress = targetCells > 0 ? (revealedCells * 100) / targetCells : 100;
 
-                    // Information content = -log₂(p)
-                    if (p > 0) {
-                        averageInformation += -log2(p);
-                    }
+        tvExpectedMoves.setText(String.format(Locale.getDefault(),
+                "⏳ Progress Analysis\n" +
+                        "Moves Remaining: ~%d\n" +
+                        "Progress: %d%%\n" +
+                        "Cells Left: %d",
+                targetCells - revealedCells,
+                progress,
+                hiddenCells
+        ));
 
-                    cellCount++;
-                }
-            }
-        }
+        updateOverallProgress(progress);
+    }
 
-        if (cellCount > 0) {
-            totalEntropy /= cellCount;
-            averageInformation /= cellCount;
+    /**
+     * Redraw the win analysis card with the latest (possibly still refining) estimate
+     */
+    private void updateWinProbability() {
+        String probability;
+        if (winEstimate != null && winEstimate.estimate.samples > 0) {
+            probability = probabilityFormat.format(winEstimate.estimate.probability)
+                    + " ±" + probabilityFormat.format(winEstimate.estimate.getMargin());
+        } else {
+            probability = "Estimating...";
         }
 
-        String informationText = String.format(Locale.getDefault(),
-                "📈 Information Theory\n" +
-                        "Average Entropy: %s bits\n" +
-                        "Information Content: %s bits",
-                scoreFormat.format(totalEntropy),
-                scoreFormat.format(averageInformation)
-        );
-
-        tvInformationGain.setText(informationText);
-        tvEntropyMeasure.setText("Total Entropy: " + scoreFormat.format(totalEntropy * cellCount) + " bits");
+        tvWinProbability.setText(String.format(Locale.getDefault(),
+                "🏆 Win Analysis\n" +
+                        "Probability: %s\n" +
+                        "Safe Cells: %d/%d\n" +
+                        "Average Risk: %s",
+                probability,
+                safeCells, hiddenCells,
+                probabilityFormat.format(averageRisk)
+        ));
     }
 
     private double log2(double x) {
         return Math.log(x) / Math.log(2);
     }
 
-    private void updateOptimalMove() {
-        // Find the cell with the best risk/reward ratio
-        int bestRow = -1, bestCol = -1;
-        double bestScore = -1;
-
-        double[][] probabilities = superpowerManager.getProbabilityGrid();
-
-        for (int r = 0; r < board.getRows(); r++) {
-            for (int c = 0; c < board.getCols(); c++) {
-                Cell cell = board.getCell(r, c);
-                if (!cell.isRevealed() && !cell.isFlagged()) {
-                    double prob = probabilities[r][c];
-
-                    // Calculate expected information gain
-                    double entropy = 0;
-                    if (prob > 0 && prob < 1) {
-                        entropy = -(prob * log2(prob) + (1 - prob) * log2(1 - prob));
-                    }
-
-                    // Score = safety + information gain
-                    double score = (1 - prob) * 0.7 + entropy * 0.3;
-
-                    if (score > bestScore) {
-                        bestScore = score;
-                        bestRow = r;
-                        bestCol = c;
-                    }
-                }
-            }
-        }
-
+    private void updateOptimalMove(MathAnalyzer.OptimalMove move) {
         String optimalText;
-        if (bestRow >= 0 && bestCol >= 0) {
+        if (move != null && move.row >= 0 && move.col >= 0) {
             optimalText = String.format(Locale.getDefault(),
                     "🎯 Optimal Move\n" +
                             "Position: (%d, %d)\n" +
                             "Score: %s\n" +
                             "Risk: %s",
-                    bestRow + 1, bestCol + 1,
-                    scoreFormat.format(bestScore),
-                    probabilityFormat.format(probabilities[bestRow][bestCol])
+                    move.row + 1, move.col + 1,
+                    scoreFormat.format(move.score),
+                    probabilityFormat.format(move.probability)
             );
         } else {
             optimalText = "🎯 Optimal Move\nCalculating...";
@@ -305,94 +280,9 @@ public class GameStatsFragment extends Fragment {
         tvOptimalMove.setText(optimalText);
     }
 
-    private void updateWinProbability() {
-        // Estimate win probability based on current state
-        int remainingCells = 0;
-        int safeCells = 0;
-        double averageRisk = 0;
-
-        double[][] probabilities = superpowerManager.getProbabilityGrid();
-
-        for (int r = 0; r < board.getRows(); r++) {
-            for (int c = 0; c < board.getCols(); c++) {
-                Cell cell = board.getCell(r, c);
-                if (!cell.isRevealed() && !cell.isFlagged()) {
-                    remainingCells++;
-                    double prob = probabilities[r][c];
-                    averageRisk += prob;
-
-                    if (prob < 0.1) { // Consider < 10% risk as "safe"
-                        safeCells++;
-                    }
-                }
-            }
-        }
-
-        double winProbability = 0;
-        if (remainingCells > 0) {
-            averageRisk /= remainingCells;
-            // Simplified win probability estimation
-            winProbability = Math.pow(1 - averageRisk, remainingCells) * 100;
-        }
-
-        String winText = String.format(Locale.getDefault(),
-                "🏆 Win Analysis\n" +
-                        "Probability: %s\n" +
-                        "Safe Cells: %d/%d\n" +
-                        "Average Risk: %s",
-                probabilityFormat.format(winProbability / 100),
-                safeCells, remainingCells,
-                probabilityFormat.format(averageRisk)
-        );
-
-        tvWinProbability.setText(winText);
-    }
-
-    private void updateExpectedMoves() {
-        int remainingCells = 0;
-        int revealedCells = 0;
-
-        for (int r = 0; r < board.getRows(); r++) {
-            for (int c = 0; c < board.getCols(); c++) {
-                Cell cell = board.getCell(r, c);
-                if (cell.isRevealed()) {
-                    revealedCells++;
-                } else if (!cell.isFlagged()) {
-                    remainingCells++;
-                }
-            }
-        }
-
-        int totalCells = board.getRows() * board.getCols();
-        int expectedMoves = totalCells - board.getTotalBugs() - revealedCells;
-
-        String movesText = String.format(Locale.getDefault(),
-                "⏳ Progress Analysis\n" +
-                        "Moves Remaining: ~%d\n" +
-                        "Progress: %d%%\n" +
-                        "Cells Left: %d",
-                expectedMoves,
-                (revealedCells * 100) / (totalCells - board.getTotalBugs()),
-                remainingCells
-        );
-
-        tvExpectedMoves.setText(movesText);
-    }
-
-    private void updateOverallProgress() {
-        int totalCells = board.getRows() * board.getCols();
-        int targetCells = totalCells - board.getTotalBugs();
-        int revealedCells = 0;
-
-        for (int r = 0; r < board.getRows(); r++) {
-            for (int c = 0; c < board.getCols(); c++) {
-                if (board.getCell(r, c).isRevealed()) {
-                    revealedCells++;
-                }
-            }
-        }
-
-        int progress = (revealedCells * 100) / targetCells;
+    private void updateOverallProgress(int progress) {
+        if (progress == renderedProgress) return; // Nothing to animate
+        renderedProgress = progress;
 
         // Animate progress bar
         ObjectAnimator progressAnimator = ObjectAnimator.ofInt(pbOverallProgress, "progress", progress);
@@ -56,6 +56,9 @@ public class MainActivity extends AppCompatActivity {
             try {
                 themeManager = ThemeManager.getInstance(this);
                 themeManager.applyTheme(this);
+                if (savedInstanceState == null) {
+                    themeManager.preloadPalettes(); // Other themes, ready for the settings screen
+                }
                 Log.d(TAG, "Theme applied successfully");
             } catch (Exception e) {
                 Log.e(TAG, "Theme application failed", e);
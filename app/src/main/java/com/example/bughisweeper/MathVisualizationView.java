@@ -1,6 +1,7 @@
 package com.example.bughisweeper;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
@@ -8,17 +9,50 @@ import android.graphics.RectF;
 import android.util.AttributeSet;
 import android.view.View;
 
+import java.util.Locale;
+
 /**
- * Custom view to visualize mathematical analysis data
+ * Custom view to visualize mathematical analysis data.
+ * The heatmap is a bitmap with one pixel per cell: its colors are written into an int[] and
+ * uploaded with a single setPixels call, then scaled onto the grid with filtering. Pixels and
+ * cell labels are rebuilt only when the analysis (or the mode) changes, so a frame is one
+ * bitmap draw plus cached label strings, without allocations.
  */
 public class MathVisualizationView extends View {
 
+    // "0%" to "100%" and "0" to "100", shared by every view
+    private static final String[] PERCENT_LABELS = new String[101];
+    private static final String[] SCORE_LABELS = new String[101];
+
+    static {
+        for (int i = 0; i <= 100; i++) {
+            PERCENT_LABELS[i] = i + "%";
+            SCORE_LABELS[i] = String.valueOf(i);
+        }
+    }
+
     private Paint probabilityPaint;
     private Paint textPaint;
     private Paint gridPaint;
     private Paint overlayPaint;
+    private Paint heatmapPaint;
 
+    // Data shown: the grids of a live analyzer, or of an AnalysisPipeline result
     private MathAnalyzer mathAnalyzer;
+    private double[][] probabilityGrid;
+    private double[][] entropyGrid;
+    private int[][] safetyScores;
+    private int shownGame = -1;
+    private int shownVersion = -1;
+
+    // Heatmap of the current data and mode, one pixel and one label per cell
+    private Bitmap heatmap;
+    private int[] heatmapPixels = new int[0];
+    private String[] cellLabels = new String[0];
+    private boolean heatmapDirty = true;
+    private final RectF heatmapRect = new RectF();
+    private final RectF legendRect = new RectF();
+
     private boolean showProbabilities = true;
     private boolean showEntropy = false;
     private boolean showSafetyScores = false;
@@ -58,20 +92,62 @@ public class MathVisualizationView extends View {
         overlayPaint.setAntiAlias(true);
         overlayPaint.setStyle(Paint.Style.STROKE);
         overlayPaint.setStrokeWidth(3);
+
+        heatmapPaint = new Paint();
+        heatmapPaint.setFilterBitmap(true);
     }
 
+    /**
+     * Show the current state of an analyzer. Its grids are read again on every call, so call
+     * this after each analysis update.
+     */
     public void setMathAnalyzer(MathAnalyzer analyzer) {
         this.mathAnalyzer = analyzer;
+        shownGame = -1;
+        shownVersion = -1;
         if (analyzer != null) {
-            double[][] probGrid = analyzer.getProbabilityGrid();
-            if (probGrid != null) {
-                gridRows = probGrid.length;
-                gridCols = probGrid[0].length;
-            }
+            showGrids(analyzer.getProbabilityGrid(), analyzer.getEntropyGrid(), analyzer.getSafetyScores());
+        } else {
+            showGrids(null, null, null);
+        }
+    }
+
+    /**
+     * Show a published analysis; a result of the same game and version as the one shown is
+     * ignored, so it can be passed on every callback
+     */
+    public void setAnalysis(AnalysisPipeline.AnalysisResult result) {
+        if (result == null) {
+            setMathAnalyzer(null);
+            return;
+        }
+        if (mathAnalyzer == null && result.game == shownGame && result.version == shownVersion) return;
+
+        mathAnalyzer = null;
+        shownGame = result.game;
+        shownVersion = result.version;
+        showGrids(result.probabilityGrid, result.entropyGrid, result.safetyScores);
+    }
+
+    private void showGrids(double[][] probabilities, double[][] entropy, int[][] safety) {
+        probabilityGrid = probabilities;
+        entropyGrid = entropy;
+        safetyScores = safety;
+
+        if (probabilities != null && probabilities.length > 0
+                && (probabilities.length != gridRows || probabilities[0].length != gridCols)) {
+            gridRows = probabilities.length;
+            gridCols = probabilities[0].length;
+            requestLayout();
         }
+        heatmapDirty = true;
         invalidate();
     }
 
+    private boolean hasData() {
+        return probabilityGrid != null;
+    }
+
     public void setVisualizationMode(String mode) {
         showProbabilities = false;
         showEntropy = false;
@@ -88,6 +164,7 @@ public class MathVisualizationView extends View {
                 showSafetyScores = true;
                 break;
         }
+        heatmapDirty = true;
         invalidate();
     }
 
@@ -95,20 +172,17 @@ public class MathVisualizationView extends View {
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        if (mathAnalyzer == null) {
+        if (!hasData()) {
             drawPlaceholder(canvas);
             return;
         }
 
         calculateCellSize();
 
-        if (showProbabilities) {
-            drawProbabilityHeatmap(canvas);
-        } else if (showEntropy) {
-            drawEntropyVisualization(canvas);
-        } else if (showSafetyScores) {
-            drawSafetyVisualization(canvas);
+        if (heatmapDirty) {
+            renderHeatmap();
         }
+        drawHeatmap(canvas);
 
         drawGrid(canvas);
         drawLegend(canvas);
@@ -122,33 +196,54 @@ public class MathVisualizationView extends View {
         cellSize = Math.max(cellSize, 20); // Minimum size
     }
 
-    private void drawProbabilityHeatmap(Canvas canvas) {
-        double[][] probabilities = mathAnalyzer.getProbabilityGrid();
-        if (probabilities == null) return;
+    /**
+     * Rebuild the heatmap pixels and cell labels for the current data and mode
+     */
+    private void renderHeatmap() {
+        heatmapDirty = false;
+        int cellCount = gridRows * gridCols;
+        if (heatmapPixels.length != cellCount) {
+            heatmapPixels = new int[cellCount];
+            cellLabels = new String[cellCount];
+        }
+
+        if (showProbabilities) {
+            fillProbabilityHeatmap();
+        } else if (showEntropy) {
+            fillEntropyHeatmap();
+        } else if (showSafetyScores) {
+            fillSafetyHeatmap();
+        } else {
+            heatmap = null;
+            return;
+        }
+
+        if (heatmap == null || heatmap.getWidth() != gridCols || heatmap.getHeight() != gridRows) {
+            heatmap = Bitmap.createBitmap(gridCols, gridRows, Bitmap.Config.ARGB_8888);
+        }
+        heatmap.setPixels(heatmapPixels, 0, gridCols, 0, 0, gridCols, gridRows);
+    }
 
+    private void fillProbabilityHeatmap() {
+        double[][] probabilities = probabilityGrid;
         for (int r = 0; r < gridRows; r++) {
             for (int c = 0; c < gridCols; c++) {
                 double probability = probabilities[r][c];
+                int index = r * gridCols + c;
 
                 // Color based on probability: green (safe) to red (dangerous)
-                int color = getProbabilityColor(probability);
-                probabilityPaint.setColor(color);
-
-                RectF cellRect = getCellRect(r, c);
-                canvas.drawRect(cellRect, probabilityPaint);
-
-                // Draw probability percentage
-                String probText = String.format("%.0f%%", probability * 100);
-                float textX = cellRect.centerX();
-                float textY = cellRect.centerY() + textPaint.getTextSize() / 3;
-                canvas.drawText(probText, textX, textY, textPaint);
+                heatmapPixels[index] = getProbabilityColor(probability);
+                cellLabels[index] = PERCENT_LABELS[clampPercent(Math.round(probability * 100))];
             }
         }
     }
 
-    private void drawEntropyVisualization(Canvas canvas) {
-        double[][] entropy = mathAnalyzer.getEntropyGrid();
-        if (entropy == null) return;
+    private void fillEntropyHeatmap() {
+        double[][] entropy = entropyGrid;
+        if (entropy == null) {
+            fillEmptyHeatmap();
+            return;
+        }
 
         // Find max entropy for normalization
         double maxEntropy = 0;
@@ -162,43 +257,66 @@ public class MathVisualizationView extends View {
             for (int c = 0; c < gridCols; c++) {
                 double entropyValue = entropy[r][c];
                 double normalizedEntropy = maxEntropy > 0 ? entropyValue / maxEntropy : 0;
+                int index = r * gridCols + c;
 
                 // Color based on entropy: blue (low) to purple (high)
-                int color = getEntropyColor(normalizedEntropy);
-                probabilityPaint.setColor(color);
-
-                RectF cellRect = getCellRect(r, c);
-                canvas.drawRect(cellRect, probabilityPaint);
-
-                // Draw entropy value
-                String entropyText = String.format("%.2f", entropyValue);
-                float textX = cellRect.centerX();
-                float textY = cellRect.centerY() + textPaint.getTextSize() / 3;
-                canvas.drawText(entropyText, textX, textY, textPaint);
+                heatmapPixels[index] = getEntropyColor(normalizedEntropy);
+                // Formatted once per analysis rather than once per frame
+                cellLabels[index] = String.format(Locale.getDefault(), "%.2f", entropyValue);
             }
         }
     }
 
-    private void drawSafetyVisualization(Canvas canvas) {
-        int[][] safetyScores = mathAnalyzer.getSafetyScores();
-        if (safetyScores == null) return;
+    private void fillSafetyHeatmap() {
+        int[][] safety = safetyScores;
+        if (safety == null) {
+            fillEmptyHeatmap();
+            return;
+        }
 
         for (int r = 0; r < gridRows; r++) {
             for (int c = 0; c < gridCols; c++) {
-                int safety = safetyScores[r][c];
+                int score = safety[r][c];
+                int index = r * gridCols + c;
 
                 // Color based on safety: red (dangerous) to green (safe)
-                int color = getSafetyColor(safety);
-                probabilityPaint.setColor(color);
+                heatmapPixels[index] = getSafetyColor(score);
+                cellLabels[index] = score >= 0 && score <= 100 ? SCORE_LABELS[score] : String.valueOf(score);
+            }
+        }
+    }
+
+    private void fillEmptyHeatmap() {
+        for (int i = 0; i < heatmapPixels.length; i++) {
+            heatmapPixels[i] = Color.TRANSPARENT;
+            cellLabels[i] = null;
+        }
+    }
+
+    private static int clampPercent(long percent) {
+        return (int) Math.max(0, Math.min(100, percent));
+    }
+
+    /**
+     * Scale the heatmap over the grid and label every cell
+     */
+    private void drawHeatmap(Canvas canvas) {
+        if (heatmap == null) return;
 
-                RectF cellRect = getCellRect(r, c);
-                canvas.drawRect(cellRect, probabilityPaint);
+        float left = getPaddingLeft();
+        float top = getPaddingTop();
+        heatmapRect.set(left, top, left + gridCols * cellSize, top + gridRows * cellSize);
+        canvas.drawBitmap(heatmap, null, heatmapRect, heatmapPaint);
 
-                // Draw safety score
-                String safetyText = String.valueOf(safety);
-                float textX = cellRect.centerX();
-                float textY = cellRect.centerY() + textPaint.getTextSize() / 3;
-                canvas.drawText(safetyText, textX, textY, textPaint);
+        textPaint.setColor(Color.WHITE);
+        float textOffset = textPaint.getTextSize() / 3;
+        for (int r = 0; r < gridRows; r++) {
+            float textY = top + r * cellSize + cellSize / 2f + textOffset;
+            for (int c = 0; c < gridCols; c++) {
+                String label = cellLabels[r * gridCols + c];
+                if (label != null) {
+                    canvas.drawText(label, left + c * cellSize + cellSize / 2f, textY, textPaint);
+                }
             }
         }
     }
@@ -242,12 +360,12 @@ public class MathVisualizationView extends View {
 
         for (int i = 0; i < labels.length; i++) {
             probabilityPaint.setColor(getProbabilityColor(values[i]));
-            RectF rect = new RectF(startX + i * legendItemWidth, y + 15,
+            legendRect.set(startX + i * legendItemWidth, y + 15,
                     startX + (i + 1) * legendItemWidth, y + 35);
-            canvas.drawRect(rect, probabilityPaint);
+            canvas.drawRect(legendRect, probabilityPaint);
 
             textPaint.setColor(Color.WHITE);
-            canvas.drawText(labels[i], rect.centerX(), rect.centerY() + 5, textPaint);
+            canvas.drawText(labels[i], legendRect.centerX(), legendRect.centerY() + 5, textPaint);
         }
 
         textPaint.setColor(Color.BLACK);
@@ -266,12 +384,12 @@ public class MathVisualizationView extends View {
 
         for (int i = 0; i < labels.length; i++) {
             probabilityPaint.setColor(getEntropyColor(values[i]));
-            RectF rect = new RectF(startX + i * legendItemWidth, y + 15,
+            legendRect.set(startX + i * legendItemWidth, y + 15,
                     startX + (i + 1) * legendItemWidth, y + 35);
-            canvas.drawRect(rect, probabilityPaint);
+            canvas.drawRect(legendRect, probabilityPaint);
 
             textPaint.setColor(Color.WHITE);
-            canvas.drawText(labels[i], rect.centerX(), rect.centerY() + 5, textPaint);
+            canvas.drawText(labels[i], legendRect.centerX(), legendRect.centerY() + 5, textPaint);
         }
 
         textPaint.setColor(Color.BLACK);
@@ -290,12 +408,12 @@ public class MathVisualizationView extends View {
 
         for (int i = 0; i < labels.length; i++) {
             probabilityPaint.setColor(getSafetyColor(values[i]));
-            RectF rect = new RectF(startX + i * legendItemWidth, y + 15,
+            legendRect.set(startX + i * legendItemWidth, y + 15,
                     startX + (i + 1) * legendItemWidth, y + 35);
-            canvas.drawRect(rect, probabilityPaint);
+            canvas.drawRect(legendRect, probabilityPaint);
 
             textPaint.setColor(Color.WHITE);
-            canvas.drawText(labels[i], rect.centerX(), rect.centerY() + 5, textPaint);
+            canvas.drawText(labels[i], legendRect.centerX(), legendRect.centerY() + 5, textPaint);
         }
 
         textPaint.setColor(Color.BLACK);
@@ -315,14 +433,6 @@ public class MathVisualizationView extends View {
         }
     }
 
-    private RectF getCellRect(int row, int col) {
-        float left = getPaddingLeft() + col * cellSize;
-        float top = getPaddingTop() + row * cellSize;
-        float right = left + cellSize;
-        float bottom = top + cellSize;
-        return new RectF(left, top, right, bottom);
-    }
-
     private int getProbabilityColor(double probability) {
         // Interpolate between green (safe) and red (dangerous)
         if (probability < 0.2) {
@@ -3,7 +3,6 @@ package com.example.bughisweeper;
 import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.os.Bundle;
-import android.os.Handler;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -21,7 +20,8 @@ import java.util.Locale;
 /**
  * Fragment for superpower management and display
  */
-public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSuperpowerListener {
+public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSuperpowerListener,
+        SuperpowerManager.CooldownListener {
 
     private Button btnFreeze, btnXRay, btnSonar, btnLightning, btnShield, btnSmartSweep;
     private TextView tvFreezeCooldown, tvXRayCooldown, tvSonarCooldown;
@@ -30,8 +30,8 @@ public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSu
     private ProgressBar pbFreeze, pbXRay, pbSonar, pbLightning, pbSmartSweep;
 
     private SuperpowerManager superpowerManager;
-    private Handler cooldownHandler;
-    private Runnable cooldownRunnable;
+    private CooldownProgressAnimator cooldownAnimator;
+    private boolean resumed = false;
 
     private OnSuperpowerActivationListener activationListener;
 
@@ -46,7 +46,7 @@ public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSu
 
         initializeViews(view);
         setupButtonListeners();
-        setupCooldownLoop();
+        setupCooldownAnimator();
 
         return view;
     }
@@ -82,20 +82,37 @@ public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSu
         btnSmartSweep.setOnClickListener(v -> requestSuperpower(SuperpowerManager.SuperpowerType.SMART_SWEEP));
     }
 
-    private void setupCooldownLoop() {
-        cooldownHandler = new Handler();
-        cooldownRunnable = new Runnable() {
-            @Override
-            public void run() {
-                updateCooldowns();
-                cooldownHandler.postDelayed(this, 100); // Update every 100ms for smooth progress
-            }
-        };
+    /**
+     * Bind the cooldown bars to a vsync animator; it runs only while a cooldown is visible
+     */
+    private void setupCooldownAnimator() {
+        if (superpowerManager == null || pbFreeze == null) return;
+
+        if (cooldownAnimator != null) {
+            cooldownAnimator.stop();
+        }
+        cooldownAnimator = new CooldownProgressAnimator(superpowerManager, this::onCountdown);
+        cooldownAnimator.bind(SuperpowerManager.SuperpowerType.FREEZE, pbFreeze);
+        cooldownAnimator.bind(SuperpowerManager.SuperpowerType.XRAY, pbXRay);
+        cooldownAnimator.bind(SuperpowerManager.SuperpowerType.SONAR, pbSonar);
+        cooldownAnimator.bind(SuperpowerManager.SuperpowerType.LIGHTNING, pbLightning);
+        cooldownAnimator.bind(SuperpowerManager.SuperpowerType.SMART_SWEEP, pbSmartSweep);
+        if (resumed) {
+            cooldownAnimator.start();
+        }
     }
 
     public void setSuperpowerManager(SuperpowerManager manager) {
+        if (superpowerManager != null && resumed) {
+            superpowerManager.removeCooldownListener(this);
+        }
         this.superpowerManager = manager;
         manager.setOnSuperpowerListener(this);
+        setupCooldownAnimator();
+        if (resumed) {
+            manager.addCooldownListener(this);
+            updateCooldowns();
+        }
     }
 
     public void setOnSuperpowerActivationListener(OnSuperpowerActivationListener listener) {
@@ -111,16 +128,39 @@ public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSu
     @Override
     public void onResume() {
         super.onResume();
-        if (cooldownHandler != null && cooldownRunnable != null) {
-            cooldownHandler.post(cooldownRunnable);
+        resumed = true;
+        if (superpowerManager != null) {
+            superpowerManager.addCooldownListener(this);
+            updateCooldowns();
+        }
+        if (cooldownAnimator != null) {
+            cooldownAnimator.start();
         }
     }
 
     @Override
     public void onPause() {
         super.onPause();
-        if (cooldownHandler != null && cooldownRunnable != null) {
-            cooldownHandler.removeCallbacks(cooldownRunnable);
+        resumed = false;
+        if (superpowerManager != null) {
+            superpowerManager.removeCooldownListener(this);
+        }
+        if (cooldownAnimator != null) {
+            cooldownAnimator.stop();
+        }
+    }
+
+    @Override
+    public void onSuperpowerTransition(SuperpowerManager.SuperpowerType type, SuperpowerManager.Transition transition) {
+        if (isAdded()) {
+            updateCooldowns();
+        }
+    }
+
+    private void onCountdown(SuperpowerManager.SuperpowerType type, long remainingMs) {
+        TextView cooldownText = getCooldownTextForType(type);
+        if (cooldownText != null) {
+            cooldownText.setText(formatCooldownTime(remainingMs));
         }
     }
 
@@ -129,23 +169,28 @@ public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSu
 
         updateSuperpowerButton(btnFreeze, pbFreeze, tvFreezeCooldown,
                 superpowerManager.canUseFreeze(),
-                superpowerManager.getRemainingFreezeCooldown(), 60000);
+                superpowerManager.getRemainingFreezeCooldown(),
+                superpowerManager.getCooldownDuration(SuperpowerManager.SuperpowerType.FREEZE));
 
         updateSuperpowerButton(btnXRay, pbXRay, tvXRayCooldown,
                 superpowerManager.canUseXRay(),
-                superpowerManager.getRemainingXRayCooldown(), 45000);
+                superpowerManager.getRemainingXRayCooldown(),
+                superpowerManager.getCooldownDuration(SuperpowerManager.SuperpowerType.XRAY));
 
         updateSuperpowerButton(btnSonar, pbSonar, tvSonarCooldown,
                 superpowerManager.canUseSonar(),
-                superpowerManager.getRemainingSonarCooldown(), 30000);
+                superpowerManager.getRemainingSonarCooldown(),
+                superpowerManager.getCooldownDuration(SuperpowerManager.SuperpowerType.SONAR));
 
         updateSuperpowerButton(btnLightning, pbLightning, tvLightningCooldown,
                 superpowerManager.canUseLightning(),
-                superpowerManager.getRemainingLightningCooldown(), 90000);
+                superpowerManager.getRemainingLightningCooldown(),
+                superpowerManager.getCooldownDuration(SuperpowerManager.SuperpowerType.LIGHTNING));
 
         updateSuperpowerButton(btnSmartSweep, pbSmartSweep, tvSmartSweepCooldown,
                 superpowerManager.canUseSmartSweep(),
-                superpowerManager.getRemainingSmartSweepCooldown(), 20000);
+                superpowerManager.getRemainingSmartSweepCooldown(),
+                superpowerManager.getCooldownDuration(SuperpowerManager.SuperpowerType.SMART_SWEEP));
 
         // Special handling for shield (one-time use)
         if (superpowerManager.canUseShield()) {
@@ -189,6 +234,8 @@ public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSu
 
     private void updateActiveStatus(Button button, boolean isActive) {
         if (isActive) {
+            if (button.getTag() != null) return; // Already pulsing
+
             // Add pulsing animation for active powers
             ValueAnimator pulseAnimator = ValueAnimator.ofFloat(0.8f, 1.2f);
             pulseAnimator.setDuration(500);
@@ -273,6 +320,17 @@ public class PowerupsFragment extends Fragment implements SuperpowerManager.OnSu
         // Not needed in this fragment
     }
 
+    private TextView getCooldownTextForType(SuperpowerManager.SuperpowerType type) {
+        switch (type) {
+            case FREEZE: return tvFreezeCooldown;
+            case XRAY: return tvXRayCooldown;
+            case SONAR: return tvSonarCooldown;
+            case LIGHTNING: return tvLightningCooldown;
+            case SMART_SWEEP: return tvSmartSweepCooldown;
+            default: return null;
+        }
+    }
+
     private Button getButtonForType(SuperpowerManager.SuperpowerType type) {
         switch (type) {
             case FREEZE: return btnFreeze;
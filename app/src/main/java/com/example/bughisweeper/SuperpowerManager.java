@@ -1,16 +1,20 @@
 package com.example.bughisweeper;
 
 import android.content.Context;
-import android.graphics.PointF;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.lifecycle.Observer;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 /**
- * Crash-resistant SuperpowerManager with minimal dependencies
+ * Crash-resistant SuperpowerManager with minimal dependencies. The rules themselves live in
+ * the engine's SuperpowerRules; this class adds the timed effects, the board view and the
+ * listener callbacks.
  */
 public class SuperpowerManager {
 
@@ -19,34 +23,29 @@ public class SuperpowerManager {
     private final BoardView boardView; // Can be null
     private final Handler handler;
     private final Random random;
-
-    // Superpower cooldowns (in milliseconds)
-    private static final long FREEZE_COOLDOWN = 60000; // 60 seconds
-    private static final long XRAY_COOLDOWN = 45000;   // 45 seconds
-    private static final long SONAR_COOLDOWN = 30000;  // 30 seconds
-    private static final long LIGHTNING_COOLDOWN = 90000; // 90 seconds
-    private static final long SHIELD_COOLDOWN = 0; // One per game
-    private static final long SMART_SWEEP_COOLDOWN = 20000; // 20 seconds
-
-    // Superpower durations
-    private static final long FREEZE_DURATION = 10000; // 10 seconds
-    private static final long XRAY_DURATION = 5000;    // 5 seconds
-
-    private long lastFreezeUse = 0;
-    private long lastXrayUse = 0;
-    private long lastSonarUse = 0;
-    private long lastLightningUse = 0;
-    private long lastSmartSweepUse = 0;
-    private boolean shieldUsed = false;
-    private boolean shieldActive = false;
+    private final SuperpowerRules rules = new SuperpowerRules();
 
     private boolean freezeActive = false;
     private boolean xrayActive = false;
     private List<Cell> xrayRevealedCells = new ArrayList<>();
-
-    // Mathematical analysis data - simplified
-    private double[][] probabilityGrid;
-    private int[][] safetyScores;
+    private final int[] xrayTargets = new int[SuperpowerRules.XRAY_CELLS];
+    private final DeductionEngine deductions = new DeductionEngine();
+    private final ReadableBoard unflaggedBoard;
+
+    // Cooldowns and effect durations share one timer wheel; a single callback is posted for
+    // the next deadline, so nothing runs while every power is ready
+    private static final long TIMER_TICK_MS = 50;
+    private static final int TIMER_SLOTS = 256;
+    private static final SuperpowerType[] TYPES = SuperpowerType.values();
+    private static final Transition[] TRANSITIONS = Transition.values();
+    private final TimerWheel<Integer> timers = new TimerWheel<>(TIMER_TICK_MS, TIMER_SLOTS);
+    private final List<Integer> expiredTimers = new ArrayList<>();
+    private final Runnable timerCallback = this::onTimers;
+    private final List<CooldownListener> cooldownListeners = new ArrayList<>();
+
+    // Shared board analysis (can be null when analysis is disabled)
+    private AnalysisPipeline analysisPipeline;
+    private final Observer<AnalysisPipeline.AnalysisResult> analysisObserver = this::onAnalysisResult;
 
     private OnSuperpowerListener listener;
 
@@ -57,13 +56,26 @@ public class SuperpowerManager {
         void onMathematicalAnalysisUpdate(double[][] probabilities);
     }
 
+    /**
+     * Receives superpower state changes on the main thread, only when they happen: ACTIVATED
+     * when a power is used (its cooldown starts), EXPIRED when a timed effect or the shield
+     * ends, READY when the cooldown is over or the game is reset
+     */
+    public interface CooldownListener {
+        void onSuperpowerTransition(SuperpowerType type, Transition transition);
+    }
+
+    public enum Transition {
+        ACTIVATED, EXPIRED, READY
+    }
+
     public enum SuperpowerType {
         FREEZE("🧊 Freeze Time", "Pause timer for 10 seconds"),
         XRAY("🔍 X-Ray Vision", "Reveal 3 adjacent cells for 5 seconds"),
         SONAR("🌊 Sonar Pulse", "Show mine count in 5x5 area"),
         LIGHTNING("⚡ Lightning Strike", "Auto-reveal safest cell"),
         SHIELD("🛡️ Shield Mode", "Survive one mine hit"),
-        SMART_SWEEP("🎯 Smart Sweep", "Auto-flag obvious mines");
+        SMART_SWEEP("🎯 Smart Sweep", "Auto-flag mines and clear safe cells");
 
         private final String displayName;
         private final String description;
@@ -81,84 +93,139 @@ public class SuperpowerManager {
         this.context = context;
         this.board = board;
         this.boardView = boardView; // Can be null
+        this.unflaggedBoard = new UnflaggedBoardView(board);
         this.handler = new Handler(Looper.getMainLooper());
         this.random = new Random();
-
-        initializeMathematicalAnalysis();
     }
 
     public void setOnSuperpowerListener(OnSuperpowerListener listener) {
         this.listener = listener;
     }
 
+    public void addCooldownListener(CooldownListener listener) {
+        if (!cooldownListeners.contains(listener)) {
+            cooldownListeners.add(listener);
+        }
+    }
+
+    public void removeCooldownListener(CooldownListener listener) {
+        cooldownListeners.remove(listener);
+    }
+
+    // Cooldowns run on the uptime clock, the one Handler.postAtTime uses
+    private static long now() {
+        return SystemClock.uptimeMillis();
+    }
+
     /**
-     * Initialize mathematical probability analysis safely
+     * Schedule the end of a power's cooldown and effect, and announce its activation
+     * @param effectDuration How long the effect lasts, or 0 for instant powers
      */
-    private void initializeMathematicalAnalysis() {
-        try {
-            if (board == null) return;
+    private void startTimers(SuperpowerType type, long effectDuration) {
+        long now = now();
+        long cooldown = getCooldownDuration(type);
+        if (cooldown > 0) {
+            timers.schedule(timerKey(type, Transition.READY), now + cooldown);
+        }
+        if (effectDuration > 0) {
+            timers.schedule(timerKey(type, Transition.EXPIRED), now + effectDuration);
+        }
+        scheduleWakeUp();
+        dispatchTransition(type, Transition.ACTIVATED);
+    }
 
-            int rows = board.getRows();
-            int cols = board.getCols();
-            probabilityGrid = new double[rows][cols];
-            safetyScores = new int[rows][cols];
+    private static int timerKey(SuperpowerType type, Transition transition) {
+        return type.ordinal() * TRANSITIONS.length + transition.ordinal();
+    }
 
-            updateProbabilityAnalysis();
-        } catch (Exception e) {
-            // Mathematical analysis failed - continue without it
-            probabilityGrid = null;
-            safetyScores = null;
+    private void onTimers() {
+        expiredTimers.clear();
+        timers.advance(now(), expiredTimers);
+        for (int i = 0; i < expiredTimers.size(); i++) {
+            int key = expiredTimers.get(i);
+            SuperpowerType type = TYPES[key / TRANSITIONS.length];
+            Transition transition = TRANSITIONS[key % TRANSITIONS.length];
+            if (transition == Transition.EXPIRED) {
+                endEffect(type);
+            }
+            dispatchTransition(type, transition);
         }
+        scheduleWakeUp();
     }
 
-    /**
-     * Update probability calculations safely
-     */
-    public void updateProbabilityAnalysis() {
-        try {
-            if (board == null || probabilityGrid == null) return;
+    private void scheduleWakeUp() {
+        handler.removeCallbacks(timerCallback);
+        if (!timers.isEmpty()) {
+            handler.postAtTime(timerCallback, timers.nextDeadline());
+        }
+    }
 
-            int rows = board.getRows();
-            int cols = board.getCols();
-            int totalBugs = board.getTotalBugs();
-            int flaggedCount = board.getFlaggedCells();
-            int revealedCount = 0;
-
-            // Count revealed cells
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    if (board.getCell(r, c).isRevealed()) {
-                        revealedCount++;
-                    }
+    private void endEffect(SuperpowerType type) {
+        try {
+            if (type == SuperpowerType.FREEZE) {
+                freezeActive = false;
+            } else if (type == SuperpowerType.XRAY) {
+                xrayActive = false;
+                xrayRevealedCells.clear();
+                if (boardView != null) {
+                    boardView.invalidate();
                 }
             }
+            if (listener != null) {
+                listener.onSuperpowerDeactivated(type);
+            }
+        } catch (Exception e) {
+            // Deactivation callback failed - not critical
+        }
+    }
 
-            int unrevealedCount = (rows * cols) - revealedCount;
-            int remainingBugs = totalBugs - flaggedCount;
-
-            // Base probability for unrevealed cells
-            double baseProbability = unrevealedCount > 0 ? (double) remainingBugs / unrevealedCount : 0;
-
-            // Calculate probabilities with simple logic
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    Cell cell = board.getCell(r, c);
-
-                    if (cell.isRevealed()) {
-                        probabilityGrid[r][c] = cell.hasBug() ? 1.0 : 0.0;
-                        safetyScores[r][c] = cell.hasBug() ? 0 : 100;
-                    } else if (cell.isFlagged()) {
-                        probabilityGrid[r][c] = 1.0; // Assume flagged cells have bugs
-                        safetyScores[r][c] = 0;
-                    } else {
-                        probabilityGrid[r][c] = baseProbability;
-                        safetyScores[r][c] = (int) ((1.0 - baseProbability) * 100);
-                    }
-                }
+    private void dispatchTransition(SuperpowerType type, Transition transition) {
+        for (int i = 0; i < cooldownListeners.size(); i++) {
+            try {
+                cooldownListeners.get(i).onSuperpowerTransition(type, transition);
+            } catch (Exception e) {
+                // Listener failed - keep notifying the others
             }
+        }
+    }
+
+    /**
+     * Subscribe to the shared analysis instead of computing probabilities here
+     */
+    public void attachAnalysis(AnalysisPipeline pipeline) {
+        detachAnalysis();
+        analysisPipeline = pipeline;
+        if (pipeline != null) {
+            pipeline.getResults().observeForever(analysisObserver);
+        }
+    }
+
+    public void detachAnalysis() {
+        if (analysisPipeline != null) {
+            analysisPipeline.getResults().removeObserver(analysisObserver);
+            analysisPipeline = null;
+        }
+    }
+
+    private void onAnalysisResult(AnalysisPipeline.AnalysisResult result) {
+        try {
+            if (result == null || analysisPipeline == null || result.game != analysisPipeline.getGame()) return;
 
             if (listener != null) {
-                listener.onMathematicalAnalysisUpdate(probabilityGrid);
+                listener.onMathematicalAnalysisUpdate(result.probabilityGrid);
+            }
+        } catch (Exception e) {
+            // Analysis update failed - not critical
+        }
+    }
+
+    /**
+     * Ask the shared analysis to pick up board changes made by a superpower
+     */
+    public void updateProbabilityAnalysis() {
+        try {
+            if (board != null && analysisPipeline != null) {
+                analysisPipeline.submit(board);
             }
         } catch (Exception e) {
             // Probability analysis failed - not critical
@@ -170,18 +237,11 @@ public class SuperpowerManager {
      */
     public boolean activateFreeze() {
         try {
-            if (!canUseFreeze()) return false;
+            if (!rules.useFreeze(now())) return false;
 
             freezeActive = true;
-            lastFreezeUse = System.currentTimeMillis();
 
-            // Deactivate after duration
-            handler.postDelayed(() -> {
-                freezeActive = false;
-                if (listener != null) {
-                    listener.onSuperpowerDeactivated(SuperpowerType.FREEZE);
-                }
-            }, FREEZE_DURATION);
+            startTimers(SuperpowerType.FREEZE, SuperpowerRules.FREEZE_DURATION);
 
             if (listener != null) {
                 listener.onSuperpowerActivated(SuperpowerType.FREEZE);
@@ -198,33 +258,19 @@ public class SuperpowerManager {
      */
     public boolean activateXRay(int centerRow, int centerCol) {
         try {
-            if (!canUseXRay()) return false;
+            if (!rules.useXRay(now())) return false;
 
             xrayActive = true;
-            lastXrayUse = System.currentTimeMillis();
             xrayRevealedCells.clear();
 
             // Select up to 3 adjacent cells to reveal
-            List<Cell> neighbors = board.getNeighbors(centerRow, centerCol);
-            int revealed = 0;
-            for (Cell neighbor : neighbors) {
-                if (!neighbor.isRevealed() && !neighbor.isFlagged() && revealed < 3) {
-                    xrayRevealedCells.add(neighbor);
-                    revealed++;
-                }
+            int cols = board.getCols();
+            int count = SuperpowerRules.findXRayCells(board, board.getNeighborTable(), centerRow, centerCol, xrayTargets);
+            for (int i = 0; i < count; i++) {
+                xrayRevealedCells.add(board.getCell(xrayTargets[i] / cols, xrayTargets[i] % cols));
             }
 
-            // Deactivate after duration
-            handler.postDelayed(() -> {
-                xrayActive = false;
-                xrayRevealedCells.clear();
-                if (boardView != null) {
-                    boardView.invalidate();
-                }
-                if (listener != null) {
-                    listener.onSuperpowerDeactivated(SuperpowerType.XRAY);
-                }
-            }, XRAY_DURATION);
+            startTimers(SuperpowerType.XRAY, SuperpowerRules.XRAY_DURATION);
 
             if (listener != null) {
                 listener.onSuperpowerActivated(SuperpowerType.XRAY);
@@ -241,15 +287,15 @@ public class SuperpowerManager {
      */
     public boolean activateSonar(int centerRow, int centerCol) {
         try {
-            if (!canUseSonar()) return false;
-
-            lastSonarUse = System.currentTimeMillis();
+            if (!rules.useSonar(now())) return false;
 
             // Calculate mine count in 5x5 area
             int mineCount = calculateSonarReading(centerRow, centerCol);
 
             // Show result to user (implementation depends on UI)
 
+            startTimers(SuperpowerType.SONAR, 0);
+
             if (listener != null) {
                 listener.onSuperpowerActivated(SuperpowerType.SONAR);
             }
@@ -265,21 +311,8 @@ public class SuperpowerManager {
      */
     private int calculateSonarReading(int centerRow, int centerCol) {
         try {
-            int mineCount = 0;
-
             // Check 5x5 area around center
-            for (int r = centerRow - 2; r <= centerRow + 2; r++) {
-                for (int c = centerCol - 2; c <= centerCol + 2; c++) {
-                    if (r >= 0 && r < board.getRows() && c >= 0 && c < board.getCols()) {
-                        Cell cell = board.getCell(r, c);
-                        if (cell.hasBug()) {
-                            mineCount++;
-                        }
-                    }
-                }
-            }
-
-            return mineCount;
+            return SuperpowerRules.sonarReading(board, centerRow, centerCol);
         } catch (Exception e) {
             return 0;
         }
@@ -290,20 +323,18 @@ public class SuperpowerManager {
      */
     public boolean activateLightning() {
         try {
-            if (!canUseLightning()) return false;
-
-            lastLightningUse = System.currentTimeMillis();
+            if (!rules.useLightning(now())) return false;
 
             // Find safest cell
-            PointF safestCell = findSafestCell();
+            int safestCell = findSafestCell();
 
-            if (safestCell != null) {
+            if (safestCell >= 0) {
                 // Auto-reveal the safest cell after short delay
                 handler.postDelayed(() -> {
                     try {
-                        board.revealCell((int) safestCell.x, (int) safestCell.y);
+                        board.revealCell(safestCell / board.getCols(), safestCell % board.getCols());
                         if (boardView != null) {
-                            boardView.invalidate();
+                            boardView.refreshChangedCells();
                         }
                         updateProbabilityAnalysis();
                     } catch (Exception e) {
@@ -312,6 +343,8 @@ public class SuperpowerManager {
                 }, 500);
             }
 
+            startTimers(SuperpowerType.LIGHTNING, 0);
+
             if (listener != null) {
                 listener.onSuperpowerActivated(SuperpowerType.LIGHTNING);
             }
@@ -323,32 +356,22 @@ public class SuperpowerManager {
     }
 
     /**
-     * Find safest cell using simple analysis
+     * Find safest cell using the shared analysis (first hidden cell if none is available)
      */
-    private PointF findSafestCell() {
+    private int findSafestCell() {
         try {
-            if (probabilityGrid == null) return null;
-
-            double minRisk = 1.0;
-            PointF safestCell = null;
-
-            for (int r = 0; r < board.getRows(); r++) {
-                for (int c = 0; c < board.getCols(); c++) {
-                    Cell cell = board.getCell(r, c);
-
-                    if (!cell.isRevealed() && !cell.isFlagged()) {
-                        double risk = probabilityGrid[r][c];
-                        if (risk < minRisk) {
-                            minRisk = risk;
-                            safestCell = new PointF(r, c);
-                        }
-                    }
+            // The analysis ranks the cells as it goes; its pick stands unless the board moved on
+            AnalysisPipeline.AnalysisResult result = analysisPipeline != null ? analysisPipeline.getLatest() : null;
+            if (result != null && result.game == analysisPipeline.getGame() && result.safestCell >= 0) {
+                int row = result.safestCell / board.getCols();
+                int col = result.safestCell % board.getCols();
+                if (!board.isRevealed(row, col) && !board.isFlagged(row, col)) {
+                    return result.safestCell;
                 }
             }
-
-            return safestCell;
+            return SuperpowerRules.findSafestCell(board, getProbabilityGrid());
         } catch (Exception e) {
-            return null;
+            return -1;
         }
     }
 
@@ -357,10 +380,9 @@ public class SuperpowerManager {
      */
     public boolean activateShield() {
         try {
-            if (!canUseShield()) return false;
+            if (!rules.useShield()) return false;
 
-            shieldActive = true;
-            shieldUsed = true;
+            startTimers(SuperpowerType.SHIELD, 0);
 
             if (listener != null) {
                 listener.onSuperpowerActivated(SuperpowerType.SHIELD);
@@ -377,27 +399,47 @@ public class SuperpowerManager {
      */
     public boolean activateSmartSweep() {
         try {
-            if (!canUseSmartSweep()) return false;
+            if (!rules.useSmartSweep(now())) return false;
 
-            lastSmartSweepUse = System.currentTimeMillis();
+            // Deduce from the revealed numbers alone; the player's flags may be wrong, so
+            // they are hidden from the engine and every deduction holds whatever they are
+            deductions.deduce(unflaggedBoard);
 
-            // Find cells where we can automatically flag mines
-            List<PointF> autoFlags = findAutoFlagCells();
-
-            // Apply flags
-            for (PointF pos : autoFlags) {
+            // Flag the bugs and reveal the safe cells this sweep found; earlier sweeps
+            // already acted on theirs
+            int cols = board.getCols();
+            for (int i = 0; i < deductions.getMineCount(); i++) {
+                int index = deductions.getMine(i);
+                int row = index / cols;
+                int col = index % cols;
                 try {
-                    board.toggleFlag((int) pos.x, (int) pos.y);
+                    if (!board.isRevealed(row, col) && !board.isFlagged(row, col)) {
+                        board.toggleFlag(row, col);
+                    }
                 } catch (Exception e) {
                     // Flag failed - continue with others
                 }
             }
+            for (int i = 0; i < deductions.getSafeCount(); i++) {
+                int index = deductions.getSafe(i);
+                int row = index / cols;
+                int col = index % cols;
+                try {
+                    if (!board.isRevealed(row, col) && !board.isFlagged(row, col)) {
+                        board.revealCell(row, col);
+                    }
+                } catch (Exception e) {
+                    // Reveal failed - continue with others
+                }
+            }
 
             if (boardView != null) {
-                boardView.invalidate();
+                boardView.refreshChangedCells();
             }
             updateProbabilityAnalysis();
 
+            startTimers(SuperpowerType.SMART_SWEEP, 0);
+
             if (listener != null) {
                 listener.onSuperpowerActivated(SuperpowerType.SMART_SWEEP);
             }
@@ -408,61 +450,15 @@ public class SuperpowerManager {
         }
     }
 
-    /**
-     * Find cells that can be automatically flagged
-     */
-    private List<PointF> findAutoFlagCells() {
-        List<PointF> autoFlags = new ArrayList<>();
-
-        try {
-            for (int r = 0; r < board.getRows(); r++) {
-                for (int c = 0; c < board.getCols(); c++) {
-                    Cell cell = board.getCell(r, c);
-
-                    if (cell.isRevealed() && !cell.hasBug()) {
-                        int requiredBugs = cell.getAdjacentBugs();
-                        int currentFlags = 0;
-                        List<Cell> unrevealedNeighbors = new ArrayList<>();
-
-                        // Count current flags and unrevealed neighbors
-                        List<Cell> neighbors = board.getNeighbors(r, c);
-                        for (Cell neighbor : neighbors) {
-                            if (neighbor.isFlagged()) {
-                                currentFlags++;
-                            } else if (!neighbor.isRevealed()) {
-                                unrevealedNeighbors.add(neighbor);
-                            }
-                        }
-
-                        // If unrevealed count equals remaining bugs needed, flag them all
-                        int remainingBugs = requiredBugs - currentFlags;
-                        if (remainingBugs > 0 && unrevealedNeighbors.size() == remainingBugs) {
-                            for (Cell neighbor : unrevealedNeighbors) {
-                                if (!neighbor.isFlagged()) {
-                                    autoFlags.add(new PointF(neighbor.getRow(), neighbor.getCol()));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // Auto-flag search failed
-        }
-
-        return autoFlags;
-    }
-
     /**
      * Handle mine hit when shield is active
      */
     public boolean handleMineHitWithShield() {
-        if (shieldActive) {
-            shieldActive = false;
-
+        if (rules.absorbHit()) {
             if (listener != null) {
                 listener.onSuperpowerDeactivated(SuperpowerType.SHIELD);
             }
+            dispatchTransition(SuperpowerType.SHIELD, Transition.EXPIRED);
 
             return true; // Mine hit absorbed
         }
@@ -470,56 +466,61 @@ public class SuperpowerManager {
     }
 
     // Cooldown check methods
-    public boolean canUseFreeze() {
-        return System.currentTimeMillis() - lastFreezeUse >= FREEZE_COOLDOWN;
-    }
-
-    public boolean canUseXRay() {
-        return System.currentTimeMillis() - lastXrayUse >= XRAY_COOLDOWN;
-    }
-
-    public boolean canUseSonar() {
-        return System.currentTimeMillis() - lastSonarUse >= SONAR_COOLDOWN;
-    }
-
-    public boolean canUseLightning() {
-        return System.currentTimeMillis() - lastLightningUse >= LIGHTNING_COOLDOWN;
-    }
-
-    public boolean canUseShield() {
-        return !shieldUsed;
-    }
-
-    public boolean canUseSmartSweep() {
-        return System.currentTimeMillis() - lastSmartSweepUse >= SMART_SWEEP_COOLDOWN;
-    }
+    public boolean canUseFreeze() { return rules.canUseFreeze(now()); }
+    public boolean canUseXRay() { return rules.canUseXRay(now()); }
+    public boolean canUseSonar() { return rules.canUseSonar(now()); }
+    public boolean canUseLightning() { return rules.canUseLightning(now()); }
+    public boolean canUseShield() { return rules.canUseShield(); }
+    public boolean canUseSmartSweep() { return rules.canUseSmartSweep(now()); }
 
     // Getters for current state
     public boolean isFreezeActive() { return freezeActive; }
     public boolean isXRayActive() { return xrayActive; }
-    public boolean isShieldActive() { return shieldActive; }
+    public boolean isShieldActive() { return rules.isShieldActive(); }
     public List<Cell> getXRayRevealedCells() { return xrayRevealedCells; }
-    public double[][] getProbabilityGrid() { return probabilityGrid; }
 
-    // Remaining cooldown methods
-    public long getRemainingFreezeCooldown() {
-        return Math.max(0, FREEZE_COOLDOWN - (System.currentTimeMillis() - lastFreezeUse));
+    /**
+     * Probability grid of the latest shared analysis, or null if none is available
+     */
+    public double[][] getProbabilityGrid() {
+        AnalysisPipeline.AnalysisResult result = analysisPipeline != null ? analysisPipeline.getLatest() : null;
+        return result != null ? result.probabilityGrid : null;
     }
 
-    public long getRemainingXRayCooldown() {
-        return Math.max(0, XRAY_COOLDOWN - (System.currentTimeMillis() - lastXrayUse));
-    }
+    // Remaining cooldown methods
+    public long getRemainingFreezeCooldown() { return rules.getRemainingFreezeCooldown(now()); }
+    public long getRemainingXRayCooldown() { return rules.getRemainingXRayCooldown(now()); }
+    public long getRemainingSonarCooldown() { return rules.getRemainingSonarCooldown(now()); }
+    public long getRemainingLightningCooldown() { return rules.getRemainingLightningCooldown(now()); }
+    public long getRemainingSmartSweepCooldown() { return rules.getRemainingSmartSweepCooldown(now()); }
 
-    public long getRemainingSonarCooldown() {
-        return Math.max(0, SONAR_COOLDOWN - (System.currentTimeMillis() - lastSonarUse));
+    /**
+     * Full cooldown of a power in milliseconds; 0 for the shield, which is one per game
+     */
+    public long getCooldownDuration(SuperpowerType type) {
+        switch (type) {
+            case FREEZE: return SuperpowerRules.FREEZE_COOLDOWN;
+            case XRAY: return SuperpowerRules.XRAY_COOLDOWN;
+            case SONAR: return SuperpowerRules.SONAR_COOLDOWN;
+            case LIGHTNING: return SuperpowerRules.LIGHTNING_COOLDOWN;
+            case SMART_SWEEP: return SuperpowerRules.SMART_SWEEP_COOLDOWN;
+            default: return SuperpowerRules.SHIELD_COOLDOWN;
+        }
     }
 
-    public long getRemainingLightningCooldown() {
-        return Math.max(0, LIGHTNING_COOLDOWN - (System.currentTimeMillis() - lastLightningUse));
+    public long getRemainingCooldown(SuperpowerType type) {
+        switch (type) {
+            case FREEZE: return getRemainingFreezeCooldown();
+            case XRAY: return getRemainingXRayCooldown();
+            case SONAR: return getRemainingSonarCooldown();
+            case LIGHTNING: return getRemainingLightningCooldown();
+            case SMART_SWEEP: return getRemainingSmartSweepCooldown();
+            default: return 0;
+        }
     }
 
-    public long getRemainingSmartSweepCooldown() {
-        return Math.max(0, SMART_SWEEP_COOLDOWN - (System.currentTimeMillis() - lastSmartSweepUse));
+    public boolean canUse(SuperpowerType type) {
+        return type == SuperpowerType.SHIELD ? canUseShield() : getRemainingCooldown(type) == 0;
     }
 
     /**
@@ -527,20 +528,26 @@ public class SuperpowerManager {
      */
     public void reset() {
         try {
-            lastFreezeUse = 0;
-            lastXrayUse = 0;
-            lastSonarUse = 0;
-            lastLightningUse = 0;
-            lastSmartSweepUse = 0;
-            shieldUsed = false;
-            shieldActive = false;
+            rules.reset();
             freezeActive = false;
             xrayActive = false;
             xrayRevealedCells.clear();
-
-            initializeMathematicalAnalysis();
+            timers.clear();
+            handler.removeCallbacks(timerCallback);
+            for (SuperpowerType type : TYPES) {
+                dispatchTransition(type, Transition.READY);
+            }
         } catch (Exception e) {
             // Reset failed - not critical
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stop the timers and drop the cooldown listeners when the game screen goes away
+     */
+    public void release() {
+        timers.clear();
+        handler.removeCallbacks(timerCallback);
+        cooldownListeners.clear();
+    }
+}
\ No newline at end of file
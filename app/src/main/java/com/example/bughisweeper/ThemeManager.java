@@ -4,19 +4,29 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.res.Resources;
 import android.graphics.drawable.Drawable;
+import android.util.Log;
 import androidx.annotation.ColorRes;
 import androidx.annotation.DrawableRes;
+import androidx.annotation.StyleRes;
 import androidx.appcompat.app.AppCompatDelegate;
 import androidx.core.content.ContextCompat;
 
 import com.example.bughisweeper.R;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Manages the themes for the Bughisweeper game.
  * Handles theme switching and provides themed resources.
+ * Each theme's resources are resolved once into an immutable Palette, looked up through
+ * R constants instead of by name, and the current palette is swapped as a whole on
+ * setTheme.
  */
 public class ThemeManager {
 
+    private static final String TAG = "ThemeManager";
+
     // Theme constants
     public static final String THEME_CLASSIC = "classic";
     public static final String THEME_DARK = "dark";
@@ -31,9 +41,19 @@ public class ThemeManager {
     // Default theme
     private static final String DEFAULT_THEME = THEME_CLASSIC;
 
+    // Color types, in the order of a palette's colors
+    private static final String[] COLOR_TYPES = {
+            "primary", "primary_dark", "accent", "background",
+            "cell_revealed", "cell_unrevealed", "bug", "flag"
+    };
+
     private final Context context;
     private final SharedPreferences prefs;
-    private String currentTheme;
+
+    // Palettes built so far, and the current theme's, which also names the current theme so
+    // both change in one write
+    private final ConcurrentMap<String, Palette> palettes = new ConcurrentHashMap<>();
+    private volatile Palette palette;
 
     // Singleton instance
     private static ThemeManager instance;
@@ -57,7 +77,43 @@ public class ThemeManager {
     private ThemeManager(Context context) {
         this.context = context;
         this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        this.currentTheme = prefs.getString(PREF_THEME, DEFAULT_THEME);
+        this.palette = getPalette(prefs.getString(PREF_THEME, DEFAULT_THEME));
+    }
+
+    /**
+     * Build the palettes of every theme on a background thread, so a later theme switch
+     * finds its palette ready
+     */
+    public void preloadPalettes() {
+        Thread thread = new Thread(() -> {
+            for (String theme : getAvailableThemes()) {
+                getPalette(theme);
+            }
+        }, "bughis-theme-palettes");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Resolved resources of the current theme
+     */
+    public Palette getPalette() {
+        return palette;
+    }
+
+    /**
+     * Resolved resources of a theme, built on first use
+     */
+    public Palette getPalette(String themeName) {
+        if (!isValidTheme(themeName)) {
+            themeName = DEFAULT_THEME;
+        }
+        Palette cached = palettes.get(themeName);
+        if (cached != null) return cached;
+
+        Palette built = new Palette(context, themeName);
+        Palette raced = palettes.putIfAbsent(themeName, built);
+        return raced != null ? raced : built;
     }
 
     /**
@@ -65,7 +121,7 @@ public class ThemeManager {
      * @return Current theme name
      */
     public String getCurrentTheme() {
-        return currentTheme;
+        return palette.theme;
     }
 
     /**
@@ -77,7 +133,7 @@ public class ThemeManager {
             themeName = DEFAULT_THEME;
         }
 
-        currentTheme = themeName;
+        palette = getPalette(themeName);
 
         // Save to preferences
         prefs.edit().putString(PREF_THEME, themeName).apply();
@@ -95,24 +151,7 @@ public class ThemeManager {
      * @param context The activity context
      */
     public void applyTheme(Context context) {
-        switch (currentTheme) {
-            case THEME_DARK:
-                context.setTheme(R.style.Theme_Bughisweeper_Dark);
-                break;
-            case THEME_FOREST:
-                context.setTheme(R.style.Theme_Bughisweeper_Forest);
-                break;
-            case THEME_OCEAN:
-                context.setTheme(R.style.Theme_Bughisweeper_Ocean);
-                break;
-            case THEME_SPACE:
-                context.setTheme(R.style.Theme_Bughisweeper_Space);
-                break;
-            case THEME_CLASSIC:
-            default:
-                context.setTheme(R.style.Theme_Bughisweeper_Classic);
-                break;
-        }
+        context.setTheme(palette.styleRes);
     }
 
     /**
@@ -170,49 +209,47 @@ public class ThemeManager {
      */
     @ColorRes
     public int getThemeColorRes(String colorType) {
-        String prefix = currentTheme + "_";
-
-        switch (colorType) {
-            case "primary":
-                return getResourceId("color", prefix + "primary");
-            case "primary_dark":
-                return getResourceId("color", prefix + "primary_dark");
-            case "accent":
-                return getResourceId("color", prefix + "accent");
-            case "background":
-                return getResourceId("color", prefix + "background");
-            case "cell_revealed":
-                return getResourceId("color", prefix + "cell_revealed");
-            case "cell_unrevealed":
-                return getResourceId("color", prefix + "cell_unrevealed");
-            case "bug":
-                return getResourceId("color", prefix + "bug");
-            case "flag":
-                return getResourceId("color", prefix + "flag");
-            default:
-                // Fallback to classic theme
-                return getResourceId("color", "classic_" + colorType);
+        int type = colorTypeIndex(colorType);
+        if (type >= 0) {
+            return palette.colorRes[type];
         }
+        // Not part of a palette - fall back to the classic color of that name
+        return getResourceId("color", "classic_" + colorType);
     }
 
     /**
      * Get a drawable resource from the current theme
      * @param drawableType Type of drawable to get (e.g., "bug", "flag")
-     * @return Drawable resource ID
+     * @return Drawable resource ID, or 0 if the theme has none
      */
     @DrawableRes
     public int getThemeDrawableRes(String drawableType) {
-        return getResourceId("drawable", drawableType + "_" + currentTheme);
+        switch (drawableType) {
+            case "bug":
+                return palette.bugDrawableRes;
+            case "flag":
+                return palette.flagDrawableRes;
+            default:
+                return getResourceId("drawable", drawableType + "_" + palette.theme);
+        }
     }
 
     /**
      * Get a themed drawable
      * @param drawableType Type of drawable to get
-     * @return Drawable object
+     * @return A new drawable instance, or null if the theme has none
      */
     public Drawable getThemeDrawable(String drawableType) {
-        int resId = getThemeDrawableRes(drawableType);
-        return ContextCompat.getDrawable(context, resId);
+        Palette current = palette;
+        switch (drawableType) {
+            case "bug":
+                return current.newBugDrawable();
+            case "flag":
+                return current.newFlagDrawable();
+            default:
+                int resId = getThemeDrawableRes(drawableType);
+                return resId != 0 ? ContextCompat.getDrawable(context, resId) : null;
+        }
     }
 
     /**
@@ -221,12 +258,23 @@ public class ThemeManager {
      * @return Color int value
      */
     public int getThemeColor(String colorType) {
-        int resId = getThemeColorRes(colorType);
-        return ContextCompat.getColor(context, resId);
+        int type = colorTypeIndex(colorType);
+        if (type >= 0) {
+            return palette.colors[type];
+        }
+        return ContextCompat.getColor(context, getThemeColorRes(colorType));
+    }
+
+    private static int colorTypeIndex(String colorType) {
+        for (int i = 0; i < COLOR_TYPES.length; i++) {
+            if (COLOR_TYPES[i].equals(colorType)) return i;
+        }
+        return -1;
     }
 
     /**
-     * Get a resource ID by name and type
+     * Get a resource ID by name and type. Reflective, so only used for names outside the
+     * palettes.
      * @param resType Resource type (e.g., "drawable", "color")
      * @param resName Resource name
      * @return Resource ID
@@ -235,4 +283,127 @@ public class ThemeManager {
         Resources res = context.getResources();
         return res.getIdentifier(resName, resType, context.getPackageName());
     }
+
+    /**
+     * The resolved resources of one theme. Immutable once built, so it can be built on any
+     * thread and shared; drawables are kept as constant states and every caller gets its
+     * own instance.
+     */
+    public static final class Palette {
+        public final String theme;
+        @StyleRes public final int styleRes;
+
+        // Indexed like COLOR_TYPES
+        private final int[] colorRes;
+        private final int[] colors;
+
+        @DrawableRes public final int bugDrawableRes;
+        @DrawableRes public final int flagDrawableRes;
+        private final Drawable.ConstantState bugDrawable;
+        private final Drawable.ConstantState flagDrawable;
+
+        private Palette(Context context, String theme) {
+            this.theme = theme;
+            this.styleRes = styleFor(theme);
+            this.colorRes = colorsFor(theme);
+            this.colors = new int[colorRes.length];
+            for (int i = 0; i < colorRes.length; i++) {
+                colors[i] = ContextCompat.getColor(context, colorRes[i]);
+            }
+
+            // Only the classic theme ships its own bug and flag drawables
+            boolean classic = THEME_CLASSIC.equals(theme);
+            this.bugDrawableRes = classic ? R.drawable.bug_classic : 0;
+            this.flagDrawableRes = classic ? R.drawable.flag_classic : 0;
+            this.bugDrawable = loadDrawable(context, bugDrawableRes);
+            this.flagDrawable = loadDrawable(context, flagDrawableRes);
+        }
+
+        public int getPrimaryColor() { return colors[0]; }
+        public int getPrimaryDarkColor() { return colors[1]; }
+        public int getAccentColor() { return colors[2]; }
+        public int getBackgroundColor() { return colors[3]; }
+        public int getCellRevealedColor() { return colors[4]; }
+        public int getCellUnrevealedColor() { return colors[5]; }
+        public int getBugColor() { return colors[6]; }
+        public int getFlagColor() { return colors[7]; }
+
+        /**
+         * @return A new bug drawable, or null if the theme has none
+         */
+        public Drawable newBugDrawable() {
+            return bugDrawable != null ? bugDrawable.newDrawable() : null;
+        }
+
+        /**
+         * @return A new flag drawable, or null if the theme has none
+         */
+        public Drawable newFlagDrawable() {
+            return flagDrawable != null ? flagDrawable.newDrawable() : null;
+        }
+
+        private static Drawable.ConstantState loadDrawable(Context context, @DrawableRes int resId) {
+            if (resId == 0) return null;
+            try {
+                Drawable drawable = ContextCompat.getDrawable(context, resId);
+                return drawable != null ? drawable.getConstantState() : null;
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading theme drawable", e);
+                return null;
+            }
+        }
+
+        @StyleRes
+        private static int styleFor(String theme) {
+            switch (theme) {
+                case THEME_DARK:
+                    return R.style.Theme_Bughisweeper_Dark;
+                case THEME_FOREST:
+                    return R.style.Theme_Bughisweeper_Forest;
+                case THEME_OCEAN:
+                    return R.style.Theme_Bughisweeper_Ocean;
+                case THEME_SPACE:
+                    return R.style.Theme_Bughisweeper_Space;
+                case THEME_CLASSIC:
+                default:
+                    return R.style.Theme_Bughisweeper_Classic;
+            }
+        }
+
+        private static int[] colorsFor(String theme) {
+            switch (theme) {
+                case THEME_DARK:
+                    return new int[] {
+                            R.color.dark_primary, R.color.dark_primary_dark, R.color.dark_accent,
+                            R.color.dark_background, R.color.dark_cell_revealed,
+                            R.color.dark_cell_unrevealed, R.color.dark_bug, R.color.dark_flag
+                    };
+                case THEME_FOREST:
+                    return new int[] {
+                            R.color.forest_primary, R.color.forest_primary_dark, R.color.forest_accent,
+                            R.color.forest_background, R.color.forest_cell_revealed,
+                            R.color.forest_cell_unrevealed, R.color.forest_bug, R.color.forest_flag
+                    };
+                case THEME_OCEAN:
+                    return new int[] {
+                            R.color.ocean_primary, R.color.ocean_primary_dark, R.color.ocean_accent,
+                            R.color.ocean_background, R.color.ocean_cell_revealed,
+                            R.color.ocean_cell_unrevealed, R.color.ocean_bug, R.color.ocean_flag
+                    };
+                case THEME_SPACE:
+                    return new int[] {
+                            R.color.space_primary, R.color.space_primary_dark, R.color.space_accent,
+                            R.color.space_background, R.color.space_cell_revealed,
+                            R.color.space_cell_unrevealed, R.color.space_bug, R.color.space_flag
+                    };
+                case THEME_CLASSIC:
+                default:
+                    return new int[] {
+                            R.color.classic_primary, R.color.classic_primary_dark, R.color.classic_accent,
+                            R.color.classic_background, R.color.classic_cell_revealed,
+                            R.color.classic_cell_unrevealed, R.color.classic_bug, R.color.classic_flag
+                    };
+            }
+        }
+    }
 }
\ No newline at end of file
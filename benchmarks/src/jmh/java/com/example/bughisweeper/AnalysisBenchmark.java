@@ -0,0 +1,131 @@
+package com.example.bughisweeper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * MathAnalyzer on a game in progress (see BenchmarkBoards.midGame): the full analysis a new
+ * game or a journal restart triggers, the incremental update after a single move, and the
+ * queries the UI makes on every result, including a fixed-size Monte Carlo win estimate
+ */
+@State(Scope.Thread)
+public class AnalysisBenchmark {
+
+    @Param({"easy", "medium", "hard", "custom50"})
+    public String difficulty;
+
+    // Playouts per win estimate
+    private static final int WIN_SAMPLES = 64;
+
+    // Length of a suggestion list
+    private static final int TOP_MOVES = 5;
+    private final int[] topMoves = new int[TOP_MOVES];
+
+    private BughisBoard board;
+    private MathAnalyzer analyzer;
+    private WinProbabilityEstimator estimator;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkBoards.midGame(BenchmarkBoards.difficulty(difficulty), BenchmarkBoards.SEED);
+        analyzer = new MathAnalyzer();
+        analyzer.initializeGame(board);
+        estimator = new WinProbabilityEstimator(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        estimator.shutdown();
+    }
+
+    /**
+     * Full recomputation: solver, information theory, safety, risk and statistics
+     */
+    @Benchmark
+    public MathAnalyzer fullAnalysis() {
+        analyzer.initializeGame(board);
+        return analyzer;
+    }
+
+    /**
+     * Incremental update after one flag change on the frontier
+     */
+    @Benchmark
+    public MathAnalyzer updateCompleteAnalysis(SingleMove move) {
+        move.analyzer.updateCompleteAnalysis();
+        return move.analyzer;
+    }
+
+    @Benchmark
+    public MathAnalyzer.OptimalMove getOptimalMove() {
+        return analyzer.getOptimalMove();
+    }
+
+    /**
+     * Lightning's pick by scanning the grid, against the analyzer's ranking below
+     */
+    @Benchmark
+    public int findSafestCell() {
+        return SuperpowerRules.findSafestCell(board, analyzer.getProbabilityGrid());
+    }
+
+    @Benchmark
+    public int getSafestCell() {
+        return analyzer.getSafestCell();
+    }
+
+    @Benchmark
+    public int[] getBestMoves() {
+        analyzer.getBestMoves(TOP_MOVES, topMoves);
+        return topMoves;
+    }
+
+    @Benchmark
+    public WinProbabilityEstimator.Estimate estimateWinProbability() throws InterruptedException {
+        return estimator.estimate(board, WIN_SAMPLES, 0, BenchmarkBoards.SEED);
+    }
+
+    /**
+     * Own game for the incremental benchmark: every invocation toggles a flag on the first
+     * hidden frontier cell, so each update sees exactly one changed cell
+     */
+    @State(Scope.Thread)
+    public static class SingleMove {
+        private BughisBoard board;
+        private MathAnalyzer analyzer;
+        private int flagRow;
+        private int flagCol;
+
+        @Setup(Level.Trial)
+        public void setUp(AnalysisBenchmark benchmark) {
+            board = BenchmarkBoards.midGame(BenchmarkBoards.difficulty(benchmark.difficulty), BenchmarkBoards.SEED);
+            analyzer = new MathAnalyzer();
+            analyzer.initializeGame(board);
+
+            int cols = board.getCols();
+            NeighborTable neighbors = board.getNeighborTable();
+            for (int index = 0; index < board.getRows() * cols; index++) {
+                if (board.isRevealed(index / cols, index % cols)) continue;
+                int[] offsets = neighbors.offsets(index);
+                for (int k = 0; k < offsets.length; k++) {
+                    int neighbor = index + offsets[k];
+                    if (board.isRevealed(neighbor / cols, neighbor % cols)) {
+                        flagRow = index / cols;
+                        flagCol = index % cols;
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void toggleFlag() {
+            board.toggleFlag(flagRow, flagCol);
+        }
+    }
+}
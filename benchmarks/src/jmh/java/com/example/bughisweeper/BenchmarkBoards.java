@@ -0,0 +1,69 @@
+package com.example.bughisweeper;
+
+import java.util.Random;
+
+/**
+ * Board presets and seeded game states shared by the benchmarks, so every run measures the
+ * same boards
+ */
+final class BenchmarkBoards {
+
+    static final long SEED = 42;
+
+    // The largest board the custom board builder allows
+    static final Difficulty CUSTOM_50 = new Difficulty("custom50", 50, 50, 500);
+
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * Preset by name: easy, medium, hard or custom50
+     */
+    static Difficulty difficulty(String name) {
+        switch (name) {
+            case "easy": return Difficulty.EASY;
+            case "medium": return Difficulty.MEDIUM;
+            case "hard": return Difficulty.HARD;
+            case "custom50": return CUSTOM_50;
+            default: throw new IllegalArgumentException("Unknown difficulty: " + name);
+        }
+    }
+
+    /**
+     * New board of the given implementation: packed (BughisBoard) or bit (BitBoard)
+     */
+    static GameBoard newBoard(String type, int rows, int cols, int bugs, long seed) {
+        Random random = new Random(seed);
+        switch (type) {
+            case "packed": return new BughisBoard(rows, cols, bugs, random);
+            case "bit": return new BitBoard(rows, cols, bugs, random);
+            default: throw new IllegalArgumentException("Unknown board type: " + type);
+        }
+    }
+
+    /**
+     * A game in progress: opened in the center, then played by the hint-button policy for as
+     * long as it found a certainly safe cell. The board is left at the first position that
+     * needs a guess, so the frontier is as large and ambiguous as real play gets.
+     */
+    static BughisBoard midGame(Difficulty difficulty, long seed) {
+        for (long attempt = seed; ; attempt++) {
+            BughisBoard board = new BughisBoard(difficulty.rows, difficulty.cols, difficulty.bugs, new Random(attempt));
+            GameSimulator.AnalyzerStrategy strategy = new GameSimulator.AnalyzerStrategy();
+            int cols = board.getCols();
+
+            strategy.startGame(board);
+            board.revealCell(difficulty.rows / 2, difficulty.cols / 2);
+            while (board.getGameState() == BughisBoard.GameState.PLAYING) {
+                int index = strategy.nextMove(board);
+                if (index < 0 || strategy.isGuess()) break;
+                board.revealCell(index / cols, index % cols);
+            }
+
+            // Seeds whose opening solves the whole board leave nothing to analyze
+            if (board.getGameState() == BughisBoard.GameState.PLAYING) {
+                return board;
+            }
+        }
+    }
+}
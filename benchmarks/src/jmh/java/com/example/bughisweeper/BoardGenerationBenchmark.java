@@ -0,0 +1,40 @@
+package com.example.bughisweeper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Bug placement plus the adjacency count pass that placeBugs runs at the end, from the first
+ * click in the center of the board
+ */
+@State(Scope.Thread)
+public class BoardGenerationBenchmark {
+
+    @Param({"easy", "medium", "hard", "custom50"})
+    public String difficulty;
+
+    @Param({"packed", "bit"})
+    public String board;
+
+    private GameBoard gameBoard;
+    private int clickRow;
+    private int clickCol;
+
+    @Setup
+    public void setUp() {
+        Difficulty preset = BenchmarkBoards.difficulty(difficulty);
+        gameBoard = BenchmarkBoards.newBoard(board, preset.rows, preset.cols, preset.bugs, BenchmarkBoards.SEED);
+        clickRow = preset.rows / 2;
+        clickCol = preset.cols / 2;
+    }
+
+    @Benchmark
+    public GameBoard placeBugs() {
+        gameBoard.reset();
+        gameBoard.placeBugs(clickRow, clickCol);
+        return gameBoard;
+    }
+}
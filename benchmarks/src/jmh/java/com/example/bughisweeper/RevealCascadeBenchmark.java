@@ -0,0 +1,40 @@
+package com.example.bughisweeper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Worst-case reveal: a single bug, so one click in the corner cascades over the whole board.
+ * Each invocation gets a freshly placed board; the setup is excluded from the measurement.
+ */
+@State(Scope.Thread)
+public class RevealCascadeBenchmark {
+
+    @Param({"50", "200"})
+    public int size;
+
+    @Param({"packed", "bit"})
+    public String board;
+
+    private GameBoard gameBoard;
+
+    @Setup(Level.Trial)
+    public void createBoard() {
+        gameBoard = BenchmarkBoards.newBoard(board, size, size, 1, BenchmarkBoards.SEED);
+    }
+
+    @Setup(Level.Invocation)
+    public void placeBugs() {
+        gameBoard.reset();
+        gameBoard.placeBugs(0, 0);
+    }
+
+    @Benchmark
+    public BughisBoard.RevealResult fullBoardCascade() {
+        return gameBoard.revealCell(0, 0);
+    }
+}
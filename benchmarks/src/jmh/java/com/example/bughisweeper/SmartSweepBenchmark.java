@@ -0,0 +1,126 @@
+package com.example.bughisweeper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The Smart Sweep search on a game in progress: the single-number rule Smart Sweep used
+ * before DeductionEngine as a baseline, the DeductionEngine from scratch, and a full
+ * DeductionEngine sweep that flags and reveals until nothing more follows
+ */
+@State(Scope.Thread)
+public class SmartSweepBenchmark {
+
+    @Param({"easy", "medium", "hard", "custom50"})
+    public String difficulty;
+
+    private BughisBoard board;
+    private final List<Integer> autoFlags = new ArrayList<>();
+    private final int[] hiddenNeighbors = new int[8];
+    private final DeductionEngine deductions = new DeductionEngine();
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkBoards.midGame(BenchmarkBoards.difficulty(difficulty), BenchmarkBoards.SEED);
+    }
+
+    /**
+     * The hidden neighbors of every number whose remaining bugs equal its hidden neighbors.
+     * A cell forced by several numbers is listed once per number.
+     */
+    @Benchmark
+    public List<Integer> findAutoFlagCells() {
+        autoFlags.clear();
+        NeighborTable neighbors = board.getNeighborTable();
+        int rows = board.getRows();
+        int cols = board.getCols();
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (!board.isRevealed(r, c) || board.hasBug(r, c)) continue;
+
+                int index = r * cols + c;
+                int[] offsets = neighbors.offsets(index);
+                int flags = 0;
+                int hidden = 0;
+                for (int k = 0; k < offsets.length; k++) {
+                    int neighbor = index + offsets[k];
+                    if (board.isFlagged(neighbor / cols, neighbor % cols)) {
+                        flags++;
+                    } else if (!board.isRevealed(neighbor / cols, neighbor % cols)) {
+                        hiddenNeighbors[hidden++] = neighbor;
+                    }
+                }
+
+                int remainingBugs = board.getAdjacentBugs(r, c) - flags;
+                if (remainingBugs > 0 && hidden == remainingBugs) {
+                    for (int k = 0; k < hidden; k++) {
+                        autoFlags.add(hiddenNeighbors[k]);
+                    }
+                }
+            }
+        }
+        return autoFlags;
+    }
+
+    /**
+     * Every deduction the revealed numbers allow, starting from a full scan
+     */
+    @Benchmark
+    public int deduce() {
+        deductions.reset();
+        return deductions.deduce(board);
+    }
+
+    @Benchmark
+    public int sweep(Replay replay) {
+        return replay.deductions.sweep(replay.board);
+    }
+
+    /**
+     * Own copy of the game for the sweep, which changes the board: every invocation replays
+     * the bug layout and the revealed cells of the benchmark position
+     */
+    @State(Scope.Thread)
+    public static class Replay {
+        private BughisBoard board;
+        private final DeductionEngine deductions = new DeductionEngine();
+        private int[] bugs;
+        private int[] revealed;
+        private int revealedCount;
+
+        @Setup(Level.Trial)
+        public void setUp(SmartSweepBenchmark benchmark) {
+            BughisBoard position = benchmark.board;
+            int rows = position.getRows();
+            int cols = position.getCols();
+            board = new BughisBoard(rows, cols, position.getTotalBugs(), new Random(BenchmarkBoards.SEED));
+            bugs = new int[position.getTotalBugs()];
+            revealed = new int[rows * cols];
+
+            int bugCount = 0;
+            for (int index = 0; index < rows * cols; index++) {
+                if (position.hasBug(index / cols, index % cols)) bugs[bugCount++] = index;
+                if (position.isRevealed(index / cols, index % cols)) revealed[revealedCount++] = index;
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void restore() {
+            int cols = board.getCols();
+            board.reset();
+            board.placeBugs(bugs, bugs.length);
+            for (int i = 0; i < revealedCount; i++) {
+                board.revealCell(revealed[i] / cols, revealed[i] % cols);
+            }
+        }
+    }
+}
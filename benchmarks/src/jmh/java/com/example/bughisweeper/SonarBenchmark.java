@@ -0,0 +1,56 @@
+package com.example.bughisweeper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Sonar readings on a game in progress: scanning the window cell by cell against the
+ * board's region counts, at the Sonar radius and at a wider one, plus a revealed-cell count
+ */
+@State(Scope.Thread)
+public class SonarBenchmark {
+
+    @Param({"easy", "medium", "hard", "custom50"})
+    public String difficulty;
+
+    @Param({"2", "10"})
+    public int radius;
+
+    private BughisBoard board;
+    private ReadableBoard scanned;
+    private int centerRow;
+    private int centerCol;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkBoards.midGame(BenchmarkBoards.difficulty(difficulty), BenchmarkBoards.SEED);
+        scanned = board;
+        centerRow = board.getRows() / 2;
+        centerCol = board.getCols() / 2;
+        board.countBugs(0, 0, 0, 0); // Build the tables outside the measurement
+    }
+
+    @Benchmark
+    public int scanWindow() {
+        int bugs = 0;
+        for (int r = Math.max(0, centerRow - radius); r <= Math.min(scanned.getRows() - 1, centerRow + radius); r++) {
+            for (int c = Math.max(0, centerCol - radius); c <= Math.min(scanned.getCols() - 1, centerCol + radius); c++) {
+                if (scanned.hasBug(r, c)) bugs++;
+            }
+        }
+        return bugs;
+    }
+
+    @Benchmark
+    public int regionCounts() {
+        return SuperpowerRules.sonarReading(board, centerRow, centerCol, radius);
+    }
+
+    @Benchmark
+    public int revealedInWindow() {
+        return board.countRevealed(centerRow - radius, centerCol - radius, centerRow + radius, centerCol + radius);
+    }
+}
@@ -0,0 +1,460 @@
+package com.example.bughisweeper;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Bitplane implementation of GameBoard for stress tests and simulations on very large boards.
+ *
+ * Bugs, revealed and flagged cells are each a long[] bitset with one run of words per row.
+ * Adjacency counts are computed for 64 cells at a time: the eight shifted neighbor planes are
+ * summed with bit-sliced adders into four count planes, so there is no per-cell neighbor loop.
+ * Reveals cascade by bitwise dilation masked by the zero-count plane, spreading a whole run of
+ * empty cells along a row with one carry-propagating add and moving between rows through a
+ * row worklist.
+ */
+public final class BitBoard implements GameBoard {
+
+    private final int rows;
+    private final int cols;
+    private final int totalBugs;
+    private final int words; // Longs per row
+    private final long lastWordMask; // Valid columns of the last word of a row
+
+    // Bit planes, row r occupies words [r * words, (r + 1) * words)
+    private final long[] bugs;
+    private final long[] revealed;
+    private final long[] flagged;
+    private final long[] count0;
+    private final long[] count1;
+    private final long[] count2;
+    private final long[] count3;
+    private final long[] zero; // Safe cells with no adjacent bugs
+
+    // Flood fill work state, reused between reveals
+    private final long[] seeds;
+    private final boolean[] rowQueued;
+    private final int[] rowQueue;
+    private final long[] runMask;
+    private final long[] runSeeds;
+    private final long[] reversedMask;
+    private final long[] reversedSeeds;
+    private final long[] fillUp;
+    private final long[] fillDown;
+    private final long[] spread;
+    private int[] lastRevealed;
+    private int lastRevealedCount;
+
+    private int flaggedCells;
+    private int revealedCells;
+    private int safeCellsRevealed;
+    private boolean bugRevealed;
+    private boolean gameStarted;
+    private BughisBoard.GameState lastState = BughisBoard.GameState.PLAYING;
+    private int openingRadius = BughisBoard.DEFAULT_OPENING_RADIUS;
+    private final Random random;
+    private BughisBoard.OnGameStateChangeListener stateListener;
+
+    // Change journal, see ReadableBoard
+    private int[] changeLog;
+    private int changeCount;
+    private int changeEpoch;
+
+    public BitBoard(int rows, int cols, int totalBugs) {
+        this(rows, cols, totalBugs, new Random());
+    }
+
+    public BitBoard(int rows, int cols, int totalBugs, Random random) {
+        this.rows = rows;
+        this.cols = cols;
+        this.totalBugs = totalBugs;
+        this.random = random;
+        this.words = (cols + 63) >>> 6;
+        this.lastWordMask = (cols & 63) == 0 ? -1L : (1L << (cols & 63)) - 1;
+
+        int size = rows * words;
+        bugs = new long[size];
+        revealed = new long[size];
+        flagged = new long[size];
+        count0 = new long[size];
+        count1 = new long[size];
+        count2 = new long[size];
+        count3 = new long[size];
+        zero = new long[size];
+        seeds = new long[size];
+        rowQueued = new boolean[rows];
+        rowQueue = new int[rows];
+        runMask = new long[words];
+        runSeeds = new long[words];
+        reversedMask = new long[words];
+        reversedSeeds = new long[words];
+        fillUp = new long[words];
+        fillDown = new long[words];
+        spread = new long[words];
+        lastRevealed = new int[Math.max(16, Math.min(rows * cols, 1024))];
+        changeLog = new int[Math.max(16, Math.min(rows * cols, 1024))];
+    }
+
+    public void setOpeningRadius(int radius) {
+        this.openingRadius = Math.max(0, radius);
+    }
+
+    public boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Bug placement and adjacency
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Partial Fisher-Yates shuffle over the cells outside the opening zone, as in BughisBoard
+     */
+    public void placeBugs(int firstClickRow, int firstClickCol) {
+        if (gameStarted) return;
+
+        int cellCount = rows * cols;
+        int radius = openingRadius;
+        while (radius > 0 && cellCount - zoneSize(firstClickRow, firstClickCol, radius) < totalBugs) {
+            radius--;
+        }
+
+        int[] candidates = new int[cellCount];
+        int candidateCount = 0;
+        for (int r = 0; r < rows; r++) {
+            boolean zoneRow = Math.abs(r - firstClickRow) <= radius;
+            for (int c = 0; c < cols; c++) {
+                if (zoneRow && Math.abs(c - firstClickCol) <= radius) continue;
+                candidates[candidateCount++] = r * cols + c;
+            }
+        }
+
+        int bugsToPlace = Math.min(totalBugs, candidateCount);
+        for (int i = 0; i < bugsToPlace; i++) {
+            int j = i + random.nextInt(candidateCount - i);
+            int index = candidates[j];
+            candidates[j] = candidates[i];
+            candidates[i] = index;
+
+            int r = index / cols;
+            int c = index - r * cols;
+            bugs[r * words + (c >>> 6)] |= 1L << c;
+            logChange(index);
+        }
+
+        calculateAdjacentBugs();
+        gameStarted = true;
+    }
+
+    private int zoneSize(int row, int col, int radius) {
+        int height = Math.min(rows - 1, row + radius) - Math.max(0, row - radius) + 1;
+        int width = Math.min(cols - 1, col + radius) - Math.max(0, col - radius) + 1;
+        return Math.max(0, height) * Math.max(0, width);
+    }
+
+    /**
+     * Sum the eight shifted neighbor planes of every row with bit-sliced adders.
+     * count0..count3 hold the binary digits of each cell's count; bug cells keep a count of 0.
+     */
+    private void calculateAdjacentBugs() {
+        long[] inputs = new long[8];
+        for (int r = 0; r < rows; r++) {
+            int base = r * words;
+            for (int w = 0; w < words; w++) {
+                // The up to eight neighbor bits of each of the word's 64 cells
+                int n = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    int nr = r + dr;
+                    if (nr < 0 || nr >= rows) continue;
+                    int nb = nr * words;
+
+                    long center = bugs[nb + w];
+                    inputs[n++] = (center << 1) | (w > 0 ? bugs[nb + w - 1] >>> 63 : 0);
+                    inputs[n++] = (center >>> 1) | (w + 1 < words ? bugs[nb + w + 1] << 63 : 0);
+                    if (dr != 0) inputs[n++] = center;
+                }
+
+                // Ripple-add each one-bit input into a 4-bit counter per column
+                long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                for (int i = 0; i < n; i++) {
+                    long carry0 = s0 & inputs[i];
+                    s0 ^= inputs[i];
+                    long carry1 = s1 & carry0;
+                    s1 ^= carry0;
+                    s3 |= s2 & carry1;
+                    s2 ^= carry1;
+                }
+
+                long safe = ~bugs[base + w] & validMask(w);
+                count0[base + w] = s0 & safe;
+                count1[base + w] = s1 & safe;
+                count2[base + w] = s2 & safe;
+                count3[base + w] = s3 & safe;
+                zero[base + w] = ~(s0 | s1 | s2 | s3) & safe;
+            }
+        }
+    }
+
+    private long validMask(int w) {
+        return w == words - 1 ? lastWordMask : -1L;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Moves
+    // ---------------------------------------------------------------------------------------
+
+    public BughisBoard.RevealResult revealCell(int row, int col) {
+        lastRevealedCount = 0;
+
+        if (!isValidPosition(row, col)) {
+            return BughisBoard.RevealResult.INVALID;
+        }
+        if (isRevealed(row, col) || isFlagged(row, col)) {
+            return BughisBoard.RevealResult.ALREADY_PROCESSED;
+        }
+
+        if (!gameStarted) {
+            placeBugs(row, col);
+        }
+
+        int word = row * words + (col >>> 6);
+        long bit = 1L << col;
+        if ((bugs[word] & bit) != 0) {
+            revealed[word] |= bit;
+            recordReveal(row * cols + col);
+            revealedCells++;
+            bugRevealed = true;
+            lastState = BughisBoard.GameState.PLAYING; // Report every hit, as BughisBoard does
+            dispatchStateChange();
+            return BughisBoard.RevealResult.BUG_HIT;
+        }
+
+        revealed[word] |= bit;
+        recordReveal(row * cols + col);
+        if ((zero[word] & bit) != 0) {
+            seeds[word] |= bit;
+            cascade(row);
+        }
+
+        revealedCells += lastRevealedCount;
+        safeCellsRevealed += lastRevealedCount;
+        dispatchStateChange();
+        return BughisBoard.RevealResult.SAFE;
+    }
+
+    /**
+     * Spread reveals from the seeded zero cells. Each row's seeds are widened to their whole
+     * zero runs, dilated by one column, and the result is revealed in that row and the rows
+     * above and below; newly revealed zero cells become seeds of their own row.
+     */
+    private void cascade(int startRow) {
+        // Ring buffer of rows with pending seeds; a row is queued at most once at a time
+        int head = 0;
+        int queued = 1;
+        rowQueue[0] = startRow;
+        rowQueued[startRow] = true;
+
+        while (queued > 0) {
+            int r = rowQueue[head];
+            head = head + 1 == rows ? 0 : head + 1;
+            queued--;
+            rowQueued[r] = false;
+            int base = r * words;
+
+            // Zero runs through unrevealed, unflagged cells, filled upward and (on the
+            // bit-reversed row) downward from the seeds
+            for (int w = 0; w < words; w++) {
+                long seed = seeds[base + w];
+                long mask = (zero[base + w] & ~revealed[base + w] & ~flagged[base + w]) | seed;
+                runMask[w] = mask;
+                runSeeds[w] = seed;
+                reversedMask[words - 1 - w] = Long.reverse(mask);
+                reversedSeeds[words - 1 - w] = Long.reverse(seed);
+                seeds[base + w] = 0;
+            }
+            fillRuns(runMask, runSeeds, fillUp);
+            fillRuns(reversedMask, reversedSeeds, fillDown);
+            for (int w = 0; w < words; w++) {
+                runMask[w] = fillUp[w] | Long.reverse(fillDown[words - 1 - w]);
+            }
+
+            // One column of dilation around the runs
+            for (int w = 0; w < words; w++) {
+                long run = runMask[w];
+                long west = (run << 1) | (w > 0 ? runMask[w - 1] >>> 63 : 0);
+                long east = (run >>> 1) | (w + 1 < words ? runMask[w + 1] << 63 : 0);
+                spread[w] = (run | west | east) & validMask(w);
+            }
+
+            for (int dr = -1; dr <= 1; dr++) {
+                int nr = r + dr;
+                if (nr < 0 || nr >= rows) continue;
+                // Fresh zero cells of row r itself are inside the runs, already spread
+                if (revealRow(nr, dr != 0) && !rowQueued[nr]) {
+                    rowQueued[nr] = true;
+                    int tail = head + queued;
+                    rowQueue[tail >= rows ? tail - rows : tail] = nr;
+                    queued++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reveal the spread cells of a row
+     * @param seed Whether newly revealed zero cells should become seeds
+     * @return True if new zero cells were seeded in that row
+     */
+    private boolean revealRow(int r, boolean seed) {
+        int base = r * words;
+        boolean seeded = false;
+        for (int w = 0; w < words; w++) {
+            long fresh = spread[w] & ~revealed[base + w] & ~flagged[base + w];
+            if (fresh == 0) continue;
+
+            revealed[base + w] |= fresh;
+            long freshZero = seed ? fresh & zero[base + w] : 0;
+            if (freshZero != 0) {
+                seeds[base + w] |= freshZero;
+                seeded = true;
+            }
+            while (fresh != 0) {
+                recordReveal(r * cols + (w << 6) + Long.numberOfTrailingZeros(fresh));
+                fresh &= fresh - 1;
+            }
+        }
+        return seeded;
+    }
+
+    /**
+     * For every run of ones in mask that contains a seed bit, set the bits from the lowest
+     * seed of the run up to the end of the run. Adding the seeds to the mask (as one
+     * multi-word number) carries through each seeded run and clears it; the seeds themselves
+     * are put back because a second seed in the same run lands on an already cleared bit.
+     * @param seeds Must be a subset of mask
+     */
+    private static void fillRuns(long[] mask, long[] seeds, long[] out) {
+        long carry = 0;
+        for (int w = 0; w < mask.length; w++) {
+            long partial = mask[w] + seeds[w];
+            long carryOut = Long.compareUnsigned(partial, mask[w]) < 0 ? 1 : 0;
+            long sum = partial + carry;
+            if (carry != 0 && sum == 0) carryOut = 1;
+            out[w] = (mask[w] & ~sum) | seeds[w];
+            carry = carryOut;
+        }
+    }
+
+    public void toggleFlag(int row, int col) {
+        if (!isValidPosition(row, col)) return;
+
+        int word = row * words + (col >>> 6);
+        long bit = 1L << col;
+        if ((revealed[word] & bit) != 0) return;
+
+        flagged[word] ^= bit;
+        flaggedCells += (flagged[word] & bit) != 0 ? 1 : -1;
+        logChange(row * cols + col);
+    }
+
+    public BughisBoard.GameState getGameState() {
+        if (safeCellsRevealed >= rows * cols - totalBugs) {
+            return BughisBoard.GameState.WON;
+        }
+        if (bugRevealed) {
+            return BughisBoard.GameState.LOST;
+        }
+        return BughisBoard.GameState.PLAYING;
+    }
+
+    private void dispatchStateChange() {
+        BughisBoard.GameState state = getGameState();
+        if (state == lastState) return;
+
+        lastState = state;
+        if (stateListener != null && state != BughisBoard.GameState.PLAYING) {
+            stateListener.onGameStateChanged(state);
+        }
+    }
+
+    public void setOnGameStateChangeListener(BughisBoard.OnGameStateChangeListener listener) {
+        this.stateListener = listener;
+    }
+
+    public void reset() {
+        Arrays.fill(bugs, 0);
+        Arrays.fill(revealed, 0);
+        Arrays.fill(flagged, 0);
+        Arrays.fill(count0, 0);
+        Arrays.fill(count1, 0);
+        Arrays.fill(count2, 0);
+        Arrays.fill(count3, 0);
+        Arrays.fill(zero, 0);
+        flaggedCells = 0;
+        revealedCells = 0;
+        safeCellsRevealed = 0;
+        bugRevealed = false;
+        gameStarted = false;
+        lastState = BughisBoard.GameState.PLAYING;
+        lastRevealedCount = 0;
+        changeEpoch++;
+        changeCount = 0;
+    }
+
+    private void recordReveal(int index) {
+        if (lastRevealedCount == lastRevealed.length) {
+            lastRevealed = Arrays.copyOf(lastRevealed, Math.min(rows * cols, lastRevealed.length * 2));
+        }
+        lastRevealed[lastRevealedCount++] = index;
+        logChange(index);
+    }
+
+    private void logChange(int index) {
+        if (changeCount == changeLog.length) {
+            int limit = Math.max(16, rows * cols);
+            if (changeLog.length >= limit) {
+                // Readers this far behind resynchronize from scratch, as with PackedCellStore
+                changeEpoch++;
+                changeCount = 0;
+            } else {
+                changeLog = Arrays.copyOf(changeLog, Math.min(limit, changeLog.length * 2));
+            }
+        }
+        changeLog[changeCount++] = index;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Accessors (positions must be valid)
+    // ---------------------------------------------------------------------------------------
+
+    private boolean test(long[] plane, int row, int col) {
+        return (plane[row * words + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    public boolean isRevealed(int row, int col) { return test(revealed, row, col); }
+    public boolean isFlagged(int row, int col) { return test(flagged, row, col); }
+    public boolean hasBug(int row, int col) { return test(bugs, row, col); }
+
+    public int getAdjacentBugs(int row, int col) {
+        int word = row * words + (col >>> 6);
+        int shift = col & 63;
+        return (int) ((count0[word] >>> shift) & 1)
+                | (int) (((count1[word] >>> shift) & 1) << 1)
+                | (int) (((count2[word] >>> shift) & 1) << 2)
+                | (int) (((count3[word] >>> shift) & 1) << 3);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int getTotalBugs() { return totalBugs; }
+    public int getFlaggedCells() { return flaggedCells; }
+    public int getRevealedCells() { return revealedCells; }
+    public boolean isGameStarted() { return gameStarted; }
+
+    public int getLastRevealedCount() { return lastRevealedCount; }
+    public int getLastRevealedIndex(int i) { return lastRevealed[i]; }
+
+    public int getChangeEpoch() { return changeEpoch; }
+    public int getChangeCount() { return changeCount; }
+    public int getChangedIndex(int i) { return changeLog[i]; }
+}
@@ -0,0 +1,69 @@
+package com.example.bughisweeper;
+
+/**
+ * Immutable copy of a board, taken on the UI thread so analysis can run on a worker while
+ * the player keeps playing. Besides the packed cells it carries the change-journal entries
+ * from getChangesFrom() up to the capture point, so incremental analysis keeps working.
+ */
+public final class BoardSnapshot implements ReadableBoard {
+
+    private final int rows;
+    private final int cols;
+    private final int totalBugs;
+    private final byte[] cells;
+
+    private final int changeEpoch;
+    private final int changesFrom;
+    private final int[] changes;
+
+    BoardSnapshot(int rows, int cols, int totalBugs, byte[] cells,
+                  int changeEpoch, int changesFrom, int[] changes) {
+        this.rows = rows;
+        this.cols = cols;
+        this.totalBugs = totalBugs;
+        this.cells = cells;
+        this.changeEpoch = changeEpoch;
+        this.changesFrom = changesFrom;
+        this.changes = changes;
+    }
+
+    @Override public int getRows() { return rows; }
+    @Override public int getCols() { return cols; }
+    @Override public int getTotalBugs() { return totalBugs; }
+
+    @Override
+    public boolean isRevealed(int row, int col) {
+        return (cells[row * cols + col] & PackedCellStore.REVEALED) != 0;
+    }
+
+    @Override
+    public boolean isFlagged(int row, int col) {
+        return (cells[row * cols + col] & PackedCellStore.FLAGGED) != 0;
+    }
+
+    @Override
+    public boolean hasBug(int row, int col) {
+        return (cells[row * cols + col] & PackedCellStore.BUG) != 0;
+    }
+
+    @Override
+    public int getAdjacentBugs(int row, int col) {
+        return cells[row * cols + col] & PackedCellStore.ADJACENT_MASK;
+    }
+
+    @Override public int getChangeEpoch() { return changeEpoch; }
+    @Override public int getChangeCount() { return changesFrom + changes.length; }
+
+    /**
+     * @param i Journal position in the range [getChangesFrom(), getChangeCount())
+     */
+    @Override
+    public int getChangedIndex(int i) {
+        return changes[i - changesFrom];
+    }
+
+    /**
+     * First journal position carried by this snapshot
+     */
+    public int getChangesFrom() { return changesFrom; }
+}
@@ -0,0 +1,349 @@
+package com.example.bughisweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Represents the game board for Bughisweeper
+ */
+public class BughisBoard implements GameBoard {
+    // Default opening zone: the first click and its 8 neighbors (3x3)
+    public static final int DEFAULT_OPENING_RADIUS = 1;
+
+    private PackedCellStore cells;
+    private int rows;
+    private int cols;
+    private int totalBugs;
+    private int flaggedCells;
+    private int revealedCells;
+    private int safeCellsRevealed;
+    private boolean bugRevealed;
+    private GameState lastState;
+    private boolean gameStarted;
+    private int openingRadius = DEFAULT_OPENING_RADIUS;
+    private Random random;
+    private NeighborTable neighbors;
+    private FloodFillEngine floodFill;
+    private OnGameStateChangeListener stateListener;
+
+    /**
+     * Callback fired when the game transitions to WON or LOST
+     */
+    public interface OnGameStateChangeListener {
+        void onGameStateChanged(GameState newState);
+    }
+
+    public BughisBoard(int rows, int cols, int totalBugs) {
+        this(rows, cols, totalBugs, new Random());
+    }
+
+    /**
+     * @param random Source for bug placement; pass a seeded Random for reproducible games
+     */
+    public BughisBoard(int rows, int cols, int totalBugs, Random random) {
+        this.rows = rows;
+        this.cols = cols;
+        this.totalBugs = totalBugs;
+        this.flaggedCells = 0;
+        this.revealedCells = 0;
+        this.safeCellsRevealed = 0;
+        this.bugRevealed = false;
+        this.lastState = GameState.PLAYING;
+        this.gameStarted = false;
+        this.random = random;
+        this.cells = new PackedCellStore(rows, cols);
+        this.neighbors = new NeighborTable(rows, cols);
+        this.floodFill = new FloodFillEngine(rows, cols, neighbors);
+    }
+
+    /**
+     * Set how far the bug-free opening zone around the first click reaches
+     * @param radius 0 keeps only the clicked cell free, 1 a 3x3 square, 2 a 5x5 square...
+     */
+    public void setOpeningRadius(int radius) {
+        this.openingRadius = Math.max(0, radius);
+    }
+
+    public int getOpeningRadius() { return openingRadius; }
+
+    /**
+     * Place bugs with a partial Fisher-Yates shuffle over the cells outside the opening zone,
+     * so running time is linear in the board size whatever the density. The zone shrinks
+     * when the board is too dense to fit all bugs outside it.
+     */
+    public void placeBugs(int firstClickRow, int firstClickCol) {
+        if (gameStarted) return;
+
+        int cellCount = rows * cols;
+        int radius = openingRadius;
+        while (radius > 0 && cellCount - zoneSize(firstClickRow, firstClickCol, radius) < totalBugs) {
+            radius--;
+        }
+
+        // Candidate cells: everything outside the opening zone
+        int[] candidates = new int[cellCount];
+        int candidateCount = 0;
+        for (int r = 0; r < rows; r++) {
+            boolean zoneRow = Math.abs(r - firstClickRow) <= radius;
+            for (int c = 0; c < cols; c++) {
+                if (zoneRow && Math.abs(c - firstClickCol) <= radius) continue;
+                candidates[candidateCount++] = cells.indexOf(r, c);
+            }
+        }
+
+        // The first bugsToPlace slots of a partial shuffle are a uniform random choice
+        int bugsToPlace = Math.min(totalBugs, candidateCount);
+        for (int i = 0; i < bugsToPlace; i++) {
+            int j = i + random.nextInt(candidateCount - i);
+            int index = candidates[j];
+            candidates[j] = candidates[i];
+            candidates[i] = index;
+            cells.set(index, PackedCellStore.BUG, true);
+        }
+
+        calculateAdjacentBugs(candidates, bugsToPlace);
+        gameStarted = true;
+    }
+
+    /**
+     * Place bugs on exactly the given cells, for replaying a known or sampled layout. Does
+     * nothing once the game has started.
+     * @param bugIndices Flat indices (row * cols + col) of the bug cells
+     */
+    public void placeBugs(int[] bugIndices, int bugCount) {
+        if (gameStarted) return;
+
+        for (int i = 0; i < bugCount; i++) {
+            cells.set(bugIndices[i], PackedCellStore.BUG, true);
+        }
+        calculateAdjacentBugs(bugIndices, bugCount);
+        gameStarted = true;
+    }
+
+    /**
+     * Number of board cells within the given radius of a cell
+     */
+    private int zoneSize(int row, int col, int radius) {
+        int height = Math.min(rows - 1, row + radius) - Math.max(0, row - radius) + 1;
+        int width = Math.min(cols - 1, col + radius) - Math.max(0, col - radius) + 1;
+        return Math.max(0, height) * Math.max(0, width);
+    }
+
+    /**
+     * Single pass over the placed bugs, incrementing the count of each safe neighbor
+     */
+    private void calculateAdjacentBugs(int[] bugIndices, int bugCount) {
+        for (int i = 0; i < bugCount; i++) {
+            int index = bugIndices[i];
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                int neighbor = index + offsets[k];
+                if (!cells.has(neighbor, PackedCellStore.BUG)) {
+                    cells.incrementAdjacentBugs(neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get views of the neighbors of a cell. Allocates a list and views on every call;
+     * hot paths should use getNeighborTable() or forEachNeighbor instead.
+     */
+    public List<Cell> getNeighbors(int row, int col) {
+        int index = cells.indexOf(row, col);
+        int[] offsets = neighbors.offsets(index);
+        List<Cell> result = new ArrayList<>(offsets.length);
+        for (int k = 0; k < offsets.length; k++) {
+            int neighbor = index + offsets[k];
+            result.add(new Cell(cells, neighbor / cols, neighbor % cols));
+        }
+        return result;
+    }
+
+    /**
+     * Call the visitor with the flat index (row * cols + col) of every neighbor of a cell
+     */
+    public void forEachNeighbor(int row, int col, NeighborTable.Visitor visitor) {
+        neighbors.forEach(cells.indexOf(row, col), visitor);
+    }
+
+    /**
+     * Precomputed neighbor offsets for this board's size
+     */
+    public NeighborTable getNeighborTable() { return neighbors; }
+
+    public boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public RevealResult revealCell(int row, int col) {
+        floodFill.clearResult();
+
+        if (!isValidPosition(row, col)) {
+            return RevealResult.INVALID;
+        }
+
+        int index = cells.indexOf(row, col);
+
+        if (cells.has(index, PackedCellStore.REVEALED | PackedCellStore.FLAGGED)) {
+            return RevealResult.ALREADY_PROCESSED;
+        }
+
+        // Place bugs on first click
+        if (!gameStarted) {
+            placeBugs(row, col);
+        }
+
+        if (cells.has(index, PackedCellStore.BUG)) {
+            cells.set(index, PackedCellStore.REVEALED, true);
+            revealedCells++;
+            bugRevealed = true;
+            floodFill.recordSingle(row, col);
+            // Every hit is reported, even after a shield absorbed an earlier one
+            lastState = GameState.PLAYING;
+            dispatchStateChange();
+            return RevealResult.BUG_HIT;
+        }
+
+        // Reveal the cell and cascade through adjacent empty cells
+        int revealed = floodFill.fill(cells, index);
+        revealedCells += revealed;
+        safeCellsRevealed += revealed;
+        dispatchStateChange();
+
+        return RevealResult.SAFE;
+    }
+
+    /**
+     * Notify the listener if the game just moved to WON or LOST
+     */
+    private void dispatchStateChange() {
+        GameState state = getGameState();
+        if (state == lastState) return;
+
+        lastState = state;
+        if (stateListener != null && state != GameState.PLAYING) {
+            stateListener.onGameStateChanged(state);
+        }
+    }
+
+    public void setOnGameStateChangeListener(OnGameStateChangeListener listener) {
+        this.stateListener = listener;
+    }
+
+    /**
+     * Number of cells revealed by the last revealCell call (0 if nothing changed)
+     */
+    public int getLastRevealedCount() {
+        return floodFill.getRevealedCount();
+    }
+
+    /**
+     * Flat index (row * cols + col) of the i-th cell revealed by the last revealCell call
+     * @param i Position in the range [0, getLastRevealedCount())
+     */
+    public int getLastRevealedIndex(int i) {
+        return floodFill.getRevealedIndices()[i];
+    }
+
+    public void toggleFlag(int row, int col) {
+        if (!isValidPosition(row, col)) return;
+
+        int index = cells.indexOf(row, col);
+        if (cells.has(index, PackedCellStore.REVEALED)) return;
+
+        if (cells.has(index, PackedCellStore.FLAGGED)) {
+            cells.set(index, PackedCellStore.FLAGGED, false);
+            flaggedCells--;
+        } else {
+            cells.set(index, PackedCellStore.FLAGGED, true);
+            flaggedCells++;
+        }
+    }
+
+    /**
+     * Current game state, answered in constant time from counters kept by revealCell
+     */
+    public GameState getGameState() {
+        // All safe cells revealed
+        int safeCellsToReveal = (rows * cols) - totalBugs;
+        if (safeCellsRevealed >= safeCellsToReveal) {
+            return GameState.WON;
+        }
+
+        if (bugRevealed) {
+            return GameState.LOST;
+        }
+
+        return GameState.PLAYING;
+    }
+
+    public void reset() {
+        flaggedCells = 0;
+        revealedCells = 0;
+        safeCellsRevealed = 0;
+        bugRevealed = false;
+        lastState = GameState.PLAYING;
+        gameStarted = false;
+        floodFill.clearResult();
+        cells.clear();
+    }
+
+    // Getters
+    /**
+     * Get a view of a cell. Views are lightweight and read/write the board directly;
+     * hot loops should prefer the primitive accessors below.
+     */
+    public Cell getCell(int row, int col) {
+        if (isValidPosition(row, col)) {
+            return new Cell(cells, row, col);
+        }
+        return null;
+    }
+
+    // Primitive cell accessors (no allocation, positions must be valid)
+    public boolean isRevealed(int row, int col) { return cells.has(cells.indexOf(row, col), PackedCellStore.REVEALED); }
+    public boolean isFlagged(int row, int col) { return cells.has(cells.indexOf(row, col), PackedCellStore.FLAGGED); }
+    public boolean hasBug(int row, int col) { return cells.has(cells.indexOf(row, col), PackedCellStore.BUG); }
+    public int getAdjacentBugs(int row, int col) { return cells.getAdjacentBugs(cells.indexOf(row, col)); }
+
+    // Region counts over the rows [top, bottom] and columns [left, right], bounds inclusive
+    // and clipped to the board. Bugs take constant time, flags and reveals O(log rows * log cols);
+    // the tables are built by the first query and kept current from then on.
+    public int countBugs(int top, int left, int bottom, int right) { return cells.regions().countBugs(cells, top, left, bottom, right); }
+    public int countFlags(int top, int left, int bottom, int right) { return cells.regions().countFlags(top, left, bottom, right); }
+    public int countRevealed(int top, int left, int bottom, int right) { return cells.regions().countRevealed(top, left, bottom, right); }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int getTotalBugs() { return totalBugs; }
+    public int getFlaggedCells() { return flaggedCells; }
+    public int getFlaggedCount() { return flaggedCells; } // Alias for compatibility
+    public int getRevealedCells() { return revealedCells; }
+    public boolean isGameStarted() { return gameStarted; }
+
+    // Change journal, see ReadableBoard
+    public int getChangeEpoch() { return cells.getChangeEpoch(); }
+    public int getChangeCount() { return cells.getChangeCount(); }
+    public int getChangedIndex(int i) { return cells.getChangedIndex(i); }
+
+    /**
+     * Take an immutable copy of the board for background analysis
+     * @param changesFrom First change-journal entry the snapshot should carry
+     */
+    public BoardSnapshot snapshot(int changesFrom) {
+        int from = Math.max(0, Math.min(changesFrom, cells.getChangeCount()));
+        return new BoardSnapshot(rows, cols, totalBugs, cells.copyCells(),
+                cells.getChangeEpoch(), from, cells.copyChanges(from));
+    }
+
+    // Enums
+    public enum RevealResult {
+        SAFE, BUG_HIT, ALREADY_PROCESSED, INVALID
+    }
+
+    public enum GameState {
+        PLAYING, WON, LOST
+    }
+}
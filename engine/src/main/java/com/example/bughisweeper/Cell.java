@@ -0,0 +1,174 @@
+package com.example.bughisweeper;
+
+/**
+ * Represents a single cell in the Bughisweeper game board.
+ * A Cell is a lightweight view over the board's packed cell storage: it holds no state of
+ * its own besides its position, so views are cheap to create and always reflect the board.
+ * Per-cell analysis values (probability, entropy, safety, risk) live in MathAnalyzer's grids.
+ */
+public class Cell {
+
+    // Backing storage and flat index into it
+    private final PackedCellStore store;
+    private final int index;
+
+    // Cell position
+    private final int row;
+    private final int col;
+
+    /**
+     * Constructor for a standalone cell that is not attached to a board
+     * @param row Row position
+     * @param col Column position
+     */
+    public Cell(int row, int col) {
+        this.store = new PackedCellStore(1, 1);
+        this.index = 0;
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * Constructor for a view over a board cell
+     * @param store Board storage
+     * @param row Row position
+     * @param col Column position
+     */
+    Cell(PackedCellStore store, int row, int col) {
+        this.store = store;
+        this.index = store.indexOf(row, col);
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * Check if the cell has a bug
+     * @return True if the cell has a bug, false otherwise
+     */
+    public boolean hasBug() {
+        return store.has(index, PackedCellStore.BUG);
+    }
+
+    /**
+     * Set whether the cell has a bug
+     * @param hasBug True to place a bug, false to remove
+     */
+    public void setHasBug(boolean hasBug) {
+        store.set(index, PackedCellStore.BUG, hasBug);
+    }
+
+    // Alternative setter for compatibility with math analyzer
+    public void setBug(boolean hasBug) {
+        store.set(index, PackedCellStore.BUG, hasBug);
+    }
+
+    /**
+     * Check if the cell is revealed
+     * @return True if revealed, false otherwise
+     */
+    public boolean isRevealed() {
+        return store.has(index, PackedCellStore.REVEALED);
+    }
+
+    /**
+     * Reveal the cell
+     * @return True if the cell was newly revealed, false if it was already revealed
+     */
+    public boolean reveal() {
+        if (!isRevealed() && !isFlagged()) {
+            store.set(index, PackedCellStore.REVEALED, true);
+            return true;
+        }
+        return false;
+    }
+
+    // Alternative setter for compatibility with math analyzer
+    public void setRevealed(boolean revealed) {
+        store.set(index, PackedCellStore.REVEALED, revealed);
+    }
+
+    /**
+     * Check if the cell is flagged
+     * @return True if flagged, false otherwise
+     */
+    public boolean isFlagged() {
+        return store.has(index, PackedCellStore.FLAGGED);
+    }
+
+    /**
+     * Toggle the flag state of the cell
+     * @return True if the cell is now flagged, false if the flag was removed
+     */
+    public boolean toggleFlag() {
+        if (!isRevealed()) {
+            boolean flagged = !isFlagged();
+            store.set(index, PackedCellStore.FLAGGED, flagged);
+            return flagged;
+        }
+        return false;
+    }
+
+    // Alternative setter for compatibility with math analyzer
+    public void setFlagged(boolean flagged) {
+        store.set(index, PackedCellStore.FLAGGED, flagged);
+    }
+
+    /**
+     * Get the row position
+     * @return Row index
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Get the column position
+     * @return Column index
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Get the number of adjacent bugs
+     * @return Count of bugs in neighboring cells
+     */
+    public int getAdjacentBugs() {
+        return store.getAdjacentBugs(index);
+    }
+
+    /**
+     * Set the number of adjacent bugs
+     * @param count Count of bugs in neighboring cells
+     */
+    public void setAdjacentBugs(int count) {
+        store.setAdjacentBugs(index, count);
+    }
+
+    /**
+     * Increment the adjacent bugs counter
+     */
+    public void incrementAdjacentBugs() {
+        store.incrementAdjacentBugs(index);
+    }
+
+    /**
+     * Reset the cell to initial state
+     */
+    public void reset() {
+        store.set(index, 0xFF, false);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Cell)) return false;
+        Cell other = (Cell) o;
+        return store == other.store && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
+}
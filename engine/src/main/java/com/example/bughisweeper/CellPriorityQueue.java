@@ -0,0 +1,178 @@
+package com.example.bughisweeper;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of board cells keyed by a double. A cell is in the queue at most
+ * once: set() inserts it or moves it to its new key, remove() takes it out, both in
+ * O(log n), and the smallest key is a constant-time peek. Equal keys order by cell index,
+ * so the minimum is the same cell a row-major scan with a strict comparison would pick.
+ */
+public final class CellPriorityQueue {
+
+    private final int[] heap;        // Heap position -> cell index
+    private final int[] positions;   // Cell index -> heap position, or -1 if absent
+    private final double[] keys;     // Cell index -> key
+    private int size;
+
+    // Scratch for top(): heap positions still to visit, as a small heap of its own
+    private int[] frontier = new int[16];
+
+    public CellPriorityQueue(int cellCount) {
+        heap = new int[cellCount];
+        positions = new int[cellCount];
+        keys = new double[cellCount];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int index) { return positions[index] >= 0; }
+
+    /**
+     * Key of a queued cell
+     */
+    public double getKey(int index) { return keys[index]; }
+
+    /**
+     * Cell with the smallest key, or -1 if the queue is empty
+     */
+    public int peek() {
+        return size > 0 ? heap[0] : -1;
+    }
+
+    /**
+     * Insert a cell or change its key
+     */
+    public void set(int index, double key) {
+        int position = positions[index];
+        if (position < 0) {
+            keys[index] = key;
+            heap[size] = index;
+            positions[index] = size;
+            siftUp(size++);
+            return;
+        }
+
+        double before = keys[index];
+        keys[index] = key;
+        if (key < before) {
+            siftUp(position);
+        } else if (key > before) {
+            siftDown(position);
+        }
+    }
+
+    /**
+     * Take a cell out of the queue; does nothing if it is not queued
+     */
+    public void remove(int index) {
+        int position = positions[index];
+        if (position < 0) return;
+
+        positions[index] = -1;
+        size--;
+        if (position == size) return;
+
+        int last = heap[size];
+        heap[position] = last;
+        positions[last] = position;
+        siftDown(position);
+        siftUp(positions[last]);
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * The cells with the k smallest keys, smallest first, without changing the queue.
+     * Costs O(k log k).
+     * @return Number of cells written to out
+     */
+    public int top(int k, int[] out) {
+        k = Math.min(k, Math.min(size, out.length));
+        if (k == 0) return 0;
+
+        // Best-first walk of the heap: a node's children can only follow the node itself
+        if (frontier.length < 2 * k + 1) frontier = new int[2 * k + 1];
+        int frontierSize = 0;
+        frontier[frontierSize++] = 0;
+        int count = 0;
+        while (count < k) {
+            int position = frontier[0];
+            frontier[0] = frontier[--frontierSize];
+            frontierDown(frontierSize);
+            out[count++] = heap[position];
+
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                frontier[frontierSize] = child;
+                frontierUp(frontierSize++);
+            }
+        }
+        return count;
+    }
+
+    private boolean less(int a, int b) {
+        double keyA = keys[a];
+        double keyB = keys[b];
+        return keyA < keyB || (keyA == keyB && a < b);
+    }
+
+    private void siftUp(int position) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(index, heap[parent])) break;
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(index, position);
+    }
+
+    private void siftDown(int position) {
+        int index = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) child++;
+            if (!less(heap[child], index)) break;
+            move(heap[child], position);
+            position = child;
+        }
+        move(index, position);
+    }
+
+    private void move(int index, int position) {
+        heap[position] = index;
+        positions[index] = position;
+    }
+
+    private void frontierUp(int i) {
+        int position = frontier[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(heap[position], heap[frontier[parent]])) break;
+            frontier[i] = frontier[parent];
+            i = parent;
+        }
+        frontier[i] = position;
+    }
+
+    private void frontierDown(int frontierSize) {
+        if (frontierSize == 0) return;
+        int i = 0;
+        int position = frontier[0];
+        while (2 * i + 1 < frontierSize) {
+            int child = 2 * i + 1;
+            if (child + 1 < frontierSize && less(heap[frontier[child + 1]], heap[frontier[child]])) child++;
+            if (!less(heap[frontier[child]], heap[position])) break;
+            frontier[i] = frontier[child];
+            i = child;
+        }
+        frontier[i] = position;
+    }
+}
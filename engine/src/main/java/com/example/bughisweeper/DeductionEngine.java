@@ -0,0 +1,360 @@
+package com.example.bughisweeper;
+
+import java.util.Arrays;
+
+/**
+ * Deterministic logic deductions behind Smart Sweep.
+ *
+ * Every revealed number with hidden neighbors is a constraint: its hidden neighbors hold
+ * exactly (number - flagged neighbors) bugs. A worklist of constraints is run to a fixpoint
+ * with three rules:
+ * <ul>
+ * <li>single point: no bugs left means every hidden neighbor is safe, as many bugs as hidden
+ * neighbors means all of them are bugs</li>
+ * <li>subset/superset: when one constraint's cells lie inside another's, the difference
+ * holds the difference of their counts (the 1-2 pattern)</li>
+ * <li>shared constraint: for two overlapping constraints, the bugs they can share bound the
+ * bugs each has outside the overlap, which can force those cells either way</li>
+ * </ul>
+ * Every deduced cell puts the constraints around it back on the worklist, so chains resolve
+ * in one call. Between calls the engine reads the board's change journal and only queues the
+ * constraints around cells that changed; a full scan happens only for a new board, a journal
+ * restart or a removed flag (flags are taken as bugs, so removing one can void deductions).
+ *
+ * Deductions are kept until the board invalidates them; each call reports only the cells
+ * newly found to be bugs or safe.
+ */
+public class DeductionEngine {
+
+    // What the engine knows about a cell
+    private static final byte HIDDEN = 0;
+    private static final byte SAFE = 1;     // Deduced safe, not revealed yet
+    private static final byte MINE = 2;     // Flagged, revealed bug or deduced bug
+    private static final byte REVEALED = 3;
+
+    // Partner constraints share cells only within two rows and columns
+    private static final int PARTNER_RADIUS = 2;
+
+    private int rows;
+    private int cols;
+    private NeighborTable neighbors;
+    private byte[] status;
+    private boolean[] flagged;
+
+    // Worklist of constraint cells, a ring buffer holding each cell at most once
+    private int[] queue;
+    private boolean[] queued;
+    private int head;
+    private int size;
+
+    // Journal position of the last call
+    private boolean synced;
+    private int syncedEpoch;
+    private int syncedChangeCount;
+
+    // Deductions of the last call
+    private int[] mines = new int[16];
+    private int mineCount;
+    private int[] safes = new int[16];
+    private int safeCount;
+
+    // Per-constraint scratch: hidden neighbors and overlap bookkeeping
+    private final int[] hiddenA = new int[8];
+    private final int[] hiddenB = new int[8];
+    private final boolean[] sharedA = new boolean[8];
+    private final boolean[] sharedB = new boolean[8];
+
+    /**
+     * Bring the deductions up to date with the board and run the worklist to a fixpoint
+     * @return Number of cells newly deduced (getMineCount() + getSafeCount())
+     */
+    public int deduce(ReadableBoard board) {
+        mineCount = 0;
+        safeCount = 0;
+
+        if (!synced || board.getRows() != rows || board.getCols() != cols
+                || board.getChangeEpoch() != syncedEpoch) {
+            rebuild(board);
+        } else if (!readJournal(board)) {
+            rebuild(board);
+        }
+        syncedEpoch = board.getChangeEpoch();
+        syncedChangeCount = board.getChangeCount();
+        synced = true;
+
+        while (size > 0) {
+            int index = queue[head];
+            head = head + 1 == queue.length ? 0 : head + 1;
+            size--;
+            queued[index] = false;
+            process(board, index);
+        }
+        return mineCount + safeCount;
+    }
+
+    /**
+     * Forget all deductions; the next call rescans the board
+     */
+    public void reset() {
+        synced = false;
+    }
+
+    /**
+     * Deduce, flag the bugs and reveal the safe cells, repeating with the newly revealed
+     * numbers until nothing more follows. Stops at a bug hit (only possible if a flag the
+     * deductions relied on was wrong).
+     * @return Number of cells flagged or revealed
+     */
+    public int sweep(GameBoard board) {
+        int applied = 0;
+        while (board.getGameState() == BughisBoard.GameState.PLAYING && deduce(board) > 0) {
+            for (int i = 0; i < mineCount; i++) {
+                int r = mines[i] / cols;
+                int c = mines[i] % cols;
+                if (!board.isFlagged(r, c) && !board.isRevealed(r, c)) {
+                    board.toggleFlag(r, c);
+                    applied++;
+                }
+            }
+            for (int i = 0; i < safeCount; i++) {
+                int r = safes[i] / cols;
+                int c = safes[i] % cols;
+                if (!board.isRevealed(r, c) && !board.isFlagged(r, c)) {
+                    board.revealCell(r, c);
+                    applied++;
+                }
+            }
+        }
+        return applied;
+    }
+
+    // Deductions of the last deduce call, as flat indices (row * cols + col)
+    public int getMineCount() { return mineCount; }
+    public int getMine(int i) { return mines[i]; }
+    public int getSafeCount() { return safeCount; }
+    public int getSafe(int i) { return safes[i]; }
+
+    /**
+     * Whether a cell has been deduced (or is known) to be safe; false for unknown cells
+     */
+    public boolean isKnownSafe(int index) {
+        return synced && (status[index] == SAFE || status[index] == REVEALED);
+    }
+
+    /**
+     * Whether a cell has been deduced (or is known) to hold a bug; false for unknown cells
+     */
+    public boolean isKnownMine(int index) {
+        return synced && status[index] == MINE;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Synchronization with the board
+    // ---------------------------------------------------------------------------------------
+
+    private void rebuild(ReadableBoard board) {
+        int cellCount = board.getRows() * board.getCols();
+        if (status == null || board.getRows() != rows || board.getCols() != cols) {
+            rows = board.getRows();
+            cols = board.getCols();
+            neighbors = new NeighborTable(rows, cols);
+            status = new byte[cellCount];
+            flagged = new boolean[cellCount];
+            queue = new int[cellCount];
+            queued = new boolean[cellCount];
+        }
+        head = 0;
+        size = 0;
+
+        for (int index = 0; index < cellCount; index++) {
+            queued[index] = false;
+            status[index] = visibleStatus(board, index);
+            flagged[index] = board.isFlagged(index / cols, index % cols);
+        }
+        for (int index = 0; index < cellCount; index++) {
+            if (status[index] == REVEALED) enqueue(index);
+        }
+    }
+
+    /**
+     * Apply the journal since the last call, queueing the constraints around changed cells
+     * @return False if a removed flag requires a rebuild
+     */
+    private boolean readJournal(ReadableBoard board) {
+        int end = board.getChangeCount();
+        for (int i = syncedChangeCount; i < end; i++) {
+            int index = board.getChangedIndex(i);
+            boolean isFlagged = board.isFlagged(index / cols, index % cols);
+            if (flagged[index] && !isFlagged) return false;
+            flagged[index] = isFlagged;
+
+            byte visible = visibleStatus(board, index);
+            if (visible == HIDDEN || visible == status[index]) continue;
+
+            status[index] = visible;
+            if (visible == REVEALED) enqueue(index);
+            enqueueConstraintsAround(index);
+        }
+        return true;
+    }
+
+    private byte visibleStatus(ReadableBoard board, int index) {
+        int r = index / cols;
+        int c = index % cols;
+        if (board.isRevealed(r, c)) {
+            return board.hasBug(r, c) ? MINE : REVEALED;
+        }
+        return board.isFlagged(r, c) ? MINE : HIDDEN;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Rules
+    // ---------------------------------------------------------------------------------------
+
+    private void process(ReadableBoard board, int index) {
+        int remaining = remainingBugs(board, index, hiddenA);
+        int hidden = hiddenCount;
+        if (hidden == 0 || remaining < 0 || remaining > hidden) return; // Solved or contradicted
+
+        // Single point
+        if (remaining == 0) {
+            for (int k = 0; k < hidden; k++) markSafe(hiddenA[k]);
+            return;
+        }
+        if (remaining == hidden) {
+            for (int k = 0; k < hidden; k++) markMine(hiddenA[k]);
+            return;
+        }
+
+        // Pairs with every constraint that can share a cell
+        int row = index / cols;
+        int col = index % cols;
+        for (int r = Math.max(0, row - PARTNER_RADIUS); r <= Math.min(rows - 1, row + PARTNER_RADIUS); r++) {
+            for (int c = Math.max(0, col - PARTNER_RADIUS); c <= Math.min(cols - 1, col + PARTNER_RADIUS); c++) {
+                int partner = r * cols + c;
+                if (partner == index || status[partner] != REVEALED) continue;
+                if (applyPair(board, index, partner)) {
+                    return; // This constraint changed; it is back on the worklist
+                }
+            }
+        }
+    }
+
+    /**
+     * Subset/superset and shared-constraint reduction of two constraints
+     * @return True if anything was deduced
+     */
+    private boolean applyPair(ReadableBoard board, int a, int b) {
+        int remainingA = remainingBugs(board, a, hiddenA);
+        int countA = hiddenCount;
+        int remainingB = remainingBugs(board, b, hiddenB);
+        int countB = hiddenCount;
+        if (countA == 0 || countB == 0 || remainingB < 0 || remainingB > countB) return false;
+
+        int shared = 0;
+        for (int i = 0; i < countA; i++) sharedA[i] = false;
+        for (int j = 0; j < countB; j++) sharedB[j] = false;
+        for (int i = 0; i < countA; i++) {
+            for (int j = 0; j < countB; j++) {
+                if (hiddenA[i] == hiddenB[j]) {
+                    sharedA[i] = true;
+                    sharedB[j] = true;
+                    shared++;
+                }
+            }
+        }
+        if (shared == 0) return false;
+
+        int onlyA = countA - shared;
+        int onlyB = countB - shared;
+
+        // Bugs in the overlap: each side fills what its own cells cannot hold
+        int minShared = Math.max(0, Math.max(remainingA - onlyA, remainingB - onlyB));
+        int maxShared = Math.min(shared, Math.min(remainingA, remainingB));
+        if (minShared > maxShared) return false; // Contradiction; leave it to the player
+
+        boolean changed = false;
+        // Cells only in A hold remainingA - shared bugs
+        if (onlyA > 0) {
+            if (remainingA - minShared == 0) {
+                changed |= markAll(hiddenA, sharedA, countA, false);
+            } else if (remainingA - maxShared == onlyA) {
+                changed |= markAll(hiddenA, sharedA, countA, true);
+            }
+        }
+        if (onlyB > 0) {
+            if (remainingB - minShared == 0) {
+                changed |= markAll(hiddenB, sharedB, countB, false);
+            } else if (remainingB - maxShared == onlyB) {
+                changed |= markAll(hiddenB, sharedB, countB, true);
+            }
+        }
+        return changed;
+    }
+
+    private boolean markAll(int[] cells, boolean[] shared, int count, boolean mine) {
+        boolean changed = false;
+        for (int i = 0; i < count; i++) {
+            if (shared[i]) continue;
+            changed |= mine ? markMine(cells[i]) : markSafe(cells[i]);
+        }
+        return changed;
+    }
+
+    // Hidden neighbors found by the last remainingBugs call
+    private int hiddenCount;
+
+    /**
+     * Bugs still missing around a revealed number, writing its hidden neighbors to out
+     */
+    private int remainingBugs(ReadableBoard board, int index, int[] out) {
+        int known = 0;
+        int hidden = 0;
+        int[] offsets = neighbors.offsets(index);
+        for (int k = 0; k < offsets.length; k++) {
+            int neighbor = index + offsets[k];
+            byte neighborStatus = status[neighbor];
+            if (neighborStatus == MINE) {
+                known++;
+            } else if (neighborStatus == HIDDEN) {
+                out[hidden++] = neighbor;
+            }
+        }
+        hiddenCount = hidden;
+        return board.getAdjacentBugs(index / cols, index % cols) - known;
+    }
+
+    private boolean markSafe(int index) {
+        if (status[index] != HIDDEN) return false;
+        status[index] = SAFE;
+        if (safeCount == safes.length) safes = Arrays.copyOf(safes, safeCount * 2);
+        safes[safeCount++] = index;
+        enqueueConstraintsAround(index);
+        return true;
+    }
+
+    private boolean markMine(int index) {
+        if (status[index] != HIDDEN) return false;
+        status[index] = MINE;
+        if (mineCount == mines.length) mines = Arrays.copyOf(mines, mineCount * 2);
+        mines[mineCount++] = index;
+        enqueueConstraintsAround(index);
+        return true;
+    }
+
+    private void enqueueConstraintsAround(int index) {
+        int[] offsets = neighbors.offsets(index);
+        for (int k = 0; k < offsets.length; k++) {
+            int neighbor = index + offsets[k];
+            if (status[neighbor] == REVEALED) enqueue(neighbor);
+        }
+    }
+
+    private void enqueue(int index) {
+        if (queued[index]) return;
+        queued[index] = true;
+        int tail = head + size;
+        queue[tail >= queue.length ? tail - queue.length : tail] = index;
+        size++;
+    }
+}
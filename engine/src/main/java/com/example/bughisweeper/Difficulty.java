@@ -0,0 +1,25 @@
+package com.example.bughisweeper;
+
+/**
+ * Board dimensions and bug count of a game. EASY, MEDIUM and HARD are the standard presets
+ * the app offers (DifficultyManager reads them from here); other boards, such as the app's
+ * custom games or benchmark boards, are plain instances.
+ */
+public final class Difficulty {
+
+    public static final Difficulty EASY = new Difficulty("easy", 8, 8, 10);
+    public static final Difficulty MEDIUM = new Difficulty("medium", 16, 16, 40);
+    public static final Difficulty HARD = new Difficulty("hard", 24, 24, 99);
+
+    public final String name;
+    public final int rows;
+    public final int cols;
+    public final int bugs;
+
+    public Difficulty(String name, int rows, int cols, int bugs) {
+        this.name = name;
+        this.rows = rows;
+        this.cols = cols;
+        this.bugs = bugs;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bughisweeper;
+
+/**
+ * Iterative, queue-based flood fill used by BughisBoard to cascade reveals.
+ * The work queue and visited bitmap are allocated once per board size and reused,
+ * so a cascade allocates nothing and never recurses no matter how large the open area is.
+ */
+final class FloodFillEngine {
+
+    private final int cols;
+    private final NeighborTable neighbors;
+
+    // Work queue of flat indices (row * cols + col). Every queued cell gets revealed,
+    // so after a fill the first revealedCount entries are exactly the revealed cells.
+    private final int[] queue;
+    private final long[] visited;
+    private int revealedCount;
+
+    FloodFillEngine(int rows, int cols, NeighborTable neighbors) {
+        this.cols = cols;
+        this.neighbors = neighbors;
+        this.queue = new int[rows * cols];
+        this.visited = new long[(rows * cols + 63) >>> 6];
+    }
+
+    /**
+     * Reveal the start cell and cascade through every connected zero cell
+     * @param cells Board storage
+     * @param start Flat index of the first cell (must be unrevealed, unflagged and bug-free)
+     * @return Number of cells revealed
+     */
+    int fill(PackedCellStore cells, int start) {
+        int head = 0;
+        int tail = 0;
+
+        mark(start);
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int index = queue[head++];
+            cells.set(index, PackedCellStore.REVEALED, true);
+
+            // Only empty cells keep the cascade going
+            if (cells.getAdjacentBugs(index) != 0) continue;
+
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                int neighbor = index + offsets[k];
+                if (isMarked(neighbor)) continue;
+                if (cells.has(neighbor, PackedCellStore.REVEALED | PackedCellStore.FLAGGED)) continue;
+
+                mark(neighbor);
+                queue[tail++] = neighbor;
+            }
+        }
+
+        // Clear only the bits we touched so the next fill starts clean
+        for (int i = 0; i < tail; i++) {
+            int index = queue[i];
+            visited[index >>> 6] &= ~(1L << index);
+        }
+
+        revealedCount = tail;
+        return tail;
+    }
+
+    /**
+     * Record a single revealed cell without cascading (used for bug hits)
+     */
+    void recordSingle(int row, int col) {
+        queue[0] = row * cols + col;
+        revealedCount = 1;
+    }
+
+    void clearResult() {
+        revealedCount = 0;
+    }
+
+    int getRevealedCount() {
+        return revealedCount;
+    }
+
+    int[] getRevealedIndices() {
+        return queue;
+    }
+
+    private void mark(int index) {
+        visited[index >>> 6] |= 1L << index;
+    }
+
+    private boolean isMarked(int index) {
+        return (visited[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.bughisweeper;
+
+/**
+ * A playable board: the packed BughisBoard used by the app, or the bitplane BitBoard used for
+ * stress tests and simulations on very large boards
+ */
+public interface GameBoard extends ReadableBoard {
+
+    boolean isValidPosition(int row, int col);
+
+    /**
+     * Place bugs, keeping the opening zone around the first click free. Does nothing once
+     * the game has started.
+     */
+    void placeBugs(int firstClickRow, int firstClickCol);
+
+    /**
+     * Reveal a cell (placing bugs first if needed), cascading through empty cells
+     */
+    BughisBoard.RevealResult revealCell(int row, int col);
+
+    void toggleFlag(int row, int col);
+
+    BughisBoard.GameState getGameState();
+
+    void reset();
+
+    int getFlaggedCells();
+    int getRevealedCells();
+    boolean isGameStarted();
+
+    /**
+     * Cells revealed by the last revealCell call, as flat indices (row * cols + col)
+     */
+    int getLastRevealedCount();
+    int getLastRevealedIndex(int i);
+
+    void setOnGameStateChangeListener(BughisBoard.OnGameStateChangeListener listener);
+}
@@ -0,0 +1,323 @@
+package com.example.bughisweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Headless batch simulator. Plays many games with a pluggable Strategy, spread over a
+ * ForkJoinPool, and reports win rate, moves and guesses per game and throughput for each
+ * difficulty. Uses no Android classes, so it runs on a plain JVM:
+ *
+ * <pre>
+ * java -cp classes com.example.bughisweeper.GameSimulator [games] [analyzer|superpower] [packed|bit]
+ * </pre>
+ *
+ * Games are split into fixed batches; each batch gets its own board, strategy and a Random
+ * seeded from the batch position, so a run is reproducible for a given seed.
+ */
+public final class GameSimulator {
+
+    // Games played by one task without splitting further
+    private static final int BATCH_SIZE = 16;
+
+    // A reveal is a guess unless the strategy knew the cell was safe
+    private static final double SAFE_EPSILON = 1e-9;
+
+    /**
+     * A player. Each batch of games gets its own instance, so implementations need not be
+     * thread-safe.
+     */
+    public interface Strategy {
+        /**
+         * Called before the first move of every game
+         */
+        void startGame(GameBoard board);
+
+        /**
+         * Choose the next cell to reveal as a flat index (row * cols + col), or -1 to give up.
+         * The strategy may place flags on the board before answering.
+         */
+        int nextMove(GameBoard board);
+
+        /**
+         * Whether the cell returned by the last nextMove call could have been a bug
+         */
+        boolean isGuess();
+    }
+
+    public interface StrategyFactory {
+        Strategy create();
+    }
+
+    public interface BoardFactory {
+        GameBoard create(int rows, int cols, int bugs, Random random);
+    }
+
+    private final ForkJoinPool pool;
+    private final BoardFactory boardFactory;
+    private final StrategyFactory strategyFactory;
+    private final long seed;
+
+    /**
+     * @param parallelism Worker threads, usually Runtime.availableProcessors()
+     */
+    public GameSimulator(int parallelism, BoardFactory boardFactory, StrategyFactory strategyFactory, long seed) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.boardFactory = boardFactory;
+        this.strategyFactory = strategyFactory;
+        this.seed = seed;
+    }
+
+    /**
+     * Play a number of games on one difficulty and wait for the results
+     */
+    public Stats run(Difficulty difficulty, int games) {
+        long start = System.nanoTime();
+        Stats stats = pool.invoke(new BatchTask(difficulty, 0, games));
+        stats.elapsedNanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    /**
+     * Play the same number of games on easy, medium and hard
+     */
+    public List<Stats> runAll(int gamesPerDifficulty) {
+        List<Stats> results = new ArrayList<>();
+        results.add(run(Difficulty.EASY, gamesPerDifficulty));
+        results.add(run(Difficulty.MEDIUM, gamesPerDifficulty));
+        results.add(run(Difficulty.HARD, gamesPerDifficulty));
+        return results;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Plays games [from, to), splitting in halves down to BATCH_SIZE
+     */
+    private final class BatchTask extends RecursiveTask<Stats> {
+        private static final long serialVersionUID = 1L;
+
+        private final Difficulty difficulty;
+        private final int from;
+        private final int to;
+
+        BatchTask(Difficulty difficulty, int from, int to) {
+            this.difficulty = difficulty;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= BATCH_SIZE) {
+                return playBatch(difficulty, from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            BatchTask left = new BatchTask(difficulty, from, middle);
+            left.fork();
+            Stats stats = new BatchTask(difficulty, middle, to).compute();
+            stats.add(left.join());
+            return stats;
+        }
+    }
+
+    private Stats playBatch(Difficulty difficulty, int from, int to) {
+        Stats stats = new Stats(difficulty.name);
+        Random random = new Random(seed * 31 + from);
+        GameBoard board = boardFactory.create(difficulty.rows, difficulty.cols, difficulty.bugs, random);
+        Strategy strategy = strategyFactory.create();
+
+        for (int game = from; game < to; game++) {
+            board.reset();
+            playGame(board, strategy, stats);
+        }
+        return stats;
+    }
+
+    private static void playGame(GameBoard board, Strategy strategy, Stats stats) {
+        int cols = board.getCols();
+        int maxMoves = board.getRows() * cols; // Guards against a strategy repeating a cell
+        int moves = 0;
+        int guesses = 0;
+
+        strategy.startGame(board);
+        while (board.getGameState() == BughisBoard.GameState.PLAYING && moves < maxMoves) {
+            int index = strategy.nextMove(board);
+            if (index < 0) break;
+
+            // The first reveal is always safe thanks to the opening zone
+            if (board.isGameStarted() && strategy.isGuess()) {
+                guesses++;
+            }
+            moves++;
+            board.revealCell(index / cols, index % cols);
+        }
+
+        stats.record(board.getGameState() == BughisBoard.GameState.WON, moves, guesses);
+    }
+
+    /**
+     * Aggregated results for one difficulty
+     */
+    public static final class Stats {
+        public final String difficulty;
+        public int games;
+        public int wins;
+        public long moves;
+        public long guesses;
+        public long elapsedNanos;
+
+        Stats(String difficulty) {
+            this.difficulty = difficulty;
+        }
+
+        void record(boolean won, int gameMoves, int gameGuesses) {
+            games++;
+            if (won) wins++;
+            moves += gameMoves;
+            guesses += gameGuesses;
+        }
+
+        void add(Stats other) {
+            games += other.games;
+            wins += other.wins;
+            moves += other.moves;
+            guesses += other.guesses;
+        }
+
+        public double getWinRate() { return games > 0 ? (double) wins / games : 0; }
+        public double getMovesPerGame() { return games > 0 ? (double) moves / games : 0; }
+        public double getGuessesPerGame() { return games > 0 ? (double) guesses / games : 0; }
+        public double getGamesPerSecond() { return elapsedNanos > 0 ? games * 1e9 / elapsedNanos : 0; }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %6d games  win %5.1f%%  %6.1f moves/game  %5.2f guesses/game  %8.1f games/s",
+                    difficulty, games, getWinRate() * 100, getMovesPerGame(), getGuessesPerGame(), getGamesPerSecond());
+        }
+    }
+
+    /**
+     * Plays MathAnalyzer.getOptimalMove, the move the hint button suggests
+     */
+    public static final class AnalyzerStrategy implements Strategy {
+        private final MathAnalyzer analyzer = new MathAnalyzer();
+        private boolean guess;
+
+        @Override
+        public void startGame(GameBoard board) {
+            analyzer.initializeGame(board);
+        }
+
+        @Override
+        public int nextMove(GameBoard board) {
+            analyzer.updateCompleteAnalysis();
+            MathAnalyzer.OptimalMove move = analyzer.getOptimalMove();
+            if (move.score == Double.NEGATIVE_INFINITY) return -1; // No hidden cell left
+
+            guess = move.probability > SAFE_EPSILON;
+            return move.row * board.getCols() + move.col;
+        }
+
+        @Override
+        public boolean isGuess() {
+            return guess;
+        }
+    }
+
+    /**
+     * Plays the superpowers without cooldowns: Smart Sweep flags every cell the numbers force
+     * to be a bug and reveals every cell they prove safe, then Lightning Strike reveals the
+     * cell with the lowest bug probability
+     */
+    public static final class SuperpowerStrategy implements Strategy {
+        private final MathAnalyzer analyzer = new MathAnalyzer();
+        private final DeductionEngine deductions = new DeductionEngine();
+        private int[] safeCells = new int[16];
+        private int safeCount;
+        private boolean guess;
+
+        @Override
+        public void startGame(GameBoard board) {
+            deductions.reset();
+            safeCount = 0;
+            analyzer.initializeGame(board);
+        }
+
+        @Override
+        public int nextMove(GameBoard board) {
+            if (board.isGameStarted()) {
+                int safe = smartSweep(board);
+                if (safe >= 0) {
+                    guess = false;
+                    return safe;
+                }
+            }
+            analyzer.updateCompleteAnalysis();
+
+            int safest = analyzer.getSafestCell();
+            int cols = board.getCols();
+            guess = safest >= 0 && analyzer.getProbabilityGrid()[safest / cols][safest % cols] > SAFE_EPSILON;
+            return safest;
+        }
+
+        @Override
+        public boolean isGuess() {
+            return guess;
+        }
+
+        /**
+         * Flag the deduced bugs and queue the deduced safe cells
+         * @return Next deduced safe cell still hidden, or -1 if none is left
+         */
+        private int smartSweep(GameBoard board) {
+            int cols = board.getCols();
+            deductions.deduce(board);
+            for (int i = 0; i < deductions.getMineCount(); i++) {
+                int index = deductions.getMine(i);
+                if (!board.isFlagged(index / cols, index % cols)) {
+                    board.toggleFlag(index / cols, index % cols);
+                }
+            }
+            for (int i = 0; i < deductions.getSafeCount(); i++) {
+                if (safeCount == safeCells.length) safeCells = Arrays.copyOf(safeCells, safeCount * 2);
+                safeCells[safeCount++] = deductions.getSafe(i);
+            }
+
+            // Cascades may already have revealed some of the queued cells
+            while (safeCount > 0) {
+                int index = safeCells[--safeCount];
+                if (!board.isRevealed(index / cols, index % cols) && !board.isFlagged(index / cols, index % cols)) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final boolean superpowers = args.length > 1 && args[1].equals("superpower");
+        boolean bitBoard = args.length > 2 && args[2].equals("bit");
+
+        GameSimulator simulator = new GameSimulator(
+                Runtime.getRuntime().availableProcessors(),
+                bitBoard ? BitBoard::new : BughisBoard::new,
+                () -> superpowers ? new SuperpowerStrategy() : new AnalyzerStrategy(),
+                42);
+        try {
+            for (Stats stats : simulator.runAll(games)) {
+                System.out.println(stats);
+            }
+        } finally {
+            simulator.shutdown();
+        }
+    }
+}
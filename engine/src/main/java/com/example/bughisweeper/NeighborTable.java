@@ -0,0 +1,101 @@
+package com.example.bughisweeper;
+
+/**
+ * Precomputed neighbor offsets for a board size, replacing per-call neighbor lists.
+ *
+ * Every cell falls into one of 16 edge classes (touching the top, bottom, left and/or right
+ * border). Each class has a flat-index offset array with the off-board neighbors already
+ * removed, so iterating the neighbors of a cell is a table lookup plus a tight loop with no
+ * bounds checks and no allocation:
+ *
+ * <pre>
+ * int[] offsets = table.offsets(index);
+ * for (int k = 0; k &lt; offsets.length; k++) {
+ *     int neighbor = index + offsets[k];
+ * }
+ * </pre>
+ */
+public final class NeighborTable {
+
+    // Edge class bits
+    private static final int TOP = 1;
+    private static final int BOTTOM = 2;
+    private static final int LEFT = 4;
+    private static final int RIGHT = 8;
+
+    /**
+     * Callback form of the neighbor iteration; keep an instance around to avoid allocation
+     */
+    public interface Visitor {
+        void visit(int neighbor);
+    }
+
+    private final int rows;
+    private final int cols;
+    private final byte[] edgeClass;
+    private final int[][] offsets = new int[16][];
+
+    public NeighborTable(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.edgeClass = new byte[rows * cols];
+
+        for (int edges = 0; edges < 16; edges++) {
+            offsets[edges] = buildOffsets(edges);
+        }
+
+        for (int r = 0; r < rows; r++) {
+            int rowEdges = (r == 0 ? TOP : 0) | (r == rows - 1 ? BOTTOM : 0);
+            for (int c = 0; c < cols; c++) {
+                edgeClass[r * cols + c] = (byte) (rowEdges | (c == 0 ? LEFT : 0) | (c == cols - 1 ? RIGHT : 0));
+            }
+        }
+    }
+
+    private int[] buildOffsets(int edges) {
+        int[] buffer = new int[8];
+        int count = 0;
+        for (int dr = -1; dr <= 1; dr++) {
+            if (dr < 0 && (edges & TOP) != 0) continue;
+            if (dr > 0 && (edges & BOTTOM) != 0) continue;
+            for (int dc = -1; dc <= 1; dc++) {
+                if (dr == 0 && dc == 0) continue; // Skip the cell itself
+                if (dc < 0 && (edges & LEFT) != 0) continue;
+                if (dc > 0 && (edges & RIGHT) != 0) continue;
+                buffer[count++] = dr * cols + dc;
+            }
+        }
+
+        int[] result = new int[count];
+        System.arraycopy(buffer, 0, result, 0, count);
+        return result;
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    /**
+     * Offsets to add to a flat index to get each of its neighbors. The array is shared and
+     * must not be modified.
+     */
+    public int[] offsets(int index) {
+        return offsets[edgeClass[index]];
+    }
+
+    /**
+     * Number of on-board neighbors of a flat index (3, 5 or 8 on boards of at least 2x2)
+     */
+    public int count(int index) {
+        return offsets[edgeClass[index]].length;
+    }
+
+    /**
+     * Call the visitor with the flat index of every neighbor
+     */
+    public void forEach(int index, Visitor visitor) {
+        int[] cellOffsets = offsets[edgeClass[index]];
+        for (int k = 0; k < cellOffsets.length; k++) {
+            visitor.visit(index + cellOffsets[k]);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.bughisweeper;
+
+import java.util.Arrays;
+
+/**
+ * Flat, packed storage for the state of every cell on a board.
+ * Each cell is one byte of a byte[] indexed by row * cols + col:
+ * bits 0-3 hold the adjacent bug count (0-8), bit 4 the bug, bit 5 revealed, bit 6 flagged.
+ * A 1000x1000 board fits in 1 MB instead of a million Cell objects.
+ *
+ * Every change to a cell's bug, revealed or flagged bit is appended to a change journal so
+ * incremental consumers (such as MathAnalyzer) can pick up exactly the cells that changed,
+ * and reported to the region counts once something has asked for them.
+ */
+final class PackedCellStore {
+
+    static final int ADJACENT_MASK = 0x0F;
+    static final int BUG = 0x10;
+    static final int REVEALED = 0x20;
+    static final int FLAGGED = 0x40;
+
+    private static final int TRACKED = BUG | REVEALED | FLAGGED;
+
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+
+    // Change journal: flat indices in the order they changed, restarted with a new epoch
+    private int[] changeLog;
+    private int changeCount;
+    private int changeEpoch;
+
+    // Rectangle counts, created on the first region query
+    private RegionCounts regions;
+
+    PackedCellStore(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new byte[rows * cols];
+        this.changeLog = new int[Math.max(16, Math.min(rows * cols, 1024))];
+    }
+
+    int getRows() { return rows; }
+    int getCols() { return cols; }
+    int size() { return cells.length; }
+
+    int indexOf(int row, int col) {
+        return row * cols + col;
+    }
+
+    /**
+     * Raw packed bits of a cell
+     */
+    int get(int index) {
+        return cells[index] & 0xFF;
+    }
+
+    boolean has(int index, int flag) {
+        return (cells[index] & flag) != 0;
+    }
+
+    void set(int index, int flag, boolean on) {
+        byte before = cells[index];
+        if (on) {
+            cells[index] |= flag;
+        } else {
+            cells[index] &= ~flag;
+        }
+        int changed = (before ^ cells[index]) & TRACKED;
+        if (changed != 0) {
+            logChange(index);
+            if (regions != null) {
+                regions.onChange(index, changed, cells[index]);
+            }
+        }
+    }
+
+    /**
+     * Bug, flag and revealed counts by rectangle, kept current from here on
+     */
+    RegionCounts regions() {
+        if (regions == null) {
+            regions = new RegionCounts(rows, cols);
+            regions.rebuild(this);
+        }
+        return regions;
+    }
+
+    int getAdjacentBugs(int index) {
+        return cells[index] & ADJACENT_MASK;
+    }
+
+    void setAdjacentBugs(int index, int count) {
+        cells[index] = (byte) ((cells[index] & ~ADJACENT_MASK) | (count & ADJACENT_MASK));
+    }
+
+    void incrementAdjacentBugs(int index) {
+        // The count never exceeds 8, so it cannot carry into the flag bits
+        cells[index]++;
+    }
+
+    void clear() {
+        Arrays.fill(cells, (byte) 0);
+        restartJournal();
+        if (regions != null) {
+            regions.clear();
+        }
+    }
+
+    int getChangeEpoch() { return changeEpoch; }
+    int getChangeCount() { return changeCount; }
+    int getChangedIndex(int i) { return changeLog[i]; }
+
+    byte[] copyCells() {
+        return cells.clone();
+    }
+
+    int[] copyChanges(int from) {
+        return Arrays.copyOfRange(changeLog, from, changeCount);
+    }
+
+    private void logChange(int index) {
+        if (changeCount == changeLog.length) {
+            int limit = Math.max(16, cells.length);
+            if (changeLog.length >= limit) {
+                // Flag toggling can grow the journal without bound. Once it holds as many
+                // entries as the board has cells, replaying it costs as much as a rescan, so
+                // readers this far behind resynchronize from scratch instead
+                restartJournal();
+            } else {
+                changeLog = Arrays.copyOf(changeLog, Math.min(limit, changeLog.length * 2));
+            }
+        }
+        changeLog[changeCount++] = index;
+    }
+
+    private void restartJournal() {
+        changeEpoch++;
+        changeCount = 0;
+    }
+}
@@ -0,0 +1,1653 @@
+package com.example.bughisweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Exact mine-probability solver for Bughisweeper.
+ *
+ * The frontier (unknown cells next to revealed numbers) is split into independent
+ * constraint components. Each component's solutions are counted per number of mines by a
+ * backtracking search memoized on the open constraint sums, then all components are combined
+ * with the number of ways the remaining bugs fit into the unconstrained cells. The result is
+ * the true posterior P(bug | everything visible), not a heuristic.
+ *
+ * Component results are memoized by their constraint signature, so components the last
+ * move did not touch are not enumerated again. Components too wide for the search budget
+ * fall back to randomized sampling and the solve is flagged as approximate.
+ *
+ * After a solve, newSampler() draws complete bug layouts consistent with everything visible,
+ * with the same weights the probabilities were computed from.
+ */
+public class ProbabilitySolver {
+
+    // Limits that keep a solve inside a frame on 24x24/99 boards
+    private static final int MAX_ENUMERATED_VARIABLES = 256;
+    private static final long MAX_STATE_SPACE = 1L << 62;
+    private static final int MAX_STATES_PER_STEP = 4096;
+    private static final long MAX_SEARCH_ENTRIES = 250000;
+    private static final int SAMPLES_PER_COMPONENT = 1000;
+    private static final int SAMPLE_NODES_PER_VARIABLE = 16;
+    private static final long SAMPLE_TIME_BUDGET_NANOS = 2000000L;
+    private static final int MIN_SAMPLES = 32;
+
+    // Cell classification
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+
+    private final Random random = new Random();
+
+    // Visible board state, kept between solves so update() only touches what changed
+    private int totalBugs;
+    private int rows;
+    private int cols;
+    private int cellCount;
+    private NeighborTable neighbors;
+    private byte[] state;
+    private int knownMines;
+    private int unknownCells;
+
+    // Revealed numbers with unknown neighbors, as an unordered set of cell indices
+    private int[] constraintCells;
+    private int[] constraintSlot;
+    private int[] constraintTarget;
+    private int constraintCount;
+    private boolean[] contradiction;
+    private int contradictionCount;
+
+    // Unknown cells on the frontier (next to a constraint) and off it, kept in step with the
+    // constraints so neither has to be found by scanning the board
+    private int[] constraintNeighbors;
+    private IndexSet frontierSet;
+    private IndexSet unconstrainedSet;
+
+    // Frontier components, kept between solves. An update dissolves only the components
+    // around the changed cells and regroups their constraints.
+    private final List<Component> components = new ArrayList<>();
+    private Component[] cellComponent;       // Component of each frontier cell
+    private Component[] constraintComponent; // Component of each constraint
+    private boolean componentsValid;
+
+    // Work buffers, reallocated only when the board size changes
+    private int[] parent;
+    private int[] localIndex;
+    private int[] regroup;        // Constraints to regroup into new components
+    private boolean[] regrouped;
+    private int regroupCount;
+    private int[] released;       // Cells of dissolved components
+    private int releasedCount;
+    private int[] groupOf;        // Group of each union-find root while regrouping
+    private int[] groupCells;
+    private int[] updatedCells;
+    private int updatedCount;
+
+    private double[] logFactorials = new double[] {0.0};
+
+    // Memoized component results, keyed by constraint signature
+    private final Map<ComponentKey, ComponentResult> cache = new HashMap<>();
+    private int generation;
+
+    // Last solve summary
+    private boolean exact = true;
+    private int frontierSize;
+    private int componentCount;
+    private double unconstrainedProbability = -1;
+    private int unconstrainedCount;
+
+    // Last combination, kept for newSampler (null after a uniform fallback)
+    private ComponentResult[] lastComponents;
+    private Series[] lastPrefix;
+    private double[] lastWays;
+    private int lastRemainingBugs;
+
+    /**
+     * Write the posterior bug probability of every cell into the grid.
+     * Revealed safe cells get 0, flagged cells and revealed bugs get 1.
+     * @param board Board to analyze; only visible information is read
+     * @param probabilityGrid Output grid sized [rows][cols]
+     */
+    public void solve(ReadableBoard board, double[][] probabilityGrid) {
+        totalBugs = board.getTotalBugs();
+        rows = board.getRows();
+        cols = board.getCols();
+        ensureCapacity(rows * cols);
+        if (neighbors == null || neighbors.getRows() != rows || neighbors.getCols() != cols) {
+            neighbors = new NeighborTable(rows, cols);
+        }
+
+        // Classify every cell using only what the player can see
+        knownMines = 0;
+        unknownCells = 0;
+        for (int index = 0; index < cellCount; index++) {
+            state[index] = classify(board, index);
+            if (state[index] == MINE) knownMines++;
+            else if (state[index] == UNKNOWN) unknownCells++;
+        }
+
+        constraintCount = 0;
+        contradictionCount = 0;
+        Arrays.fill(constraintSlot, -1);
+        Arrays.fill(contradiction, false);
+        Arrays.fill(constraintNeighbors, 0);
+        for (int index = 0; index < cellCount; index++) {
+            if (state[index] == SAFE) refreshConstraint(board, index);
+        }
+        frontierSet.clear();
+        unconstrainedSet.clear();
+        for (int index = 0; index < cellCount; index++) {
+            refreshMembership(index);
+        }
+
+        componentsValid = false;
+        solveFrontier(probabilityGrid, null, 0);
+    }
+
+    /**
+     * Bring the grid up to date after some cells changed. Only constraints around the changed
+     * cells are rebuilt, untouched components come from the cache, and only the changed cells,
+     * the frontier and (if their shared value moved) the unconstrained cells are rewritten.
+     * @param board The board (or a later snapshot of it) the grid was last solved for; a board
+     *              of another size gets a full solve
+     * @param probabilityGrid Grid written by the previous solve or update
+     * @param changed Flat indices of the cells whose visible state changed
+     * @param changedCount Number of entries of changed to use
+     * @return True if the rewritten cells are exactly getUpdatedCell(0..getUpdatedCount()) plus
+     *         the unconstrained cells; false if the whole grid was rewritten
+     */
+    public boolean update(ReadableBoard board, double[][] probabilityGrid, int[] changed, int changedCount) {
+        if (board.getRows() != rows || board.getCols() != cols || state == null) {
+            solve(board, probabilityGrid);
+            return false;
+        }
+
+        for (int i = 0; i < changedCount; i++) {
+            int index = changed[i];
+            byte before = state[index];
+            byte after = classify(board, index);
+            if (before == after) continue;
+
+            if (before == MINE) knownMines--;
+            else if (before == UNKNOWN) unknownCells--;
+            if (after == MINE) knownMines++;
+            else if (after == UNKNOWN) unknownCells++;
+            state[index] = after;
+            refreshMembership(index);
+            if (componentsValid) dissolve(cellComponent[index]);
+        }
+
+        // A cell's change can only affect the constraints of the numbers around it
+        for (int i = 0; i < changedCount; i++) {
+            int index = changed[i];
+            touchConstraint(board, index);
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                touchConstraint(board, index + offsets[k]);
+            }
+        }
+
+        return solveFrontier(probabilityGrid, changed, changedCount);
+    }
+
+    /**
+     * Whether the last solve enumerated every component exactly
+     */
+    public boolean isExact() { return exact; }
+
+    /**
+     * Number of unknown cells adjacent to revealed numbers in the last solve
+     */
+    public int getFrontierSize() { return frontierSize; }
+
+    /**
+     * Number of independent constraint components in the last solve
+     */
+    public int getComponentCount() { return componentCount; }
+
+    /**
+     * Frontier cell i of the last solve, as a flat index
+     */
+    public int getFrontierCell(int i) { return frontierSet.get(i); }
+
+    /**
+     * Bug probability shared by every unknown cell not touching a revealed number
+     */
+    public double getUnconstrainedProbability() { return unconstrainedProbability; }
+
+    /**
+     * Number of unknown cells not touching a revealed number
+     */
+    public int getUnconstrainedCount() { return unconstrainedCount; }
+
+    /**
+     * Unknown cell i not touching a revealed number, as a flat index. Not available after a
+     * uniform fallback (contradicting flags), where every unknown cell counts as unconstrained.
+     */
+    public int getUnconstrainedCell(int i) { return unconstrainedSet.get(i); }
+
+    /**
+     * Cells rewritten by the last incremental update (changed cells, cells that left the
+     * frontier and the frontier itself). May contain duplicates.
+     */
+    public int getUpdatedCount() { return updatedCount; }
+    public int getUpdatedCell(int i) { return updatedCells[i]; }
+
+    /**
+     * Sampler of bug layouts for the board of the last solve or update. Layouts are uniform
+     * over all layouts consistent with the visible numbers, flags and bug count (exactly so
+     * when isExact()). The sampler is immutable and can be shared between threads.
+     * @return Null if the visible state is contradictory
+     */
+    public LayoutSampler newSampler() {
+        if (lastComponents == null) return null;
+
+        int[] unconstrained = new int[unconstrainedSet.size()];
+        for (int i = 0; i < unconstrained.length; i++) {
+            unconstrained[i] = unconstrainedSet.get(i);
+        }
+        int[] mines = new int[knownMines];
+        int k = 0;
+        for (int index = 0; index < cellCount; index++) {
+            if (state[index] == MINE) mines[k++] = index;
+        }
+        return new LayoutSampler(lastComponents, lastPrefix, lastWays, lastRemainingBugs, unconstrained, mines);
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Visible state
+    // ---------------------------------------------------------------------------------------
+
+    private byte classify(ReadableBoard board, int index) {
+        int r = index / cols;
+        int c = index - r * cols;
+        if (board.isRevealed(r, c)) {
+            return board.hasBug(r, c) ? MINE : SAFE;
+        }
+        // Flagged cells are treated as bugs
+        return board.isFlagged(r, c) ? MINE : UNKNOWN;
+    }
+
+    /**
+     * Recompute whether a cell is a constraint (a revealed number with unknown neighbors)
+     * and whether its number contradicts the flags around it
+     */
+    private void refreshConstraint(ReadableBoard board, int index) {
+        boolean isConstraint = false;
+        boolean contradicts = false;
+
+        if (state[index] == SAFE) {
+            int unknownNeighbors = 0;
+            int mineNeighbors = 0;
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                byte neighborState = state[index + offsets[k]];
+                if (neighborState == MINE) mineNeighbors++;
+                else if (neighborState == UNKNOWN) unknownNeighbors++;
+            }
+
+            int r = index / cols;
+            int target = board.getAdjacentBugs(r, index - r * cols) - mineNeighbors;
+            if (target < 0 || target > unknownNeighbors) {
+                contradicts = true;
+            } else if (unknownNeighbors > 0) {
+                isConstraint = true;
+                constraintTarget[index] = target;
+            }
+        }
+
+        if (contradicts != contradiction[index]) {
+            contradiction[index] = contradicts;
+            contradictionCount += contradicts ? 1 : -1;
+        }
+
+        int slot = constraintSlot[index];
+        if (isConstraint && slot < 0) {
+            constraintSlot[index] = constraintCount;
+            constraintCells[constraintCount++] = index;
+            countConstraintAround(index, 1);
+        } else if (!isConstraint && slot >= 0) {
+            // Swap-remove; component keys sort constraints, so set order does not matter
+            int last = constraintCells[--constraintCount];
+            constraintCells[slot] = last;
+            constraintSlot[last] = slot;
+            constraintSlot[index] = -1;
+            countConstraintAround(index, -1);
+        }
+    }
+
+    private void countConstraintAround(int index, int delta) {
+        int[] offsets = neighbors.offsets(index);
+        for (int k = 0; k < offsets.length; k++) {
+            int neighbor = index + offsets[k];
+            constraintNeighbors[neighbor] += delta;
+            refreshMembership(neighbor);
+        }
+    }
+
+    /**
+     * Put an unknown cell in the frontier or the unconstrained set, or take a known cell out
+     */
+    private void refreshMembership(int index) {
+        boolean unknown = state[index] == UNKNOWN;
+        boolean onFrontier = unknown && constraintNeighbors[index] > 0;
+        frontierSet.set(index, onFrontier);
+        unconstrainedSet.set(index, unknown && !onFrontier);
+    }
+
+    /**
+     * Refresh a constraint after a change next to it and dissolve the components it belonged
+     * to or now reaches into
+     */
+    private void touchConstraint(ReadableBoard board, int index) {
+        refreshConstraint(board, index);
+        if (!componentsValid) return;
+
+        dissolve(constraintComponent[index]);
+        if (constraintSlot[index] < 0) return;
+        addRegroup(index);
+        int[] offsets = neighbors.offsets(index);
+        for (int k = 0; k < offsets.length; k++) {
+            dissolve(cellComponent[index + offsets[k]]);
+        }
+    }
+
+    private boolean solveFrontier(double[][] probabilityGrid, int[] changed, int changedCount) {
+        generation++;
+        exact = true;
+        updatedCount = 0;
+
+        int remainingBugs = totalBugs - knownMines;
+        if (contradictionCount > 0 || remainingBugs < 0 || remainingBugs > unknownCells) {
+            // Flags contradict the numbers - fall back to the uniform estimate
+            writeUniform(probabilityGrid, remainingBugs);
+            return false;
+        }
+
+        if (!componentsValid) {
+            // Every component is regrouped, so the whole grid is rewritten too
+            changed = null;
+        }
+        rebuildComponents();
+        List<ComponentResult> results = new ArrayList<>(components.size());
+        for (Component component : components) {
+            component.result.generation = generation;
+            if (!component.result.exact) exact = false;
+            results.add(component.result);
+        }
+        frontierSize = frontierSet.size();
+        componentCount = components.size();
+
+        lastComponents = null;
+        boolean incremental = combine(results, probabilityGrid, remainingBugs, changed, changedCount);
+        releasedCount = 0;
+        evictStaleResults();
+        return incremental;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Component construction
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Take a component apart: its constraints are queued to regroup and its cells are
+     * released, to be written as unconstrained unless a new component picks them up
+     */
+    private void dissolve(Component component) {
+        if (component == null) return;
+
+        int slot = component.slot;
+        Component last = components.remove(components.size() - 1);
+        if (last != component) {
+            components.set(slot, last);
+            last.slot = slot;
+        }
+        component.slot = -1;
+
+        for (int constraint : component.constraints) {
+            constraintComponent[constraint] = null;
+            addRegroup(constraint);
+        }
+        for (int cell : component.cells) {
+            cellComponent[cell] = null;
+            released[releasedCount++] = cell;
+        }
+    }
+
+    private void addRegroup(int constraint) {
+        if (regrouped[constraint]) return;
+        regrouped[constraint] = true;
+        regroup[regroupCount++] = constraint;
+    }
+
+    /**
+     * Group the queued constraints into components, pulling in any component they now
+     * reach, and solve (or look up) each new component
+     */
+    private void rebuildComponents() {
+        if (!componentsValid) {
+            components.clear();
+            Arrays.fill(cellComponent, null);
+            Arrays.fill(constraintComponent, null);
+            releasedCount = 0;
+            for (int i = 0; i < constraintCount; i++) {
+                addRegroup(constraintCells[i]);
+            }
+            componentsValid = true;
+        }
+
+        // Close the queue over components that share a cell with a queued constraint, and
+        // link the unknown neighbors of each queued constraint
+        for (int i = 0; i < regroupCount; i++) {
+            int index = regroup[i];
+            if (constraintSlot[index] < 0) continue;
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                int neighbor = index + offsets[k];
+                if (state[neighbor] != UNKNOWN) continue;
+                dissolve(cellComponent[neighbor]);
+                parent[neighbor] = neighbor;
+            }
+        }
+        for (int i = 0; i < regroupCount; i++) {
+            int index = regroup[i];
+            if (constraintSlot[index] < 0) continue;
+            int first = -1;
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                int neighbor = index + offsets[k];
+                if (state[neighbor] != UNKNOWN) continue;
+                if (first < 0) first = neighbor;
+                else union(first, neighbor);
+            }
+        }
+
+        // Number the groups by root and count their constraints and cells
+        int groupCount = 0;
+        int[] groupConstraints = new int[regroupCount + 1];
+        int[] groupCellCounts = new int[regroupCount + 1];
+        int cellTotal = 0;
+        for (int i = 0; i < regroupCount; i++) {
+            int index = regroup[i];
+            if (constraintSlot[index] < 0) continue;
+            int root = -1;
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                int neighbor = index + offsets[k];
+                if (state[neighbor] != UNKNOWN) continue;
+                root = find(neighbor);
+                if (groupOf[root] < 0) groupOf[root] = groupCount++;
+                if (localIndex[neighbor] < 0) {
+                    localIndex[neighbor] = 0; // Mark as collected
+                    groupCells[cellTotal++] = neighbor;
+                    groupCellCounts[groupOf[root] + 1]++;
+                }
+            }
+            groupConstraints[groupOf[root] + 1]++;
+        }
+
+        // Counting sort of constraints and cells by group
+        for (int g = 0; g < groupCount; g++) {
+            groupConstraints[g + 1] += groupConstraints[g];
+            groupCellCounts[g + 1] += groupCellCounts[g];
+        }
+        int[] constraintsByGroup = new int[groupConstraints[groupCount]];
+        int[] cellsByGroup = new int[cellTotal];
+        int[] constraintFill = Arrays.copyOf(groupConstraints, groupCount);
+        int[] cellFill = Arrays.copyOf(groupCellCounts, groupCount);
+        for (int i = 0; i < regroupCount; i++) {
+            int index = regroup[i];
+            if (constraintSlot[index] < 0) continue;
+            int[] offsets = neighbors.offsets(index);
+            for (int k = 0; k < offsets.length; k++) {
+                int neighbor = index + offsets[k];
+                if (state[neighbor] == UNKNOWN) {
+                    constraintsByGroup[constraintFill[groupOf[find(neighbor)]]++] = index;
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < cellTotal; i++) {
+            int cell = groupCells[i];
+            cellsByGroup[cellFill[groupOf[find(cell)]]++] = cell;
+        }
+
+        for (int g = 0; g < groupCount; g++) {
+            int[] cells = Arrays.copyOfRange(cellsByGroup, groupCellCounts[g], groupCellCounts[g + 1]);
+            // Sorting the constraints by cell index makes the key canonical
+            int[] constraints = Arrays.copyOfRange(constraintsByGroup, groupConstraints[g], groupConstraints[g + 1]);
+            Arrays.sort(cells);
+            Arrays.sort(constraints);
+            addComponent(cells, constraints);
+        }
+
+        for (int i = 0; i < cellTotal; i++) {
+            int cell = groupCells[i];
+            groupOf[find(cell)] = -1;
+        }
+        for (int i = 0; i < regroupCount; i++) {
+            regrouped[regroup[i]] = false;
+        }
+        regroupCount = 0;
+    }
+
+    private void addComponent(int[] cells, int[] constraints) {
+        for (int i = 0; i < cells.length; i++) {
+            localIndex[cells[i]] = i;
+        }
+
+        int[] key = new int[cells.length + constraints.length * 2];
+        System.arraycopy(cells, 0, key, 0, cells.length);
+        int[][] constraintVars = new int[constraints.length][];
+        int[] targets = new int[constraints.length];
+        for (int i = 0; i < constraints.length; i++) {
+            int index = constraints[i];
+            key[cells.length + i * 2] = index;
+            key[cells.length + i * 2 + 1] = constraintTarget[index];
+            targets[i] = constraintTarget[index];
+            constraintVars[i] = collectVariables(index);
+        }
+
+        ComponentKey componentKey = new ComponentKey(key);
+        ComponentResult result = cache.get(componentKey);
+        if (result == null) {
+            result = solveComponent(cells, constraintVars, targets);
+            cache.put(componentKey, result);
+        }
+
+        Component component = new Component(cells, constraints, result);
+        component.slot = components.size();
+        components.add(component);
+        for (int cell : cells) {
+            localIndex[cell] = -1;
+            cellComponent[cell] = component;
+        }
+        for (int constraint : constraints) {
+            constraintComponent[constraint] = component;
+        }
+    }
+
+    private int[] collectVariables(int index) {
+        int[] buffer = new int[8];
+        int count = 0;
+        int[] offsets = neighbors.offsets(index);
+        for (int k = 0; k < offsets.length; k++) {
+            int neighbor = index + offsets[k];
+            if (state[neighbor] == UNKNOWN) {
+                buffer[count++] = localIndex[neighbor];
+            }
+        }
+        return Arrays.copyOf(buffer, count);
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Component enumeration
+    // ---------------------------------------------------------------------------------------
+
+    private ComponentResult solveComponent(int[] cells, int[][] constraintVars, int[] targets) {
+        ComponentSearch search = new ComponentSearch(cells, constraintVars, targets);
+
+        if (cells.length <= MAX_ENUMERATED_VARIABLES && search.enumerate()) {
+            return search.toExactResult();
+        }
+        return search.sample(random, SAMPLES_PER_COMPONENT);
+    }
+
+    /**
+     * Search over one component's variables.
+     *
+     * Variables are assigned in a fixed order and the search is memoized on the partial
+     * sums of the constraints that are still open at each step: two branches that leave the
+     * open constraints with the same sums have identical futures, so they are merged and only
+     * their solution counts (per number of mines so far) are carried forward. Frontiers are
+     * long, thin chains, so the number of distinct states per step stays small and the whole
+     * solution space is counted without visiting every solution.
+     */
+    private static final class ComponentSearch {
+        private final int[] cells;
+        private final int[][] constraintVars;
+        private final int[] targets;
+        private final int[][] varConstraints;
+
+        private int[] order;
+        private int[] position;
+        private int[] lastPosition;
+        private int[][] openConstraints;
+        private long[][] strides;
+
+        // Solution counts per search state and per number of mines so far, by step
+        private double[][][] forward;
+        private int[][] next;
+
+        ComponentSearch(int[] cells, int[][] constraintVars, int[] targets) {
+            this.cells = cells;
+            this.constraintVars = constraintVars;
+            this.targets = targets;
+            int n = cells.length;
+
+            // Invert constraint -> variables into variable -> constraints
+            int[] degree = new int[n];
+            for (int[] vars : constraintVars) {
+                for (int v : vars) degree[v]++;
+            }
+            varConstraints = new int[n][];
+            for (int v = 0; v < n; v++) {
+                varConstraints[v] = new int[degree[v]];
+                degree[v] = 0;
+            }
+            for (int c = 0; c < constraintVars.length; c++) {
+                for (int v : constraintVars[c]) {
+                    varConstraints[v][degree[v]++] = c;
+                }
+            }
+        }
+
+        /**
+         * Count every solution exactly
+         * @return False if the component is too wide for the state budget
+         */
+        boolean enumerate() {
+            int n = cells.length;
+            chooseOrder();
+            if (!computeOpenConstraints()) return false;
+
+            forward = new double[n + 1][][];
+            next = new int[n][];
+            forward[0] = new double[][] {{1.0}};
+            long[] keys = {0L};
+
+            int[] sums = new int[constraintVars.length];
+            long entries = 0;
+
+            for (int i = 0; i < n; i++) {
+                int v = order[i];
+                int[] openBefore = openConstraints[i];
+                int[] openAfter = openConstraints[i + 1];
+                long[] strideBefore = strides[i];
+                long[] strideAfter = strides[i + 1];
+                double[][] layer = forward[i];
+
+                LongIndexMap nextStates = new LongIndexMap();
+                List<double[]> nextLayer = new ArrayList<>();
+                int[] transitions = new int[layer.length * 2];
+
+                for (int s = 0; s < layer.length; s++) {
+                    // Decode the open constraint sums; constraints starting here begin at 0
+                    for (int c : varConstraints[v]) sums[c] = 0;
+                    long key = keys[s];
+                    for (int j = 0; j < openBefore.length; j++) {
+                        sums[openBefore[j]] = (int) ((key / strideBefore[j]) % (targets[openBefore[j]] + 1));
+                    }
+
+                    for (int x = 0; x <= 1; x++) {
+                        transitions[s * 2 + x] = -1;
+                        if (!feasible(v, i, sums, x)) continue;
+
+                        long nextKey = 0;
+                        for (int j = 0; j < openAfter.length; j++) {
+                            int c = openAfter[j];
+                            int sum = sums[c] + (touches(v, c) ? x : 0);
+                            nextKey += sum * strideAfter[j];
+                        }
+
+                        int id = nextStates.get(nextKey);
+                        if (id < 0) {
+                            id = nextStates.put(nextKey);
+                            nextLayer.add(new double[i + 2]);
+                            entries += i + 2;
+                            if (nextLayer.size() > MAX_STATES_PER_STEP || entries > MAX_SEARCH_ENTRIES) {
+                                return false;
+                            }
+                        }
+
+                        double[] from = layer[s];
+                        double[] to = nextLayer.get(id);
+                        for (int a = 0; a < from.length; a++) {
+                            to[a + x] += from[a];
+                        }
+                        transitions[s * 2 + x] = id;
+                    }
+                }
+
+                next[i] = transitions;
+                forward[i + 1] = nextLayer.toArray(new double[nextLayer.size()][]);
+                keys = nextStates.keys();
+            }
+            return true;
+        }
+
+        private boolean feasible(int v, int i, int[] sums, int x) {
+            for (int c : varConstraints[v]) {
+                int sum = sums[c] + x;
+                if (sum > targets[c]) return false;
+                if (lastPosition[c] == i) {
+                    if (sum != targets[c]) return false;
+                } else if (sum + remainingAfter(c, i) < targets[c]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int remainingAfter(int c, int i) {
+            int remaining = 0;
+            for (int v : constraintVars[c]) {
+                if (position[v] > i) remaining++;
+            }
+            return remaining;
+        }
+
+        private boolean touches(int v, int c) {
+            for (int other : varConstraints[v]) {
+                if (other == c) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Greedy order that keeps as few constraints open as possible: always continue with
+         * the variable that closes the most constraints and opens the fewest new ones
+         */
+        private void chooseOrder() {
+            int n = cells.length;
+            order = new int[n];
+            position = new int[n];
+            Arrays.fill(position, -1);
+            int[] unassignedInConstraint = new int[constraintVars.length];
+            for (int c = 0; c < constraintVars.length; c++) {
+                unassignedInConstraint[c] = constraintVars[c].length;
+            }
+
+            for (int i = 0; i < n; i++) {
+                int best = -1;
+                int bestScore = Integer.MAX_VALUE;
+                boolean bestConnected = false;
+                for (int v = 0; v < n; v++) {
+                    if (position[v] >= 0) continue;
+
+                    int score = 0;
+                    boolean connected = false;
+                    for (int c : varConstraints[v]) {
+                        int remaining = unassignedInConstraint[c];
+                        if (remaining == constraintVars[c].length) {
+                            score++; // Would open a new constraint
+                        } else {
+                            connected = true;
+                        }
+                        if (remaining == 1) {
+                            score--; // Would close a constraint
+                        }
+                    }
+                    if ((connected && !bestConnected) || (connected == bestConnected && score < bestScore)) {
+                        best = v;
+                        bestScore = score;
+                        bestConnected = connected;
+                    }
+                }
+
+                order[i] = best;
+                position[best] = i;
+                for (int c : varConstraints[best]) {
+                    unassignedInConstraint[c]--;
+                }
+            }
+        }
+
+        /**
+         * Constraints open at boundary i have variables both before and at/after position i
+         * @return False if the open sums cannot be packed into a single key
+         */
+        private boolean computeOpenConstraints() {
+            int n = cells.length;
+            int[] firstPosition = new int[constraintVars.length];
+            lastPosition = new int[constraintVars.length];
+            for (int c = 0; c < constraintVars.length; c++) {
+                firstPosition[c] = Integer.MAX_VALUE;
+                lastPosition[c] = -1;
+                for (int v : constraintVars[c]) {
+                    firstPosition[c] = Math.min(firstPosition[c], position[v]);
+                    lastPosition[c] = Math.max(lastPosition[c], position[v]);
+                }
+            }
+
+            // Open sums are packed into a mixed-radix key, digit j ranging over 0..target
+            openConstraints = new int[n + 1][];
+            strides = new long[n + 1][];
+            int[] buffer = new int[constraintVars.length];
+            for (int i = 0; i <= n; i++) {
+                int count = 0;
+                for (int c = 0; c < constraintVars.length; c++) {
+                    if (firstPosition[c] < i && lastPosition[c] >= i) {
+                        buffer[count++] = c;
+                    }
+                }
+                openConstraints[i] = Arrays.copyOf(buffer, count);
+                strides[i] = new long[count];
+                long stride = 1;
+                for (int j = 0; j < count; j++) {
+                    strides[i][j] = stride;
+                    int radix = targets[buffer[j]] + 1;
+                    if (stride > MAX_STATE_SPACE / radix) return false;
+                    stride *= radix;
+                }
+            }
+            return true;
+        }
+
+        ComponentResult toExactResult() {
+            int n = cells.length;
+            double[] counts = new double[n + 1];
+            double[][] last = forward[n];
+            if (last.length > 0) {
+                System.arraycopy(last[0], 0, counts, 0, n + 1);
+            }
+            return new ComponentResult(cells, counts, order, forward, next, null, null);
+        }
+
+        /**
+         * Draw random solutions for components too large to enumerate. Each draw is a
+         * depth-first search over the variables in order that tries a random value first and
+         * backtracks on dead ends, within a node budget. Sampling stops early once the time
+         * budget is spent and a minimum number of solutions was found (or four times the
+         * budget if it was not). Draws are not exactly uniform, so the result is marked
+         * approximate.
+         */
+        ComponentResult sample(Random random, int samples) {
+            int n = cells.length;
+            if (order == null) {
+                chooseOrder();
+            }
+            double[] counts = new double[n + 1];
+            double[][] cellCounts = new double[n + 1][n];
+            List<byte[]> solutions = new ArrayList<>();
+
+            int[] assignment = new int[n];
+            int[] firstValue = new int[n];
+            int[] tried = new int[n];
+            constraintMines = new int[constraintVars.length];
+            constraintUnassigned = new int[constraintVars.length];
+
+            long start = System.nanoTime();
+            int found = 0;
+            for (int draw = 0; draw < samples; draw++) {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed > SAMPLE_TIME_BUDGET_NANOS * 4
+                        || (elapsed > SAMPLE_TIME_BUDGET_NANOS && found >= MIN_SAMPLES)) {
+                    break;
+                }
+
+                for (int c = 0; c < constraintVars.length; c++) {
+                    constraintMines[c] = 0;
+                    constraintUnassigned[c] = constraintVars[c].length;
+                }
+
+                int i = 0;
+                int mines = 0;
+                int budget = n * SAMPLE_NODES_PER_VARIABLE;
+                tried[0] = 0;
+                firstValue[0] = random.nextInt(2);
+
+                while (i >= 0 && i < n && budget-- > 0) {
+                    int v = order[i];
+                    if (tried[i] == 2) {
+                        // Both values failed below this point: undo the previous variable
+                        i--;
+                        if (i >= 0) {
+                            mines -= assignment[order[i]];
+                            assign(order[i], -assignment[order[i]], 1);
+                        }
+                        continue;
+                    }
+
+                    int value = tried[i] == 0 ? firstValue[i] : 1 - firstValue[i];
+                    tried[i]++;
+                    if (fits(v, value)) {
+                        assignment[v] = value;
+                        mines += value;
+                        assign(v, value, -1);
+                        i++;
+                        if (i < n) {
+                            tried[i] = 0;
+                            firstValue[i] = random.nextInt(2);
+                        }
+                    }
+                }
+
+                if (i == n) {
+                    found++;
+                    counts[mines]++;
+                    byte[] solution = new byte[n];
+                    for (int v = 0; v < n; v++) {
+                        if (assignment[v] == 1) cellCounts[mines][v]++;
+                        solution[v] = (byte) assignment[v];
+                    }
+                    solutions.add(solution);
+                }
+            }
+
+            if (found == 0) {
+                // No solution found in time: treat the component as unconstrained cells
+                double ways = 1;
+                for (int k = 0; k <= n; k++) {
+                    counts[k] = ways;
+                    for (int v = 0; v < n; v++) {
+                        cellCounts[k][v] = ways * k / n;
+                    }
+                    ways = ways * (n - k) / (k + 1);
+                }
+                solutions = null;
+            }
+            return new ComponentResult(cells, counts, null, null, null, cellCounts, solutions);
+        }
+
+        // Sampling state: bugs assigned and variables still unassigned per constraint
+        private int[] constraintMines;
+        private int[] constraintUnassigned;
+
+        private boolean fits(int v, int value) {
+            for (int c : varConstraints[v]) {
+                int sum = constraintMines[c] + value;
+                if (sum > targets[c] || sum + constraintUnassigned[c] - 1 < targets[c]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void assign(int v, int mineDelta, int unassignedDelta) {
+            for (int c : varConstraints[v]) {
+                constraintMines[c] += mineDelta;
+                constraintUnassigned[c] += unassignedDelta;
+            }
+        }
+    }
+
+    /**
+     * Minimal open-addressing map from search state keys to dense state ids
+     */
+    private static final class LongIndexMap {
+        private long[] table = new long[32];
+        private int[] ids = new int[32];
+        private long[] insertionOrder = new long[16];
+        private int size;
+
+        LongIndexMap() {
+            Arrays.fill(ids, -1);
+        }
+
+        int get(long key) {
+            int mask = table.length - 1;
+            for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+                if (ids[slot] < 0) return -1;
+                if (table[slot] == key) return ids[slot];
+            }
+        }
+
+        int put(long key) {
+            if ((size + 1) * 2 > table.length) grow();
+            int mask = table.length - 1;
+            int slot = mix(key) & mask;
+            while (ids[slot] >= 0) slot = (slot + 1) & mask;
+            table[slot] = key;
+            ids[slot] = size;
+            if (size == insertionOrder.length) {
+                insertionOrder = Arrays.copyOf(insertionOrder, size * 2);
+            }
+            insertionOrder[size] = key;
+            return size++;
+        }
+
+        long[] keys() {
+            return Arrays.copyOf(insertionOrder, size);
+        }
+
+        private void grow() {
+            long[] oldTable = table;
+            int[] oldIds = ids;
+            table = new long[oldTable.length * 2];
+            ids = new int[oldIds.length * 2];
+            Arrays.fill(ids, -1);
+            int mask = table.length - 1;
+            for (int i = 0; i < oldTable.length; i++) {
+                if (oldIds[i] < 0) continue;
+                int slot = mix(oldTable[i]) & mask;
+                while (ids[slot] >= 0) slot = (slot + 1) & mask;
+                table[slot] = oldTable[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Global combination
+    // ---------------------------------------------------------------------------------------
+
+    /**
+     * Weight every component by the rest of the board and write the probabilities
+     * @param changed Cells changed since the last solve, or null to rewrite the whole grid
+     * @return True if only changed, released, frontier and (when their value moved) unconstrained cells were written
+     */
+    private boolean combine(List<ComponentResult> components, double[][] probabilityGrid,
+                            int remainingBugs, int[] changed, int changedCount) {
+        int unconstrained = unknownCells - frontierSize;
+        int m = components.size();
+        // Prefix/suffix convolutions of the per-component mine-count distributions
+        Series[] prefix = new Series[m + 1];
+        Series[] suffix = new Series[m + 1];
+        prefix[0] = Series.ONE;
+        for (int i = 0; i < m; i++) {
+            prefix[i + 1] = prefix[i].convolve(components.get(i).counts);
+        }
+        suffix[m] = Series.ONE;
+        for (int i = m - 1; i >= 0; i--) {
+            suffix[i] = suffix[i + 1].convolve(components.get(i).counts);
+        }
+
+        // Ways to place t of the remaining bugs on the frontier: C(unconstrained, remaining - t)
+        int maxFrontierMines = prefix[m].values.length - 1;
+        double[] logWays = new double[maxFrontierMines + 1];
+        double maxLogWays = Double.NEGATIVE_INFINITY;
+        ensureLogFactorials(unconstrained);
+        for (int t = 0; t <= maxFrontierMines; t++) {
+            logWays[t] = logBinomial(unconstrained, remainingBugs - t);
+            maxLogWays = Math.max(maxLogWays, logWays[t]);
+        }
+        double[] ways = new double[maxFrontierMines + 1];
+        for (int t = 0; t <= maxFrontierMines; t++) {
+            ways[t] = Double.isInfinite(logWays[t]) ? 0 : Math.exp(logWays[t] - maxLogWays);
+        }
+
+        double total = 0;
+        double unconstrainedMines = 0;
+        double[] all = prefix[m].values;
+        for (int t = 0; t < all.length; t++) {
+            double weight = all[t] * ways[t];
+            total += weight;
+            unconstrainedMines += weight * (remainingBugs - t);
+        }
+
+        if (!(total > 0) || Double.isInfinite(total)) {
+            writeUniform(probabilityGrid, remainingBugs);
+            return false;
+        }
+
+        double probability = unconstrained > 0 ? unconstrainedMines / total / unconstrained : 0;
+        boolean incremental = changed != null;
+
+        if (!incremental) {
+            // Known cells and unconstrained unknown cells
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    probabilityGrid[r][c] = valueOf(r * cols + c, probability);
+                }
+            }
+        } else {
+            if (probability != unconstrainedProbability) {
+                for (int i = 0; i < unconstrainedSet.size(); i++) {
+                    int cell = unconstrainedSet.get(i);
+                    int r = cell / cols;
+                    probabilityGrid[r][cell - r * cols] = probability;
+                }
+            }
+            // Changed cells and cells that dropped off the frontier
+            for (int i = 0; i < changedCount; i++) {
+                writeCell(probabilityGrid, changed[i], valueOf(changed[i], probability));
+            }
+            for (int i = 0; i < releasedCount; i++) {
+                int cell = released[i];
+                if (cellComponent[cell] == null) {
+                    writeCell(probabilityGrid, cell, valueOf(cell, probability));
+                }
+            }
+        }
+        unconstrainedProbability = probability;
+        unconstrainedCount = unconstrained;
+
+        // Frontier cells: weight each component's solutions by everything outside it
+        for (int i = 0; i < m; i++) {
+            ComponentResult component = components.get(i);
+            Series others = prefix[i].convolve(suffix[i + 1]);
+            double scale = Math.exp(others.logScale - prefix[m].logScale);
+
+            double[] weightByMines = new double[component.counts.length];
+            for (int k = 0; k < weightByMines.length; k++) {
+                double weight = 0;
+                for (int s = 0; s < others.values.length && k + s < ways.length; s++) {
+                    weight += others.values[s] * ways[k + s];
+                }
+                weightByMines[k] = weight * scale / total;
+            }
+
+            double[] marginals = component.marginals(weightByMines);
+            for (int v = 0; v < component.cells.length; v++) {
+                writeCell(probabilityGrid, component.cells[v], Math.max(0.0, Math.min(1.0, marginals[v])));
+            }
+        }
+
+        lastComponents = components.toArray(new ComponentResult[m]);
+        lastPrefix = prefix;
+        lastWays = ways;
+        lastRemainingBugs = remainingBugs;
+        return incremental;
+    }
+
+    private double valueOf(int index, double unconstrained) {
+        byte cellState = state[index];
+        return cellState == SAFE ? 0.0 : cellState == MINE ? 1.0 : unconstrained;
+    }
+
+    private void writeCell(double[][] probabilityGrid, int index, double value) {
+        int r = index / cols;
+        probabilityGrid[r][index - r * cols] = value;
+        if (updatedCount == updatedCells.length) {
+            updatedCells = Arrays.copyOf(updatedCells, updatedCount * 2);
+        }
+        updatedCells[updatedCount++] = index;
+    }
+
+    private void writeUniform(double[][] probabilityGrid, int remainingBugs) {
+        double base = unknownCells > 0
+                ? Math.max(0.0, Math.min(1.0, (double) remainingBugs / unknownCells)) : 0.0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                probabilityGrid[r][c] = valueOf(r * cols + c, base);
+            }
+        }
+
+        exact = false;
+        frontierSize = 0;
+        componentCount = 0;
+        lastComponents = null;
+        componentsValid = false; // Rebuilt from scratch by the next solve that gets that far
+        releasedCount = 0;
+        unconstrainedProbability = base;
+        unconstrainedCount = unknownCells;
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------------------------------
+
+    private void ensureCapacity(int size) {
+        if (size == cellCount) return;
+
+        cellCount = size;
+        state = new byte[size];
+        constraintCells = new int[size];
+        constraintSlot = new int[size];
+        constraintTarget = new int[size];
+        contradiction = new boolean[size];
+        constraintNeighbors = new int[size];
+        frontierSet = new IndexSet(size);
+        unconstrainedSet = new IndexSet(size);
+        cellComponent = new Component[size];
+        constraintComponent = new Component[size];
+        components.clear();
+        componentsValid = false;
+        parent = new int[size];
+        localIndex = new int[size];
+        Arrays.fill(localIndex, -1);
+        regroup = new int[size];
+        regrouped = new boolean[size];
+        regroupCount = 0;
+        released = new int[size];
+        releasedCount = 0;
+        groupOf = new int[size];
+        Arrays.fill(groupOf, -1);
+        groupCells = new int[size];
+        updatedCells = new int[Math.max(16, size)];
+        cache.clear();
+    }
+
+    private int find(int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            parent[rootB] = rootA;
+        }
+    }
+
+    private void ensureLogFactorials(int n) {
+        if (logFactorials.length > n) return;
+
+        int start = logFactorials.length;
+        logFactorials = Arrays.copyOf(logFactorials, Math.max(n + 1, start * 2));
+        for (int i = start; i < logFactorials.length; i++) {
+            logFactorials[i] = logFactorials[i - 1] + Math.log(i);
+        }
+    }
+
+    private double logBinomial(int n, int k) {
+        if (k < 0 || k > n) return Double.NEGATIVE_INFINITY;
+        return logFactorials[n] - logFactorials[k] - logFactorials[n - k];
+    }
+
+    private void evictStaleResults() {
+        // Keep results from the last couple of solves so undo-like flag toggles stay cheap
+        Iterator<ComponentResult> it = cache.values().iterator();
+        while (it.hasNext()) {
+            if (generation - it.next().generation > 2) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * A frontier component as it stands between solves: its cells and constraints (both
+     * sorted) and the solved result, which the cache may share with an identical component
+     */
+    private static final class Component {
+        final int[] cells;
+        final int[] constraints;
+        final ComponentResult result;
+        int slot; // Position in the component list, -1 once dissolved
+
+        Component(int[] cells, int[] constraints, ComponentResult result) {
+            this.cells = cells;
+            this.constraints = constraints;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Solution counts of one component. Exact results keep the memoized search so per-cell
+     * probabilities can be recomputed for new global weights without searching again;
+     * sampled results keep per-cell counts by number of mines and the solutions found instead.
+     */
+    static final class ComponentResult {
+        final int[] cells;
+        final double[] counts;
+        final boolean exact;
+        int generation;
+
+        private final double scale;
+        private final int[] order;
+        private final double[][][] forward;
+        private final int[][] next;
+        private final double[][] sampledCellCounts;
+        private final byte[][][] sampledSolutions; // By number of mines; null if none were found
+
+        ComponentResult(int[] cells, double[] counts, int[] order, double[][][] forward,
+                        int[][] next, double[][] sampledCellCounts, List<byte[]> solutions) {
+            this.cells = cells;
+            this.order = order;
+            this.forward = forward;
+            this.next = next;
+            this.sampledCellCounts = sampledCellCounts;
+            this.exact = sampledCellCounts == null;
+            this.sampledSolutions = solutions != null ? groupByMines(solutions, cells.length) : null;
+
+            // Scale so the largest count is 1; only ratios matter when combining
+            double max = 0;
+            for (double count : counts) max = Math.max(max, count);
+            this.scale = max > 0 ? 1.0 / max : 0.0;
+            this.counts = new double[counts.length];
+            for (int k = 0; k < counts.length; k++) {
+                this.counts[k] = counts[k] * scale;
+            }
+        }
+
+        /**
+         * Bug probability of every variable given the weight of each total mine count
+         * @param weightByMines Global weight of this component holding k bugs, already normalized
+         */
+        double[] marginals(double[] weightByMines) {
+            int n = cells.length;
+            double[] result = new double[n];
+
+            if (sampledCellCounts != null) {
+                for (int v = 0; v < n; v++) {
+                    double probability = 0;
+                    for (int k = 0; k <= n; k++) {
+                        probability += sampledCellCounts[k][v] * scale * weightByMines[k];
+                    }
+                    result[v] = probability;
+                }
+                return result;
+            }
+
+            if (forward[n].length == 0) return result; // No solutions
+
+            // Walk the search backwards carrying the weight of completing from each state
+            // with a mines so far; combined with the forward counts this gives each marginal
+            double[][] completion = {Arrays.copyOf(weightByMines, n + 1)};
+            for (int i = n - 1; i >= 0; i--) {
+                double[][] layer = forward[i];
+                int[] transitions = next[i];
+                double[][] previous = new double[layer.length][i + 1];
+                double probability = 0;
+
+                for (int s = 0; s < layer.length; s++) {
+                    int safeState = transitions[s * 2];
+                    int mineState = transitions[s * 2 + 1];
+                    double[] counts = layer[s];
+                    double[] weights = previous[s];
+                    for (int a = 0; a <= i; a++) {
+                        double weight = 0;
+                        if (safeState >= 0) {
+                            weight += completion[safeState][a];
+                        }
+                        if (mineState >= 0) {
+                            double mineWeight = completion[mineState][a + 1];
+                            weight += mineWeight;
+                            probability += counts[a] * mineWeight;
+                        }
+                        weights[a] = weight;
+                    }
+                }
+
+                result[order[i]] = probability * scale;
+                completion = previous;
+            }
+            return result;
+        }
+
+        /**
+         * Draw one solution with the given number of bugs, uniformly for exact results (by
+         * walking the memoized search backwards) and from the solutions found otherwise
+         * @param out Receives the flat indices of the bug cells from position offset
+         * @return Number of indices written (mines)
+         */
+        int sample(int mines, Random random, int[] out, int offset) {
+            int n = cells.length;
+
+            if (sampledCellCounts != null) {
+                byte[][] candidates = sampledSolutions != null ? sampledSolutions[mines] : null;
+                if (candidates == null || candidates.length == 0) {
+                    // No solutions kept: the component was treated as unconstrained cells
+                    int[] shuffled = cells.clone();
+                    for (int i = 0; i < mines; i++) {
+                        int j = i + random.nextInt(n - i);
+                        int cell = shuffled[j];
+                        shuffled[j] = shuffled[i];
+                        shuffled[i] = cell;
+                        out[offset + i] = cell;
+                    }
+                    return mines;
+                }
+
+                byte[] solution = candidates[random.nextInt(candidates.length)];
+                int count = 0;
+                for (int v = 0; v < n; v++) {
+                    if (solution[v] == 1) out[offset + count++] = cells[v];
+                }
+                return count;
+            }
+
+            // Going back from the final state with a mines, each predecessor (state, value)
+            // is chosen in proportion to the number of ways it is reached
+            int count = 0;
+            int state = 0;
+            int a = mines;
+            for (int i = n - 1; i >= 0; i--) {
+                double[][] layer = forward[i];
+                int[] transitions = next[i];
+
+                double total = 0;
+                for (int s = 0; s < layer.length; s++) {
+                    for (int x = 0; x <= 1; x++) {
+                        if (transitions[s * 2 + x] == state && a - x >= 0 && a - x <= i) {
+                            total += layer[s][a - x];
+                        }
+                    }
+                }
+
+                double pick = random.nextDouble() * total;
+                int chosenState = -1;
+                int chosenValue = 0;
+                choose:
+                for (int s = 0; s < layer.length; s++) {
+                    for (int x = 0; x <= 1; x++) {
+                        if (transitions[s * 2 + x] != state || a - x < 0 || a - x > i) continue;
+                        double weight = layer[s][a - x];
+                        if (weight <= 0) continue;
+
+                        // The last positive candidate stands in if rounding leaves pick >= 0
+                        chosenState = s;
+                        chosenValue = x;
+                        pick -= weight;
+                        if (pick < 0) break choose;
+                    }
+                }
+
+                if (chosenValue == 1) {
+                    out[offset + count++] = cells[order[i]];
+                }
+                state = chosenState;
+                a -= chosenValue;
+            }
+            return count;
+        }
+
+        private static byte[][][] groupByMines(List<byte[]> solutions, int n) {
+            int[] sizes = new int[n + 1];
+            int[] mines = new int[solutions.size()];
+            for (int i = 0; i < mines.length; i++) {
+                for (byte value : solutions.get(i)) mines[i] += value;
+                sizes[mines[i]]++;
+            }
+
+            byte[][][] grouped = new byte[n + 1][][];
+            for (int k = 0; k <= n; k++) {
+                grouped[k] = new byte[sizes[k]][];
+                sizes[k] = 0;
+            }
+            for (int i = 0; i < mines.length; i++) {
+                grouped[mines[i]][sizes[mines[i]]++] = solutions.get(i);
+            }
+            return grouped;
+        }
+    }
+
+    /**
+     * Draws complete bug layouts from the posterior of one solve: the number of frontier bugs
+     * in proportion to its weight, then each component's share and solution, then the rest of
+     * the bugs uniformly over the unconstrained cells
+     */
+    public static final class LayoutSampler {
+        private final ComponentResult[] components;
+        private final Series[] prefix;
+        private final double[] ways;
+        private final int remainingBugs;
+        private final int[] unconstrainedCells;
+        private final int[] knownMines;
+
+        LayoutSampler(ComponentResult[] components, Series[] prefix, double[] ways, int remainingBugs,
+                      int[] unconstrainedCells, int[] knownMines) {
+            this.components = components;
+            this.prefix = prefix;
+            this.ways = ways;
+            this.remainingBugs = remainingBugs;
+            this.unconstrainedCells = unconstrainedCells;
+            this.knownMines = knownMines;
+        }
+
+        /**
+         * Draw one layout
+         * @param bugs Receives the flat indices of all bug cells; sized for the board's bug count
+         * @return Number of indices written
+         */
+        public int sample(Random random, int[] bugs) {
+            int count = 0;
+            for (int mine : knownMines) {
+                bugs[count++] = mine;
+            }
+
+            // Bugs on the whole frontier: weight of t is (solutions with t) * C(unconstrained, remaining - t)
+            int m = components.length;
+            double[] all = prefix[m].values;
+            double total = 0;
+            for (int t = 0; t < all.length; t++) {
+                total += all[t] * ways[t];
+            }
+            int frontierMines = pick(random, total, all, ways, all.length);
+
+            // Split them over the components from the last one back
+            int left = frontierMines;
+            for (int i = m - 1; i >= 0; i--) {
+                double[] counts = components[i].counts;
+                double[] before = prefix[i].values;
+                double weight = 0;
+                for (int k = 0; k < counts.length && k <= left; k++) {
+                    if (left - k < before.length) weight += counts[k] * before[left - k];
+                }
+
+                double target = random.nextDouble() * weight;
+                int mines = -1;
+                for (int k = 0; k < counts.length && k <= left; k++) {
+                    if (left - k >= before.length) continue;
+                    double w = counts[k] * before[left - k];
+                    if (w <= 0) continue;
+                    mines = k;
+                    target -= w;
+                    if (target < 0) break;
+                }
+                if (mines < 0) mines = 0; // Only reachable through rounding
+
+                count += components[i].sample(mines, random, bugs, count);
+                left -= mines;
+            }
+
+            // The rest are spread uniformly: the first slots of a partial shuffle
+            int[] cells = unconstrainedCells.clone();
+            int rest = Math.min(remainingBugs - frontierMines, cells.length);
+            for (int i = 0; i < rest; i++) {
+                int j = i + random.nextInt(cells.length - i);
+                int cell = cells[j];
+                cells[j] = cells[i];
+                cells[i] = cell;
+                bugs[count++] = cell;
+            }
+            return count;
+        }
+
+        private static int pick(Random random, double total, double[] a, double[] b, int length) {
+            double target = random.nextDouble() * total;
+            int last = -1;
+            for (int t = 0; t < length; t++) {
+                double w = a[t] * b[t];
+                if (w <= 0) continue;
+                last = t;
+                target -= w;
+                if (target < 0) return t;
+            }
+            return Math.max(0, last);
+        }
+    }
+
+    /**
+     * Unordered set of cell indices with constant-time add, remove and iteration
+     */
+    private static final class IndexSet {
+        private final int[] items;
+        private final int[] slot;
+        private int size;
+
+        IndexSet(int capacity) {
+            items = new int[capacity];
+            slot = new int[capacity];
+            Arrays.fill(slot, -1);
+        }
+
+        void set(int index, boolean member) {
+            int s = slot[index];
+            if (member && s < 0) {
+                slot[index] = size;
+                items[size++] = index;
+            } else if (!member && s >= 0) {
+                int last = items[--size];
+                items[s] = last;
+                slot[last] = s;
+                slot[index] = -1;
+            }
+        }
+
+        int get(int i) { return items[i]; }
+
+        int size() { return size; }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                slot[items[i]] = -1;
+            }
+            size = 0;
+        }
+    }
+
+    private static final class ComponentKey {
+        private final int[] data;
+        private final int hash;
+
+        ComponentKey(int[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ComponentKey && Arrays.equals(data, ((ComponentKey) o).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Polynomial coefficients stored as values * exp(logScale) so long products of
+     * component distributions neither overflow nor underflow
+     */
+    private static final class Series {
+        static final Series ONE = new Series(new double[] {1.0}, 0.0);
+
+        final double[] values;
+        final double logScale;
+
+        Series(double[] values, double logScale) {
+            this.values = values;
+            this.logScale = logScale;
+        }
+
+        Series convolve(Series other) {
+            Series product = convolve(other.values);
+            return new Series(product.values, product.logScale + other.logScale);
+        }
+
+        Series convolve(double[] other) {
+            double[] result = new double[values.length + other.length - 1];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == 0) continue;
+                for (int j = 0; j < other.length; j++) {
+                    result[i + j] += values[i] * other[j];
+                }
+            }
+
+            double max = 0;
+            for (double value : result) max = Math.max(max, value);
+            if (max == 0) return new Series(result, logScale);
+
+            for (int i = 0; i < result.length; i++) {
+                result[i] /= max;
+            }
+            return new Series(result, logScale + Math.log(max));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bughisweeper;
+
+/**
+ * Read-only view of a board, implemented by the live BughisBoard and by the immutable
+ * BoardSnapshots handed to background analysis
+ */
+public interface ReadableBoard {
+
+    int getRows();
+    int getCols();
+    int getTotalBugs();
+
+    // Cell state (positions must be valid)
+    boolean isRevealed(int row, int col);
+    boolean isFlagged(int row, int col);
+    boolean hasBug(int row, int col);
+    int getAdjacentBugs(int row, int col);
+
+    /**
+     * Change journal: flat indices (row * cols + col) of cells whose bug, revealed or flagged
+     * state changed, in order. Readers remember the epoch and count they last consumed; a new
+     * epoch means the journal restarted (on reset, or once it holds one entry per cell) and
+     * they must resynchronize.
+     */
+    int getChangeEpoch();
+    int getChangeCount();
+    int getChangedIndex(int i);
+}
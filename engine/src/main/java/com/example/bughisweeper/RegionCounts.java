@@ -0,0 +1,141 @@
+package com.example.bughisweeper;
+
+import java.util.Arrays;
+
+/**
+ * Counts of bugs, flags and revealed cells in any rectangle of a board.
+ *
+ * Bugs only change while a layout is placed, so they get a summed-area table: one pass over
+ * the board after placement, then every rectangle costs four lookups. Flags and reveals
+ * change on every move, where a summed-area table would cost a pass over the board per
+ * change; they use 2D Fenwick trees instead, updated and queried in O(log rows * log cols).
+ *
+ * Kept current by PackedCellStore, which reports every change of a tracked bit.
+ */
+final class RegionCounts {
+
+    private final int rows;
+    private final int cols;
+    private final int stride; // cols + 1: row 0 and column 0 of the tables are zero padding
+
+    // Summed-area table of bugs, rebuilt on the first query after a bug changed
+    private final int[] bugSums;
+    private boolean bugsDirty = true;
+
+    // Fenwick trees over the board, 1-based in both dimensions
+    private final int[] flagTree;
+    private final int[] revealedTree;
+
+    RegionCounts(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = cols + 1;
+        this.bugSums = new int[(rows + 1) * stride];
+        this.flagTree = new int[(rows + 1) * stride];
+        this.revealedTree = new int[(rows + 1) * stride];
+    }
+
+    /**
+     * Build all counts from the current cells
+     */
+    void rebuild(PackedCellStore cells) {
+        Arrays.fill(flagTree, 0);
+        Arrays.fill(revealedTree, 0);
+        for (int index = 0; index < rows * cols; index++) {
+            if (cells.has(index, PackedCellStore.FLAGGED)) add(flagTree, index, 1);
+            if (cells.has(index, PackedCellStore.REVEALED)) add(revealedTree, index, 1);
+        }
+        bugsDirty = true;
+    }
+
+    /**
+     * Record a change of a cell
+     * @param changed Tracked bits that flipped
+     * @param bits The cell's bits after the change
+     */
+    void onChange(int index, int changed, int bits) {
+        if ((changed & PackedCellStore.BUG) != 0) {
+            bugsDirty = true;
+        }
+        if ((changed & PackedCellStore.FLAGGED) != 0) {
+            add(flagTree, index, (bits & PackedCellStore.FLAGGED) != 0 ? 1 : -1);
+        }
+        if ((changed & PackedCellStore.REVEALED) != 0) {
+            add(revealedTree, index, (bits & PackedCellStore.REVEALED) != 0 ? 1 : -1);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(flagTree, 0);
+        Arrays.fill(revealedTree, 0);
+        bugsDirty = true;
+    }
+
+    // Counts in the rectangle [top, bottom] x [left, right], bounds inclusive; the parts off
+    // the board count as empty
+    int countBugs(PackedCellStore cells, int top, int left, int bottom, int right) {
+        top = Math.max(0, top);
+        left = Math.max(0, left);
+        bottom = Math.min(rows - 1, bottom);
+        right = Math.min(cols - 1, right);
+        if (top > bottom || left > right) return 0;
+
+        if (bugsDirty) buildBugSums(cells);
+        return bugSums[(bottom + 1) * stride + right + 1] - bugSums[top * stride + right + 1]
+                - bugSums[(bottom + 1) * stride + left] + bugSums[top * stride + left];
+    }
+
+    int countFlags(int top, int left, int bottom, int right) {
+        return rectangle(flagTree, top, left, bottom, right);
+    }
+
+    int countRevealed(int top, int left, int bottom, int right) {
+        return rectangle(revealedTree, top, left, bottom, right);
+    }
+
+    private void buildBugSums(PackedCellStore cells) {
+        for (int r = 0; r < rows; r++) {
+            int rowSum = 0;
+            int base = (r + 1) * stride;
+            for (int c = 0; c < cols; c++) {
+                if (cells.has(r * cols + c, PackedCellStore.BUG)) rowSum++;
+                bugSums[base + c + 1] = bugSums[base - stride + c + 1] + rowSum;
+            }
+        }
+        bugsDirty = false;
+    }
+
+    private int rectangle(int[] tree, int top, int left, int bottom, int right) {
+        top = Math.max(0, top);
+        left = Math.max(0, left);
+        bottom = Math.min(rows - 1, bottom);
+        right = Math.min(cols - 1, right);
+        if (top > bottom || left > right) return 0;
+
+        return prefix(tree, bottom + 1, right + 1) - prefix(tree, top, right + 1)
+                - prefix(tree, bottom + 1, left) + prefix(tree, top, left);
+    }
+
+    /**
+     * Sum over the first rowCount rows and colCount columns
+     */
+    private int prefix(int[] tree, int rowCount, int colCount) {
+        int sum = 0;
+        for (int r = rowCount; r > 0; r -= r & -r) {
+            int base = r * stride;
+            for (int c = colCount; c > 0; c -= c & -c) {
+                sum += tree[base + c];
+            }
+        }
+        return sum;
+    }
+
+    private void add(int[] tree, int index, int delta) {
+        for (int r = index / cols + 1; r <= rows; r += r & -r) {
+            int base = r * stride;
+            for (int c = index % cols + 1; c <= cols; c += c & -c) {
+                tree[base + c] += delta;
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.bughisweeper;
+
+/**
+ * The superpower rules without any Android or UI dependencies: cooldown bookkeeping, the
+ * shield, and the board queries behind X-Ray, Sonar and Lightning. Smart Sweep's deductions
+ * come from DeductionEngine.
+ *
+ * Times are passed in by the caller (milliseconds from any monotonic or wall clock), so the
+ * rules can be driven by a simulated clock on a plain JVM. SuperpowerManager adapts them to
+ * the Android main thread and the listener callbacks.
+ */
+public class SuperpowerRules {
+
+    // Superpower cooldowns (in milliseconds)
+    public static final long FREEZE_COOLDOWN = 60000; // 60 seconds
+    public static final long XRAY_COOLDOWN = 45000;   // 45 seconds
+    public static final long SONAR_COOLDOWN = 30000;  // 30 seconds
+    public static final long LIGHTNING_COOLDOWN = 90000; // 90 seconds
+    public static final long SHIELD_COOLDOWN = 0; // One per game
+    public static final long SMART_SWEEP_COOLDOWN = 20000; // 20 seconds
+
+    // Superpower durations
+    public static final long FREEZE_DURATION = 10000; // 10 seconds
+    public static final long XRAY_DURATION = 5000;    // 5 seconds
+
+    // Cells X-Ray shows and the Sonar window radius
+    public static final int XRAY_CELLS = 3;
+    public static final int SONAR_RADIUS = 2;
+
+    // Nothing has been used yet, so every cooldown starts out elapsed
+    private static final long NEVER = Long.MIN_VALUE / 2;
+
+    private long lastFreezeUse = NEVER;
+    private long lastXrayUse = NEVER;
+    private long lastSonarUse = NEVER;
+    private long lastLightningUse = NEVER;
+    private long lastSmartSweepUse = NEVER;
+    private boolean shieldUsed = false;
+    private boolean shieldActive = false;
+
+    // Cooldown checks
+    public boolean canUseFreeze(long now) { return now - lastFreezeUse >= FREEZE_COOLDOWN; }
+    public boolean canUseXRay(long now) { return now - lastXrayUse >= XRAY_COOLDOWN; }
+    public boolean canUseSonar(long now) { return now - lastSonarUse >= SONAR_COOLDOWN; }
+    public boolean canUseLightning(long now) { return now - lastLightningUse >= LIGHTNING_COOLDOWN; }
+    public boolean canUseShield() { return !shieldUsed; }
+    public boolean canUseSmartSweep(long now) { return now - lastSmartSweepUse >= SMART_SWEEP_COOLDOWN; }
+
+    // Remaining cooldowns
+    public long getRemainingFreezeCooldown(long now) { return remaining(FREEZE_COOLDOWN, lastFreezeUse, now); }
+    public long getRemainingXRayCooldown(long now) { return remaining(XRAY_COOLDOWN, lastXrayUse, now); }
+    public long getRemainingSonarCooldown(long now) { return remaining(SONAR_COOLDOWN, lastSonarUse, now); }
+    public long getRemainingLightningCooldown(long now) { return remaining(LIGHTNING_COOLDOWN, lastLightningUse, now); }
+    public long getRemainingSmartSweepCooldown(long now) { return remaining(SMART_SWEEP_COOLDOWN, lastSmartSweepUse, now); }
+
+    private static long remaining(long cooldown, long lastUse, long now) {
+        return Math.max(0, cooldown - (now - lastUse));
+    }
+
+    // Activations; each returns false while the power is still cooling down
+    public boolean useFreeze(long now) {
+        if (!canUseFreeze(now)) return false;
+        lastFreezeUse = now;
+        return true;
+    }
+
+    public boolean useXRay(long now) {
+        if (!canUseXRay(now)) return false;
+        lastXrayUse = now;
+        return true;
+    }
+
+    public boolean useSonar(long now) {
+        if (!canUseSonar(now)) return false;
+        lastSonarUse = now;
+        return true;
+    }
+
+    public boolean useLightning(long now) {
+        if (!canUseLightning(now)) return false;
+        lastLightningUse = now;
+        return true;
+    }
+
+    public boolean useShield() {
+        if (!canUseShield()) return false;
+        shieldUsed = true;
+        shieldActive = true;
+        return true;
+    }
+
+    public boolean useSmartSweep(long now) {
+        if (!canUseSmartSweep(now)) return false;
+        lastSmartSweepUse = now;
+        return true;
+    }
+
+    /**
+     * Spend the shield on a bug hit
+     * @return True if an active shield absorbed the hit
+     */
+    public boolean absorbHit() {
+        if (!shieldActive) return false;
+        shieldActive = false;
+        return true;
+    }
+
+    public boolean isShieldActive() { return shieldActive; }
+
+    /**
+     * Reset all superpowers for a new game
+     */
+    public void reset() {
+        lastFreezeUse = NEVER;
+        lastXrayUse = NEVER;
+        lastSonarUse = NEVER;
+        lastLightningUse = NEVER;
+        lastSmartSweepUse = NEVER;
+        shieldUsed = false;
+        shieldActive = false;
+    }
+
+    /**
+     * Pick up to XRAY_CELLS hidden, unflagged neighbors of a cell for X-Ray to show
+     * @return Number of cell indices written to out
+     */
+    public static int findXRayCells(ReadableBoard board, NeighborTable neighbors, int row, int col, int[] out) {
+        int cols = board.getCols();
+        int center = row * cols + col;
+        int[] offsets = neighbors.offsets(center);
+        int count = 0;
+        for (int k = 0; k < offsets.length && count < XRAY_CELLS && count < out.length; k++) {
+            int neighbor = center + offsets[k];
+            if (!board.isRevealed(neighbor / cols, neighbor % cols) && !board.isFlagged(neighbor / cols, neighbor % cols)) {
+                out[count++] = neighbor;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of bugs in the Sonar window around a cell
+     */
+    public static int sonarReading(ReadableBoard board, int centerRow, int centerCol) {
+        int mineCount = 0;
+        int rowEnd = Math.min(board.getRows() - 1, centerRow + SONAR_RADIUS);
+        int colEnd = Math.min(board.getCols() - 1, centerCol + SONAR_RADIUS);
+        for (int r = Math.max(0, centerRow - SONAR_RADIUS); r <= rowEnd; r++) {
+            for (int c = Math.max(0, centerCol - SONAR_RADIUS); c <= colEnd; c++) {
+                if (board.hasBug(r, c)) {
+                    mineCount++;
+                }
+            }
+        }
+        return mineCount;
+    }
+
+    /**
+     * Number of bugs in the Sonar window around a cell, from the board's region counts
+     */
+    public static int sonarReading(BughisBoard board, int centerRow, int centerCol) {
+        return sonarReading(board, centerRow, centerCol, SONAR_RADIUS);
+    }
+
+    /**
+     * Number of bugs within the given radius of a cell, in constant time whatever the radius
+     */
+    public static int sonarReading(BughisBoard board, int centerRow, int centerCol, int radius) {
+        return board.countBugs(centerRow - radius, centerCol - radius, centerRow + radius, centerCol + radius);
+    }
+
+    /**
+     * Hidden, unflagged cell with the lowest bug probability (the Lightning rule). Without a
+     * probability grid every hidden cell counts as equally risky and the first one is picked.
+     * @return Cell index, or -1 if no hidden cell is left
+     */
+    public static int findSafestCell(ReadableBoard board, double[][] probabilityGrid) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+
+        double minRisk = 2.0;
+        int safest = -1;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (!board.isRevealed(r, c) && !board.isFlagged(r, c)) {
+                    double risk = probabilityGrid != null ? probabilityGrid[r][c] : 1.0;
+                    if (risk < minRisk) {
+                        minRisk = risk;
+                        safest = r * cols + c;
+                    }
+                }
+            }
+        }
+        return safest;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.bughisweeper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timer wheel for a handful of deadlines, such as superpower cooldowns and effect
+ * durations. Deadlines are rounded up to whole ticks and hashed into a ring of slots by
+ * their tick, so scheduling and cancelling are constant time and advancing visits only the
+ * slots that elapsed.
+ *
+ * The wheel never runs on its own: the owner advances it with the current time (any
+ * non-negative millisecond clock, as long as it is the one deadlines were given in) and asks
+ * for the next deadline to wake up for, so nothing happens while nothing is scheduled.
+ *
+ * @param <T> Timer key; scheduling a key again moves its deadline
+ */
+public final class TimerWheel<T> {
+
+    private static final class Entry<T> {
+        final T key;
+        long tick;
+        Entry<T> next;
+        Entry<T> previous;
+
+        Entry(T key) {
+            this.key = key;
+        }
+    }
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final long tickMillis;
+    private final Entry<T>[] slots;
+    private final int mask;
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+    private long currentTick = NOT_STARTED; // Last tick advanced to
+
+    /**
+     * @param tickMillis Resolution; deadlines fire at the first tick at or after them
+     * @param slotCount Ring size, rounded up to a power of two; deadlines further ahead than
+     *                  slotCount ticks share slots with nearer ones and are skipped until due
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int slotCount) {
+        this.tickMillis = Math.max(1, tickMillis);
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.slots = (Entry<T>[]) new Entry<?>[size];
+        this.mask = size - 1;
+    }
+
+    public int size() { return entries.size(); }
+    public boolean isEmpty() { return entries.isEmpty(); }
+    public boolean contains(T key) { return entries.containsKey(key); }
+
+    /**
+     * Schedule a key to expire at a time, replacing its previous deadline
+     */
+    public void schedule(T key, long deadlineMillis) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key);
+            entries.put(key, entry);
+        } else {
+            unlink(entry);
+        }
+        // A deadline already passed fires at the next advance
+        long tick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        entry.tick = currentTick == NOT_STARTED ? tick : Math.max(tick, currentTick + 1);
+        link(entry);
+    }
+
+    public boolean cancel(T key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) return false;
+        unlink(entry);
+        return true;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+        entries.clear();
+    }
+
+    /**
+     * Remove every key whose deadline has passed
+     * @param expired Receives the expired keys
+     */
+    public void advance(long nowMillis, List<T> expired) {
+        long nowTick = nowMillis / tickMillis;
+        if (currentTick == NOT_STARTED || nowTick - currentTick > slots.length) {
+            // First call or a long gap: every slot may hold something due
+            currentTick = nowTick - slots.length;
+        }
+        for (long tick = currentTick + 1; tick <= nowTick; tick++) {
+            Entry<T> entry = slots[(int) (tick & mask)];
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                if (entry.tick <= nowTick) {
+                    unlink(entry);
+                    entries.remove(entry.key);
+                    expired.add(entry.key);
+                }
+                entry = next;
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    /**
+     * Time of the earliest deadline, rounded up to its tick, or Long.MAX_VALUE if nothing is
+     * scheduled
+     */
+    public long nextDeadline() {
+        long earliest = Long.MAX_VALUE;
+        for (Entry<T> entry : entries.values()) {
+            earliest = Math.min(earliest, entry.tick);
+        }
+        return earliest == Long.MAX_VALUE ? Long.MAX_VALUE : earliest * tickMillis;
+    }
+
+    private void link(Entry<T> entry) {
+        int slot = (int) (entry.tick & mask);
+        entry.previous = null;
+        entry.next = slots[slot];
+        if (slots[slot] != null) {
+            slots[slot].previous = entry;
+        }
+        slots[slot] = entry;
+    }
+
+    private void unlink(Entry<T> entry) {
+        int slot = (int) (entry.tick & mask);
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            slots[slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.next = null;
+        entry.previous = null;
+    }
+}
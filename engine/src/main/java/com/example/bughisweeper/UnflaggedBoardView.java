@@ -0,0 +1,26 @@
+package com.example.bughisweeper;
+
+/**
+ * A board with every flag hidden, so deductions and probabilities follow from the revealed
+ * numbers alone and hold whether or not the player's flags are right. Everything else,
+ * including the change journal, reads through to the wrapped board.
+ */
+public final class UnflaggedBoardView implements ReadableBoard {
+
+    private final ReadableBoard board;
+
+    public UnflaggedBoardView(ReadableBoard board) {
+        this.board = board;
+    }
+
+    @Override public int getRows() { return board.getRows(); }
+    @Override public int getCols() { return board.getCols(); }
+    @Override public int getTotalBugs() { return board.getTotalBugs(); }
+    @Override public boolean isRevealed(int row, int col) { return board.isRevealed(row, col); }
+    @Override public boolean isFlagged(int row, int col) { return false; }
+    @Override public boolean hasBug(int row, int col) { return board.hasBug(row, col); }
+    @Override public int getAdjacentBugs(int row, int col) { return board.getAdjacentBugs(row, col); }
+    @Override public int getChangeEpoch() { return board.getChangeEpoch(); }
+    @Override public int getChangeCount() { return board.getChangeCount(); }
+    @Override public int getChangedIndex(int i) { return board.getChangedIndex(i); }
+}
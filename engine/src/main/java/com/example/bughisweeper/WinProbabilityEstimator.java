@@ -0,0 +1,322 @@
+package com.example.bughisweeper;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Monte Carlo estimate of the chance to win from the current position.
+ *
+ * Each sample draws a bug layout consistent with the revealed numbers (ProbabilitySolver's
+ * LayoutSampler), replays the revealed cells on a private board and plays the rest of the
+ * game with a deterministic policy: by default, flag every forced bug and reveal the cell
+ * with the lowest bug probability. The share of won playouts is reported with a 95% Wilson
+ * confidence interval.
+ *
+ * Flags are ignored: they are the player's guesses, not information. A revealed bug is known
+ * information, though: after a Shield absorbed the hit the game goes on, so revealed bugs are
+ * known mines, placed by every sampled layout and flagged on the playout board rather than
+ * replayed. Whether the live game is over is for the caller to say (see decided()); a
+ * revealed bug alone does not make the estimate 0%. Samples run in parallel
+ * on a worker pool until the sample or time budget is spent, and estimates are published
+ * progressively (after 8, 16, 32... samples and once at the end), so the UI gets a rough
+ * answer quickly that tightens over time. Starting a new estimate cancels the running one.
+ */
+public class WinProbabilityEstimator {
+
+    // Two-sided 95% normal quantile for the Wilson interval
+    private static final double Z_95 = 1.959964;
+
+    // Samples before the first progressive estimate; later ones follow at each doubling
+    private static final int FIRST_REPORT = 8;
+
+    /**
+     * Receives progressively refined estimates on a worker thread. The last estimate of a run
+     * that was not cancelled has complete set.
+     */
+    public interface Listener {
+        void onEstimate(Estimate estimate);
+    }
+
+    /**
+     * Win probability after some number of playouts, with its 95% confidence interval
+     */
+    public static final class Estimate {
+        public final int samples;
+        public final int wins;
+        public final double probability;
+        public final double low;
+        public final double high;
+        public final boolean complete;
+
+        /**
+         * Final estimate of a game whose outcome is already known, e.g. 0% once it was lost.
+         * The outcome is certain, so the interval collapses to the probability itself.
+         */
+        public static Estimate decided(boolean won) {
+            return new Estimate(won);
+        }
+
+        private Estimate(boolean won) {
+            samples = 1;
+            wins = won ? 1 : 0;
+            complete = true;
+            probability = wins;
+            low = probability;
+            high = probability;
+        }
+
+        Estimate(int samples, int wins, boolean complete) {
+            this.samples = samples;
+            this.wins = wins;
+            this.complete = complete;
+
+            if (samples == 0) {
+                probability = 0;
+                low = 0;
+                high = 1;
+                return;
+            }
+
+            double n = samples;
+            double p = wins / n;
+            double z2 = Z_95 * Z_95;
+            double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+            double margin = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / (1 + z2 / n);
+            probability = p;
+            low = Math.max(0, center - margin);
+            high = Math.min(1, center + margin);
+        }
+
+        /**
+         * Half the width of the confidence interval
+         */
+        public double getMargin() { return (high - low) / 2; }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f%% (95%% CI %.1f%% - %.1f%%, %d samples%s)",
+                    probability * 100, low * 100, high * 100, samples, complete ? "" : ", running");
+        }
+    }
+
+    private final int parallelism;
+    private final GameSimulator.StrategyFactory policy;
+    private final ExecutorService executor;
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    /**
+     * @param parallelism Worker threads, typically the number of cores left to spare
+     * @param policy Creates the player for the playouts; each worker gets its own instance
+     */
+    public WinProbabilityEstimator(int parallelism, GameSimulator.StrategyFactory policy) {
+        this.parallelism = Math.max(1, parallelism);
+        this.policy = policy;
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bughis-estimator");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Estimator playing Smart Sweep plus Lightning Strike without cooldowns
+     * (GameSimulator.SuperpowerStrategy), the strongest policy the engine has
+     */
+    public WinProbabilityEstimator(int parallelism) {
+        this(parallelism, GameSimulator.SuperpowerStrategy::new);
+    }
+
+    /**
+     * Start estimating the win probability of the board as it is now, cancelling any
+     * estimate still running. Returns immediately; results go to the listener.
+     * @param board Board to estimate; read only during this call
+     * @param maxSamples Playouts to run at most
+     * @param timeBudgetMillis Wall time to spend at most, or 0 for no limit
+     * @param seed Seed for the layouts and the playouts
+     */
+    public void start(ReadableBoard board, int maxSamples, long timeBudgetMillis, long seed, Listener listener) {
+        Run run = new Run(board, maxSamples, timeBudgetMillis, seed, listener);
+        Run previous = current.getAndSet(run);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+
+        if (run.result != null) {
+            // Decided without playing: already won, or nothing consistent to sample
+            listener.onEstimate(run.result);
+            return;
+        }
+        for (int worker = 0; worker < parallelism; worker++) {
+            final int id = worker;
+            executor.execute(() -> run.work(id));
+        }
+    }
+
+    /**
+     * Run an estimate to completion on the worker pool and return the final result
+     */
+    public Estimate estimate(ReadableBoard board, int maxSamples, long timeBudgetMillis, long seed)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Estimate> last = new AtomicReference<>();
+        start(board, maxSamples, timeBudgetMillis, seed, estimate -> {
+            last.set(estimate);
+            if (estimate.complete) done.countDown();
+        });
+        done.await();
+        return last.get();
+    }
+
+    /**
+     * Stop the running estimate; its listener receives nothing further
+     */
+    public void cancel() {
+        Run run = current.getAndSet(null);
+        if (run != null) {
+            run.cancelled = true;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    /**
+     * One estimate: the position to play out and the shared counters of its workers
+     */
+    private final class Run {
+        private final int rows;
+        private final int cols;
+        private final int totalBugs;
+        private final int[] revealed;   // Revealed safe cells, replayed on the playout board
+        private final int[] knownBugs;  // Revealed bugs, flagged on the playout board
+        private final ProbabilitySolver.LayoutSampler sampler;
+        private final int maxSamples;
+        private final long deadline;
+        private final long seed;
+        private final Listener listener;
+
+        private final AtomicInteger claimed = new AtomicInteger();
+        private final AtomicInteger samples = new AtomicInteger();
+        private final AtomicInteger wins = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger(parallelism);
+        private final AtomicInteger nextReport = new AtomicInteger(FIRST_REPORT);
+        private int publishedSamples = -1; // Guarded by this
+        volatile boolean cancelled;
+
+        // Set when the answer is known without playing
+        Estimate result;
+
+        Run(ReadableBoard board, int maxSamples, long timeBudgetMillis, long seed, Listener listener) {
+            this.rows = board.getRows();
+            this.cols = board.getCols();
+            this.totalBugs = board.getTotalBugs();
+            this.maxSamples = maxSamples;
+            this.deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1000000L : Long.MAX_VALUE;
+            this.seed = seed;
+            this.listener = listener;
+
+            int count = 0;
+            int bugCount = 0;
+            int[] cells = new int[rows * cols];
+            int[] bugCells = new int[rows * cols];
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (!board.isRevealed(r, c)) continue;
+                    if (board.hasBug(r, c)) {
+                        bugCells[bugCount++] = r * cols + c;
+                    } else {
+                        cells[count++] = r * cols + c;
+                    }
+                }
+            }
+            this.revealed = Arrays.copyOf(cells, count);
+            this.knownBugs = Arrays.copyOf(bugCells, bugCount);
+
+            if (count == rows * cols - totalBugs) {
+                sampler = null;
+                result = Estimate.decided(true);
+            } else if (count == 0 && bugCount == 0) {
+                sampler = null; // Fresh game: every playout starts from its own first click
+            } else {
+                ProbabilitySolver solver = new ProbabilitySolver();
+                solver.solve(new UnflaggedBoardView(board), new double[rows][cols]);
+                sampler = solver.newSampler();
+                if (sampler == null) {
+                    result = new Estimate(0, 0, true);
+                }
+            }
+        }
+
+        void work(int worker) {
+            try {
+                Random random = new Random(seed * 31 + worker);
+                BughisBoard board = new BughisBoard(rows, cols, totalBugs, random);
+                GameSimulator.Strategy strategy = policy.create();
+                int[] bugs = new int[totalBugs];
+
+                while (!cancelled && System.nanoTime() < deadline && claimed.getAndIncrement() < maxSamples) {
+                    boolean won = playOut(board, strategy, random, bugs);
+                    if (cancelled) break;
+
+                    if (won) wins.incrementAndGet();
+                    int done = samples.incrementAndGet();
+                    int report = nextReport.get();
+                    if (done >= report && nextReport.compareAndSet(report, report * 2)) {
+                        publish(false);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // A failed playout only costs samples
+            } finally {
+                if (active.decrementAndGet() == 0) {
+                    publish(true);
+                }
+            }
+        }
+
+        private boolean playOut(BughisBoard board, GameSimulator.Strategy strategy, Random random, int[] bugs) {
+            board.reset();
+            if (sampler != null) {
+                // The sampled layout includes the known bugs, which stay hidden under a flag:
+                // revealing one would end the playout as lost
+                board.placeBugs(bugs, sampler.sample(random, bugs));
+                for (int index : revealed) {
+                    board.revealCell(index / cols, index % cols);
+                }
+                for (int index : knownBugs) {
+                    board.toggleFlag(index / cols, index % cols);
+                }
+            }
+
+            int maxMoves = rows * cols; // Guards against a policy repeating a cell
+            int moves = 0;
+            strategy.startGame(board);
+            while (board.getGameState() == BughisBoard.GameState.PLAYING && moves < maxMoves) {
+                int index = strategy.nextMove(board);
+                if (index < 0) break;
+                board.revealCell(index / cols, index % cols);
+                moves++;
+            }
+            return board.getGameState() == BughisBoard.GameState.WON;
+        }
+
+        private synchronized void publish(boolean complete) {
+            if (cancelled) return;
+
+            // Read wins first: a sample counts its win before itself
+            int w = wins.get();
+            int n = samples.get();
+            if (!complete && n <= publishedSamples) return; // A later estimate already went out
+            publishedSamples = n;
+            listener.onEstimate(new Estimate(n, Math.min(w, n), complete));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.bughisweeper;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BitBoardTest {
+
+    /**
+     * Play the same random reveals and flags on both boards, which place bugs identically
+     * when given the same seed, and compare them cell by cell after every move
+     */
+    private static void playBoth(int rows, int cols, int bugs, long seed, int moves) {
+        BughisBoard reference = new BughisBoard(rows, cols, bugs, new Random(seed));
+        BitBoard bitBoard = new BitBoard(rows, cols, bugs, new Random(seed));
+        Random random = new Random(seed * 31 + 7);
+
+        for (int move = 0; move < moves; move++) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            String where = "seed " + seed + " move " + move;
+            if (move > 0 && random.nextInt(4) == 0) {
+                reference.toggleFlag(row, col);
+                bitBoard.toggleFlag(row, col);
+            } else {
+                assertEquals(where, reference.revealCell(row, col), bitBoard.revealCell(row, col));
+                assertEquals(where, reference.getLastRevealedCount(), bitBoard.getLastRevealedCount());
+            }
+            assertSameBoard(where, reference, bitBoard);
+        }
+    }
+
+    private static void assertSameBoard(String where, BughisBoard expected, BitBoard actual) {
+        assertEquals(where, expected.getGameState(), actual.getGameState());
+        assertEquals(where, expected.getRevealedCells(), actual.getRevealedCells());
+        assertEquals(where, expected.getFlaggedCells(), actual.getFlaggedCells());
+        for (int r = 0; r < expected.getRows(); r++) {
+            for (int c = 0; c < expected.getCols(); c++) {
+                String cell = where + " cell " + r + "," + c;
+                assertEquals(cell, expected.hasBug(r, c), actual.hasBug(r, c));
+                assertEquals(cell, expected.isRevealed(r, c), actual.isRevealed(r, c));
+                assertEquals(cell, expected.isFlagged(r, c), actual.isFlagged(r, c));
+                assertEquals(cell, expected.getAdjacentBugs(r, c), actual.getAdjacentBugs(r, c));
+            }
+        }
+    }
+
+    @Test
+    public void matchesBughisBoardOnSmallBoards() {
+        for (long seed = 1; seed <= 30; seed++) {
+            playBoth(9, 9, 10, seed, 40);
+        }
+    }
+
+    @Test
+    public void matchesBughisBoardAcrossWordBoundaries() {
+        // Rows of 64 and more cells span several words of each bitplane
+        for (long seed = 1; seed <= 10; seed++) {
+            playBoth(12, 64, 90, seed, 60);
+            playBoth(10, 130, 150, seed, 60);
+        }
+    }
+
+    @Test
+    public void matchesBughisBoardWithoutBugs() {
+        // The first reveal cascades over the whole board
+        playBoth(20, 70, 0, 1, 3);
+    }
+
+    @Test
+    public void matchesBughisBoardAfterReset() {
+        BughisBoard reference = new BughisBoard(16, 80, 200, new Random(5));
+        BitBoard bitBoard = new BitBoard(16, 80, 200, new Random(5));
+        reference.revealCell(8, 40);
+        bitBoard.revealCell(8, 40);
+
+        reference.reset();
+        bitBoard.reset();
+        assertSameBoard("after reset", reference, bitBoard);
+
+        assertEquals(reference.revealCell(0, 79), bitBoard.revealCell(0, 79));
+        assertSameBoard("new game", reference, bitBoard);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bughisweeper;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Change journals of BughisBoard and BitBoard under long runs of flag toggling
+ */
+public class ChangeJournalTest {
+
+    private static final int ROWS = 200;
+    private static final int COLS = 300;
+
+    /**
+     * Follow the journal as an incremental reader would, rescanning on a new epoch, and check
+     * the reader's copy of the flags and the journal length after every toggle
+     */
+    private static void toggleAndFollow(GameBoard board, Random random, int toggles) {
+        int cellCount = ROWS * COLS;
+        boolean[] flags = new boolean[cellCount];
+        int epoch = board.getChangeEpoch();
+        int consumed = board.getChangeCount();
+        int restarts = 0;
+
+        for (int toggle = 0; toggle < toggles; toggle++) {
+            int index = random.nextInt(cellCount);
+            board.toggleFlag(index / COLS, index % COLS);
+            assertTrue("journal of " + board.getChangeCount() + " entries", board.getChangeCount() <= cellCount);
+
+            if (board.getChangeEpoch() != epoch) {
+                restarts++;
+                for (int i = 0; i < cellCount; i++) flags[i] = board.isFlagged(i / COLS, i % COLS);
+            } else {
+                for (int i = consumed; i < board.getChangeCount(); i++) {
+                    int changed = board.getChangedIndex(i);
+                    flags[changed] = board.isFlagged(changed / COLS, changed % COLS);
+                }
+            }
+            epoch = board.getChangeEpoch();
+            consumed = board.getChangeCount();
+            assertEquals("toggle " + toggle, board.isFlagged(index / COLS, index % COLS), flags[index]);
+        }
+
+        for (int i = 0; i < cellCount; i++) {
+            assertEquals("cell " + i, board.isFlagged(i / COLS, i % COLS), flags[i]);
+        }
+        assertTrue("journal never restarted", restarts > 0);
+    }
+
+    @Test
+    public void bughisBoardJournalStaysWithinOneEntryPerCell() {
+        BughisBoard board = new BughisBoard(ROWS, COLS, 1000, new Random(1));
+        board.revealCell(0, 0);
+        toggleAndFollow(board, new Random(2), ROWS * COLS * 3);
+    }
+
+    @Test
+    public void bitBoardJournalStaysWithinOneEntryPerCell() {
+        BitBoard board = new BitBoard(ROWS, COLS, 1000, new Random(1));
+        board.revealCell(0, 0);
+        toggleAndFollow(board, new Random(2), ROWS * COLS * 3);
+    }
+}
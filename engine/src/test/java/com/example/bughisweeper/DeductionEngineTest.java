@@ -0,0 +1,134 @@
+package com.example.bughisweeper;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DeductionEngineTest {
+
+    /**
+     * Every cell the engine has ever concluded about must match the hidden layout
+     */
+    private static void assertSound(String where, DeductionEngine engine, BughisBoard board) {
+        int cols = board.getCols();
+        for (int i = 0; i < engine.getMineCount(); i++) {
+            int index = engine.getMine(i);
+            assertTrue(where + " mine " + index, board.hasBug(index / cols, index % cols));
+        }
+        for (int i = 0; i < engine.getSafeCount(); i++) {
+            int index = engine.getSafe(i);
+            assertFalse(where + " safe " + index, board.hasBug(index / cols, index % cols));
+        }
+        for (int index = 0; index < board.getRows() * cols; index++) {
+            boolean bug = board.hasBug(index / cols, index % cols);
+            if (engine.isKnownMine(index)) assertTrue(where + " known mine " + index, bug);
+            if (engine.isKnownSafe(index)) assertFalse(where + " known safe " + index, bug);
+        }
+    }
+
+    /**
+     * Reveal a safe cell the engine does not know about yet, so play goes on past what
+     * logic alone reaches
+     */
+    private static boolean revealUnknownSafeCell(BughisBoard board, DeductionEngine engine, Random random) {
+        int cellCount = board.getRows() * board.getCols();
+        int start = random.nextInt(cellCount);
+        for (int k = 0; k < cellCount; k++) {
+            int index = (start + k) % cellCount;
+            int r = index / board.getCols();
+            int c = index % board.getCols();
+            if (!board.isRevealed(r, c) && !board.isFlagged(r, c) && !board.hasBug(r, c)
+                    && !engine.isKnownSafe(index)) {
+                board.revealCell(r, c);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void deductionsAreSound() {
+        for (long seed = 1; seed <= 40; seed++) {
+            Random random = new Random(seed);
+            BughisBoard board = new BughisBoard(12, 12, 25, new Random(seed));
+            board.revealCell(random.nextInt(12), random.nextInt(12));
+            DeductionEngine engine = new DeductionEngine();
+
+            for (int move = 0; move < 30 && board.getGameState() == BughisBoard.GameState.PLAYING; move++) {
+                engine.deduce(board);
+                assertSound("seed " + seed + " move " + move, engine, board);
+
+                // Act on part of the deductions so the journal path is exercised too
+                for (int i = 0; i < engine.getMineCount(); i += 2) {
+                    int index = engine.getMine(i);
+                    board.toggleFlag(index / 12, index % 12);
+                }
+                if (!revealUnknownSafeCell(board, engine, random)) break;
+            }
+        }
+    }
+
+    @Test
+    public void deductionsStaySoundAfterFlagsAreRemoved() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            BughisBoard board = new BughisBoard(10, 10, 18, new Random(seed));
+            board.revealCell(5, 5);
+            DeductionEngine engine = new DeductionEngine();
+
+            engine.deduce(board);
+            for (int i = 0; i < engine.getMineCount(); i++) {
+                int index = engine.getMine(i);
+                board.toggleFlag(index / 10, index % 10);
+            }
+            revealUnknownSafeCell(board, engine, random);
+            engine.deduce(board);
+            assertSound("seed " + seed + " flagged", engine, board);
+
+            // Unflag everything; the engine has to rescan rather than trust stale deductions
+            for (int index = 0; index < 100; index++) {
+                if (board.isFlagged(index / 10, index % 10)) board.toggleFlag(index / 10, index % 10);
+            }
+            engine.deduce(board);
+            assertSound("seed " + seed + " unflagged", engine, board);
+        }
+    }
+
+    @Test
+    public void sweepNeverHitsABug() {
+        for (long seed = 1; seed <= 40; seed++) {
+            BughisBoard board = new BughisBoard(16, 16, 40, new Random(seed));
+            board.revealCell(8, 8);
+
+            new DeductionEngine().sweep(board);
+
+            assertNotEquals("seed " + seed, BughisBoard.GameState.LOST, board.getGameState());
+            for (int r = 0; r < 16; r++) {
+                for (int c = 0; c < 16; c++) {
+                    if (board.isFlagged(r, c)) assertTrue("seed " + seed, board.hasBug(r, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void singlePointRulesResolveACorner() {
+        // Bug in the corner of a 3x3: the opening reveals the eight safe cells around it,
+        // and each number next to the corner has it as its only hidden neighbor
+        BughisBoard board = new BughisBoard(3, 3, 1, new Random(1));
+        board.placeBugs(new int[] {0}, 1);
+        board.revealCell(2, 2);
+
+        DeductionEngine engine = new DeductionEngine();
+        assertEquals(1, engine.deduce(board));
+
+        assertEquals(1, engine.getMineCount());
+        assertEquals(0, engine.getMine(0));
+        assertTrue(engine.isKnownMine(0));
+        for (int index = 1; index < 9; index++) {
+            assertTrue(engine.isKnownSafe(index));
+        }
+    }
+}
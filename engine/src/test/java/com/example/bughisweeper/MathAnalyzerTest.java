@@ -0,0 +1,107 @@
+package com.example.bughisweeper;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MathAnalyzerTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Journal of a snapshot that cannot be read, as if the analysis threw part way through
+     */
+    private static final class FailingJournal implements ReadableBoard {
+        private final ReadableBoard board;
+
+        FailingJournal(ReadableBoard board) {
+            this.board = board;
+        }
+
+        @Override public int getRows() { return board.getRows(); }
+        @Override public int getCols() { return board.getCols(); }
+        @Override public int getTotalBugs() { return board.getTotalBugs(); }
+        @Override public boolean isRevealed(int row, int col) { return board.isRevealed(row, col); }
+        @Override public boolean isFlagged(int row, int col) { return board.isFlagged(row, col); }
+        @Override public boolean hasBug(int row, int col) { return board.hasBug(row, col); }
+        @Override public int getAdjacentBugs(int row, int col) { return board.getAdjacentBugs(row, col); }
+        @Override public int getChangeEpoch() { return board.getChangeEpoch(); }
+        @Override public int getChangeCount() { return board.getChangeCount(); }
+        @Override public int getChangedIndex(int i) { throw new IllegalStateException("injected failure"); }
+    }
+
+    /**
+     * Reveal the first hidden safe cell at or after a position
+     */
+    private static void revealSafeCell(BughisBoard board, int start) {
+        int cellCount = board.getRows() * board.getCols();
+        for (int k = 0; k < cellCount; k++) {
+            int index = (start + k) % cellCount;
+            int r = index / board.getCols();
+            int c = index % board.getCols();
+            if (!board.isRevealed(r, c) && !board.hasBug(r, c)) {
+                board.revealCell(r, c);
+                return;
+            }
+        }
+    }
+
+    private static void assertMatchesFreshAnalysis(BughisBoard board, MathAnalyzer analyzer) {
+        MathAnalyzer fresh = new MathAnalyzer();
+        fresh.initializeGame(board.snapshot(0));
+        double[][] expected = fresh.getProbabilityGrid();
+        double[][] actual = analyzer.getProbabilityGrid();
+        for (int r = 0; r < expected.length; r++) {
+            assertArrayEquals("row " + r, expected[r], actual[r], EPSILON);
+        }
+        assertEquals(fresh.getSafestCell(), analyzer.getSafestCell());
+    }
+
+    private static BughisBoard startedBoard() {
+        BughisBoard board = new BughisBoard(9, 9, 10, new Random(4));
+        board.revealCell(4, 4);
+        return board;
+    }
+
+    @Test
+    public void skippedSnapshotResynchronizes() {
+        BughisBoard board = startedBoard();
+        MathAnalyzer analyzer = new MathAnalyzer();
+        analyzer.initializeGame(board.snapshot(0));
+        int analyzed = board.getChangeCount();
+
+        // This snapshot's analysis is lost, so the next journal starts past what was analyzed
+        revealSafeCell(board, 0);
+        int skipped = board.getChangeCount();
+        revealSafeCell(board, 40);
+        assertTrue(skipped > analyzed);
+
+        analyzer.updateCompleteAnalysis(board.snapshot(skipped));
+        assertMatchesFreshAnalysis(board, analyzer);
+    }
+
+    @Test
+    public void analysisRecoversAfterAFailedUpdate() {
+        BughisBoard board = startedBoard();
+        MathAnalyzer analyzer = new MathAnalyzer();
+        analyzer.initializeGame(board.snapshot(0));
+
+        int from = board.getChangeCount();
+        revealSafeCell(board, 0);
+        try {
+            analyzer.updateCompleteAnalysis(new FailingJournal(board.snapshot(from)));
+            fail("the injected failure should propagate");
+        } catch (IllegalStateException expected) {
+            // As AnalysisPipeline would see it
+        }
+
+        // The next submission carries only the changes made since the failed one
+        analyzer.invalidateAnalysis();
+        from = board.getChangeCount();
+        revealSafeCell(board, 60);
+        analyzer.updateCompleteAnalysis(board.snapshot(from));
+        assertMatchesFreshAnalysis(board, analyzer);
+    }
+}
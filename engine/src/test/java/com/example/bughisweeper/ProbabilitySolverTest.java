@@ -0,0 +1,297 @@
+package com.example.bughisweeper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ProbabilitySolverTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Small board part way through a game: the opening click, a few more safe reveals and,
+     * every other seed, a correct flag
+     */
+    private static BughisBoard playedBoard(long seed) {
+        Random random = new Random(seed);
+        BughisBoard board = new BughisBoard(5, 5, 5, new Random(seed));
+        board.revealCell(random.nextInt(5), random.nextInt(5));
+        for (int move = 0; move < 3; move++) {
+            revealRandomSafeCell(board, random);
+        }
+        if (seed % 2 == 0) {
+            flagRandomBug(board, random);
+        }
+        return board;
+    }
+
+    private static void revealRandomSafeCell(BughisBoard board, Random random) {
+        List<Integer> safe = new ArrayList<>();
+        for (int index = 0; index < board.getRows() * board.getCols(); index++) {
+            int r = index / board.getCols();
+            int c = index % board.getCols();
+            if (!board.isRevealed(r, c) && !board.isFlagged(r, c) && !board.hasBug(r, c)) safe.add(index);
+        }
+        if (safe.isEmpty()) return;
+        int index = safe.get(random.nextInt(safe.size()));
+        board.revealCell(index / board.getCols(), index % board.getCols());
+    }
+
+    private static void flagRandomBug(BughisBoard board, Random random) {
+        List<Integer> bugs = new ArrayList<>();
+        for (int index = 0; index < board.getRows() * board.getCols(); index++) {
+            int r = index / board.getCols();
+            int c = index % board.getCols();
+            if (board.hasBug(r, c) && !board.isFlagged(r, c)) bugs.add(index);
+        }
+        if (bugs.isEmpty()) return;
+        int index = bugs.get(random.nextInt(bugs.size()));
+        board.toggleFlag(index / board.getCols(), index % board.getCols());
+    }
+
+    /**
+     * Posteriors by enumerating every placement of the remaining bugs on the unknown cells
+     * and keeping those that agree with every revealed number
+     */
+    private static double[] bruteForcePosteriors(ReadableBoard board) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+        boolean[] mine = new boolean[rows * cols];
+        List<Integer> unknown = new ArrayList<>();
+        int knownMines = 0;
+        for (int index = 0; index < rows * cols; index++) {
+            int r = index / cols;
+            int c = index % cols;
+            if (board.isFlagged(r, c) || (board.isRevealed(r, c) && board.hasBug(r, c))) {
+                mine[index] = true;
+                knownMines++;
+            } else if (!board.isRevealed(r, c)) {
+                unknown.add(index);
+            }
+        }
+
+        long[] bugCounts = new long[rows * cols];
+        long[] layouts = new long[1];
+        enumerate(board, unknown, 0, board.getTotalBugs() - knownMines, mine, bugCounts, layouts);
+
+        double[] posteriors = new double[rows * cols];
+        for (int index : unknown) {
+            posteriors[index] = bugCounts[index] / (double) layouts[0];
+        }
+        return posteriors;
+    }
+
+    private static void enumerate(ReadableBoard board, List<Integer> unknown, int next, int bugsLeft,
+                                  boolean[] mine, long[] bugCounts, long[] layouts) {
+        if (bugsLeft == 0) {
+            if (!consistent(board, mine)) return;
+            layouts[0]++;
+            for (int index : unknown) {
+                if (mine[index]) bugCounts[index]++;
+            }
+            return;
+        }
+        if (unknown.size() - next < bugsLeft) return;
+
+        int index = unknown.get(next);
+        mine[index] = true;
+        enumerate(board, unknown, next + 1, bugsLeft - 1, mine, bugCounts, layouts);
+        mine[index] = false;
+        enumerate(board, unknown, next + 1, bugsLeft, mine, bugCounts, layouts);
+    }
+
+    private static boolean consistent(ReadableBoard board, boolean[] mine) {
+        int rows = board.getRows();
+        int cols = board.getCols();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (!board.isRevealed(r, c) || board.hasBug(r, c)) continue;
+                int around = 0;
+                for (int nr = Math.max(0, r - 1); nr <= Math.min(rows - 1, r + 1); nr++) {
+                    for (int nc = Math.max(0, c - 1); nc <= Math.min(cols - 1, c + 1); nc++) {
+                        if (mine[nr * cols + nc]) around++;
+                    }
+                }
+                if (around != board.getAdjacentBugs(r, c)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static void assertGridsEqual(double[][] expected, double[][] actual) {
+        for (int r = 0; r < expected.length; r++) {
+            assertArrayEquals("row " + r, expected[r], actual[r], EPSILON);
+        }
+    }
+
+    @Test
+    public void solveMatchesBruteForce() {
+        ProbabilitySolver solver = new ProbabilitySolver();
+        int checked = 0;
+        for (long seed = 1; seed <= 40; seed++) {
+            BughisBoard board = playedBoard(seed);
+            if (board.getGameState() != BughisBoard.GameState.PLAYING) continue;
+            checked++;
+
+            double[][] grid = new double[5][5];
+            solver.solve(board, grid);
+            double[] expected = bruteForcePosteriors(board);
+
+            assertTrue("seed " + seed, solver.isExact());
+            for (int index = 0; index < 25; index++) {
+                int r = index / 5;
+                int c = index % 5;
+                if (board.isFlagged(r, c)) {
+                    assertEquals(1.0, grid[r][c], 0);
+                } else if (board.isRevealed(r, c)) {
+                    assertEquals(0.0, grid[r][c], 0);
+                } else {
+                    assertEquals("seed " + seed + " cell " + index, expected[index], grid[r][c], EPSILON);
+                }
+            }
+        }
+        assertTrue(checked >= 20);
+    }
+
+    @Test
+    public void revealedBugCountsAsKnownMine() {
+        // A shield save leaves the bug revealed; it must weigh like a flag
+        BughisBoard board = new BughisBoard(5, 5, 5, new Random(3));
+        board.placeBugs(new int[] {2, 7, 12, 17, 22}, 5);
+        board.revealCell(0, 0);
+        board.revealCell(2, 2);
+
+        double[][] grid = new double[5][5];
+        new ProbabilitySolver().solve(board, grid);
+        double[] expected = bruteForcePosteriors(board);
+
+        assertEquals(1.0, grid[2][2], 0);
+        for (int index = 0; index < 25; index++) {
+            if (!board.isRevealed(index / 5, index % 5)) {
+                assertEquals(expected[index], grid[index / 5][index % 5], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void updateMatchesFullSolve() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            BughisBoard board = new BughisBoard(8, 8, 10, new Random(seed));
+            board.revealCell(random.nextInt(8), random.nextInt(8));
+
+            ProbabilitySolver incremental = new ProbabilitySolver();
+            double[][] grid = new double[8][8];
+            incremental.solve(board, grid);
+            int epoch = board.getChangeEpoch();
+            int consumed = board.getChangeCount();
+
+            for (int move = 0; move < 12 && board.getGameState() == BughisBoard.GameState.PLAYING; move++) {
+                if (move % 4 == 3) {
+                    flagRandomBug(board, random);
+                } else {
+                    revealRandomSafeCell(board, random);
+                }
+
+                int[] changed;
+                if (board.getChangeEpoch() != epoch) {
+                    // Journal restarted; every cell may have changed
+                    changed = new int[64];
+                    for (int i = 0; i < changed.length; i++) changed[i] = i;
+                } else {
+                    changed = new int[board.getChangeCount() - consumed];
+                    for (int i = 0; i < changed.length; i++) changed[i] = board.getChangedIndex(consumed + i);
+                }
+                epoch = board.getChangeEpoch();
+                consumed = board.getChangeCount();
+
+                incremental.update(board, grid, changed, changed.length);
+                double[][] fresh = new double[8][8];
+                new ProbabilitySolver().solve(board, fresh);
+
+                assertGridsEqual(fresh, grid);
+            }
+        }
+    }
+
+    @Test
+    public void updateKeepsFrontierAndUnconstrainedCellsInStep() {
+        // Flags go on and come off again, so components split, merge and dissolve
+        for (long seed = 1; seed <= 10; seed++) {
+            Random random = new Random(seed);
+            BughisBoard board = new BughisBoard(16, 16, 40, new Random(seed));
+            board.revealCell(8, 8);
+
+            ProbabilitySolver incremental = new ProbabilitySolver();
+            double[][] grid = new double[16][16];
+            incremental.solve(board, grid);
+            int consumed = board.getChangeCount();
+            int epoch = board.getChangeEpoch();
+
+            for (int move = 0; move < 30 && board.getGameState() == BughisBoard.GameState.PLAYING; move++) {
+                if (move % 5 == 2) {
+                    flagRandomBug(board, random);
+                } else if (move % 5 == 4) {
+                    int index = random.nextInt(256);
+                    if (board.isFlagged(index / 16, index % 16)) board.toggleFlag(index / 16, index % 16);
+                    else flagRandomBug(board, random);
+                } else {
+                    revealRandomSafeCell(board, random);
+                }
+                if (board.getChangeEpoch() != epoch) break;
+
+                int[] changed = new int[board.getChangeCount() - consumed];
+                for (int i = 0; i < changed.length; i++) changed[i] = board.getChangedIndex(consumed + i);
+                consumed = board.getChangeCount();
+                incremental.update(board, grid, changed, changed.length);
+
+                ProbabilitySolver fresh = new ProbabilitySolver();
+                double[][] freshGrid = new double[16][16];
+                fresh.solve(board, freshGrid);
+                String where = "seed " + seed + " move " + move;
+                assertGridsEqual(freshGrid, grid);
+                assertEquals(where, fresh.getFrontierSize(), incremental.getFrontierSize());
+                assertEquals(where, fresh.getComponentCount(), incremental.getComponentCount());
+                assertEquals(where, fresh.getUnconstrainedCount(), incremental.getUnconstrainedCount());
+
+                boolean[] frontier = new boolean[256];
+                for (int i = 0; i < incremental.getFrontierSize(); i++) {
+                    frontier[incremental.getFrontierCell(i)] = true;
+                }
+                for (int i = 0; i < fresh.getFrontierSize(); i++) {
+                    assertTrue(where, frontier[fresh.getFrontierCell(i)]);
+                }
+                for (int i = 0; i < incremental.getUnconstrainedCount(); i++) {
+                    int index = incremental.getUnconstrainedCell(i);
+                    assertFalse(where, frontier[index]);
+                    assertFalse(where, board.isRevealed(index / 16, index % 16) || board.isFlagged(index / 16, index % 16));
+                    assertEquals(where, incremental.getUnconstrainedProbability(), grid[index / 16][index % 16], 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void samplerDrawsConsistentLayouts() {
+        BughisBoard board = playedBoard(4);
+        ProbabilitySolver solver = new ProbabilitySolver();
+        solver.solve(board, new double[5][5]);
+        ProbabilitySolver.LayoutSampler sampler = solver.newSampler();
+        assertNotNull(sampler);
+
+        Random random = new Random(9);
+        int[] bugs = new int[25];
+        for (int draw = 0; draw < 50; draw++) {
+            int count = sampler.sample(random, bugs);
+            assertEquals(board.getTotalBugs(), count);
+
+            boolean[] mine = new boolean[25];
+            for (int i = 0; i < count; i++) mine[bugs[i]] = true;
+            assertTrue(consistent(board, mine));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bughisweeper;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Region counts of BughisBoard, which are answered from RegionCounts, against plain loops
+ */
+public class RegionCountsTest {
+
+    private static int naiveCount(BughisBoard board, int what, int top, int left, int bottom, int right) {
+        int count = 0;
+        for (int r = Math.max(0, top); r <= Math.min(board.getRows() - 1, bottom); r++) {
+            for (int c = Math.max(0, left); c <= Math.min(board.getCols() - 1, right); c++) {
+                boolean set = what == 0 ? board.hasBug(r, c) : what == 1 ? board.isFlagged(r, c) : board.isRevealed(r, c);
+                if (set) count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Random rectangles, some reaching past the board edges
+     */
+    private static void assertCountsMatch(String where, BughisBoard board, Random random) {
+        for (int query = 0; query < 50; query++) {
+            int top = random.nextInt(board.getRows() + 4) - 2;
+            int left = random.nextInt(board.getCols() + 4) - 2;
+            int bottom = top + random.nextInt(board.getRows());
+            int right = left + random.nextInt(board.getCols());
+            String rect = where + " [" + top + "," + left + " - " + bottom + "," + right + "]";
+
+            assertEquals(rect, naiveCount(board, 0, top, left, bottom, right), board.countBugs(top, left, bottom, right));
+            assertEquals(rect, naiveCount(board, 1, top, left, bottom, right), board.countFlags(top, left, bottom, right));
+            assertEquals(rect, naiveCount(board, 2, top, left, bottom, right), board.countRevealed(top, left, bottom, right));
+        }
+    }
+
+    private static void playRandomMoves(BughisBoard board, Random random, int moves) {
+        for (int move = 0; move < moves; move++) {
+            int row = random.nextInt(board.getRows());
+            int col = random.nextInt(board.getCols());
+            if (move > 0 && random.nextInt(3) == 0) {
+                board.toggleFlag(row, col);
+            } else {
+                board.revealCell(row, col); // Bug hits keep the game going, as with a shield
+            }
+        }
+    }
+
+    @Test
+    public void countsMatchNaiveCountsDuringPlay() {
+        for (long seed = 1; seed <= 10; seed++) {
+            Random random = new Random(seed);
+            BughisBoard board = new BughisBoard(13, 21, 40, new Random(seed));
+            board.revealCell(6, 10);
+            assertCountsMatch("seed " + seed + " start", board, random);
+
+            for (int round = 0; round < 8; round++) {
+                playRandomMoves(board, random, 5);
+                assertCountsMatch("seed " + seed + " round " + round, board, random);
+            }
+        }
+    }
+
+    @Test
+    public void countsMatchNaiveCountsAfterReset() {
+        Random random = new Random(3);
+        BughisBoard board = new BughisBoard(16, 16, 40, new Random(3));
+        board.revealCell(0, 0);
+        playRandomMoves(board, random, 20);
+        assertCountsMatch("first game", board, random);
+
+        board.reset();
+        assertCountsMatch("after reset", board, random);
+
+        board.revealCell(15, 15);
+        playRandomMoves(board, random, 20);
+        assertCountsMatch("second game", board, random);
+    }
+
+    @Test
+    public void wholeBoardCountsMatchTotals() {
+        BughisBoard board = new BughisBoard(9, 9, 10, new Random(8));
+        board.revealCell(4, 4);
+        board.toggleFlag(0, 0);
+
+        assertEquals(10, board.countBugs(0, 0, 8, 8));
+        assertEquals(board.getFlaggedCells(), board.countFlags(0, 0, 8, 8));
+        assertEquals(board.getRevealedCells(), board.countRevealed(0, 0, 8, 8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.bughisweeper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+
+    @Test
+    public void deadlineFiresAtItsTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(50, 8);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("a", 120); // Rounded up to 150
+
+        assertEquals(150, wheel.nextDeadline());
+        wheel.advance(149, expired);
+        assertTrue(expired.isEmpty());
+        wheel.advance(150, expired);
+        assertEquals(1, expired.size());
+        assertEquals("a", expired.get(0));
+        assertTrue(wheel.isEmpty());
+        assertEquals(Long.MAX_VALUE, wheel.nextDeadline());
+    }
+
+    @Test
+    public void rescheduleMovesAndCancelRemoves() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 16);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("moved", 50);
+        wheel.schedule("cancelled", 60);
+        wheel.schedule("moved", 200);
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("cancelled"));
+
+        wheel.advance(100, expired);
+        assertTrue(expired.isEmpty());
+        assertEquals(200, wheel.nextDeadline());
+        wheel.advance(200, expired);
+        assertEquals(1, expired.size());
+        assertEquals("moved", expired.get(0));
+    }
+
+    @Test
+    public void deadlinesBeyondTheRingWaitUntilDue() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 4);
+        List<Integer> expired = new ArrayList<>();
+        wheel.schedule(1, 1000);
+
+        for (long now = 0; now < 1000; now += 10) {
+            wheel.advance(now, expired);
+            assertTrue("fired early at " + now, expired.isEmpty());
+        }
+        wheel.advance(1000, expired);
+        assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void longGapFiresEverythingDue() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 8);
+        List<Integer> expired = new ArrayList<>();
+        wheel.advance(0, expired);
+        for (int key = 0; key < 20; key++) {
+            wheel.schedule(key, 100 + key * 37);
+        }
+        wheel.schedule(99, 100000);
+
+        wheel.advance(50000, expired);
+        assertEquals(20, expired.size());
+        assertTrue(wheel.contains(99));
+    }
+
+    @Test
+    public void passedDeadlineFiresAtTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(50, 8);
+        List<String> expired = new ArrayList<>();
+        wheel.advance(500, expired);
+        wheel.schedule("late", 100);
+
+        wheel.advance(500, expired);
+        assertTrue(expired.isEmpty());
+        wheel.advance(550, expired);
+        assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void randomDeadlinesFireNeitherEarlyNorLate() {
+        Random random = new Random(11);
+        TimerWheel<Integer> wheel = new TimerWheel<>(16, 32);
+        List<Integer> expired = new ArrayList<>();
+        Map<Integer, Long> deadlines = new HashMap<>();
+
+        long now = 0;
+        wheel.advance(now, expired);
+        for (int step = 0; step < 2000; step++) {
+            if (random.nextInt(3) == 0) {
+                int key = random.nextInt(50);
+                long deadline = now + 1 + random.nextInt(2000);
+                wheel.schedule(key, deadline);
+                deadlines.put(key, (deadline + 15) / 16 * 16);
+            }
+
+            long previous = now;
+            now += random.nextInt(40);
+            expired.clear();
+            wheel.advance(now, expired);
+            for (int key : expired) {
+                long due = deadlines.remove(key);
+                assertTrue("key " + key + " late", due > previous);
+                assertTrue("key " + key + " early", due <= now);
+            }
+            for (Map.Entry<Integer, Long> pending : deadlines.entrySet()) {
+                assertTrue("key " + pending.getKey() + " missed", pending.getValue() > now);
+            }
+        }
+    }
+}
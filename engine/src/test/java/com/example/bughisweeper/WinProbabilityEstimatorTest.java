@@ -0,0 +1,92 @@
+package com.example.bughisweeper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WinProbabilityEstimatorTest {
+
+    private WinProbabilityEstimator estimator;
+
+    @Before
+    public void setUp() {
+        estimator = new WinProbabilityEstimator(2);
+    }
+
+    @After
+    public void tearDown() {
+        estimator.shutdown();
+    }
+
+    /**
+     * 5x5 with a wall of bugs down the middle column; the left two columns are open, and
+     * their numbers prove the wall is all the bugs there are
+     */
+    private static BughisBoard wallBoard() {
+        BughisBoard board = new BughisBoard(5, 5, 5, new Random(1));
+        board.placeBugs(new int[] {2, 7, 12, 17, 22}, 5);
+        board.revealCell(0, 0);
+        return board;
+    }
+
+    @Test
+    public void estimateGoesOnAfterShieldSave() throws InterruptedException {
+        BughisBoard board = wallBoard();
+        assertEquals(BughisBoard.RevealResult.BUG_HIT, board.revealCell(2, 2)); // Absorbed by a shield
+
+        WinProbabilityEstimator.Estimate estimate = estimator.estimate(board, 64, 0, 7);
+
+        assertTrue(estimate.complete);
+        assertEquals(64, estimate.samples);
+        // Every other bug is forced by the numbers, so every playout wins
+        assertEquals(64, estimate.wins);
+    }
+
+    @Test
+    public void revealedBugIsNotReplayed() throws InterruptedException {
+        BughisBoard saved = wallBoard();
+        saved.revealCell(2, 2);
+        BughisBoard untouched = wallBoard();
+
+        WinProbabilityEstimator.Estimate afterSave = estimator.estimate(saved, 64, 0, 7);
+        WinProbabilityEstimator.Estimate before = estimator.estimate(untouched, 64, 0, 7);
+
+        // Knowing where a bug is can only help
+        assertTrue(afterSave.probability >= before.probability);
+        assertTrue(afterSave.wins > 0);
+    }
+
+    @Test
+    public void wonBoardIsDecidedWithoutPlaying() throws InterruptedException {
+        BughisBoard board = new BughisBoard(3, 3, 1, new Random(1));
+        board.placeBugs(new int[] {0}, 1);
+        board.revealCell(2, 2);
+        assertEquals(BughisBoard.GameState.WON, board.getGameState());
+
+        WinProbabilityEstimator.Estimate estimate = estimator.estimate(board, 64, 0, 7);
+        assertEquals(1.0, estimate.probability, 0);
+        assertEquals(0.0, estimate.getMargin(), 0);
+    }
+
+    @Test
+    public void decidedLossIsZero() {
+        WinProbabilityEstimator.Estimate lost = WinProbabilityEstimator.Estimate.decided(false);
+        assertEquals(0.0, lost.probability, 0);
+        assertEquals(0.0, lost.getMargin(), 0);
+        assertTrue(lost.complete);
+    }
+
+    @Test
+    public void decidedWinIsCertain() {
+        WinProbabilityEstimator.Estimate won = WinProbabilityEstimator.Estimate.decided(true);
+        assertEquals(1.0, won.probability, 0);
+        assertEquals(1.0, won.low, 0);
+        assertEquals(1.0, won.high, 0);
+        assertEquals(0.0, won.getMargin(), 0);
+        assertTrue(won.complete);
+    }
+}